@@ -22,8 +22,10 @@
 package com.myjeeva.digitalocean;
 
 import java.util.List;
+import java.util.Map;
 
 import com.myjeeva.digitalocean.common.ActionType;
+import com.myjeeva.digitalocean.common.ApiAction;
 import com.myjeeva.digitalocean.exception.DigitalOceanException;
 import com.myjeeva.digitalocean.exception.RequestUnsuccessfulException;
 import com.myjeeva.digitalocean.pojo.Account;
@@ -62,6 +64,8 @@ import com.myjeeva.digitalocean.pojo.Tag;
 import com.myjeeva.digitalocean.pojo.Tags;
 import com.myjeeva.digitalocean.pojo.Volume;
 import com.myjeeva.digitalocean.pojo.Volumes;
+import com.myjeeva.digitalocean.serializer.FieldProjection;
+import com.myjeeva.digitalocean.stream.ElementVisitor;
 
 /**
  * <p>
@@ -141,6 +145,24 @@ public interface DigitalOcean {
   Droplets getAvailableDroplets(Integer pageNo, Integer perPage)
       throws DigitalOceanException, RequestUnsuccessfulException;
 
+  /**
+   * Method returns all active droplets of your account, binding only the attributes named by given
+   * projection. Other attributes are skipped while parsing and left <code>null</code> on the
+   * droplet, e.g. <code>FieldProjection.of("id", "name", "networks.v4")</code>.
+   * 
+   * @param pageNo for pagination
+   * @param perPage no. of items per page
+   * @param projection droplet attributes to bind, <code>null</code> binds all
+   * @return {@link Droplets}
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   * 
+   * @since v2.18
+   **/
+  Droplets getAvailableDroplets(Integer pageNo, Integer perPage, FieldProjection projection)
+      throws DigitalOceanException, RequestUnsuccessfulException;
+
   /**
    * Method returns all available kernels for given droplet ID
    * 
@@ -622,6 +644,133 @@ public interface DigitalOcean {
   Action enableDropletPrivateNetworking(Integer dropletId)
       throws DigitalOceanException, RequestUnsuccessfulException;
 
+  /**
+   * Power cycles every droplet with given tag, same as turning them off and on again.
+   * 
+   * @param tagName the tag name
+   * @return {@link Actions} with one action per droplet
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   * 
+   * @since v2.18
+   */
+  Actions powerCycleDropletsByTagName(String tagName)
+      throws DigitalOceanException, RequestUnsuccessfulException;
+
+  /**
+   * Powers on every droplet with given tag.
+   * 
+   * @param tagName the tag name
+   * @return {@link Actions} with one action per droplet
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   * 
+   * @since v2.18
+   */
+  Actions powerOnDropletsByTagName(String tagName)
+      throws DigitalOceanException, RequestUnsuccessfulException;
+
+  /**
+   * Powers off every droplet with given tag; a hard shutdown, like unplugging the power.
+   * 
+   * @param tagName the tag name
+   * @return {@link Actions} with one action per droplet
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   * 
+   * @since v2.18
+   */
+  Actions powerOffDropletsByTagName(String tagName)
+      throws DigitalOceanException, RequestUnsuccessfulException;
+
+  /**
+   * Gracefully shuts down every droplet with given tag.
+   * 
+   * @param tagName the tag name
+   * @return {@link Actions} with one action per droplet
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   * 
+   * @since v2.18
+   */
+  Actions shutdownDropletsByTagName(String tagName)
+      throws DigitalOceanException, RequestUnsuccessfulException;
+
+  /**
+   * Enables backups on every droplet with given tag.
+   * 
+   * @param tagName the tag name
+   * @return {@link Actions} with one action per droplet
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   * 
+   * @since v2.18
+   */
+  Actions enableDropletBackupsByTagName(String tagName)
+      throws DigitalOceanException, RequestUnsuccessfulException;
+
+  /**
+   * Disables backups on every droplet with given tag; existing backups are kept.
+   * 
+   * @param tagName the tag name
+   * @return {@link Actions} with one action per droplet
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   * 
+   * @since v2.18
+   */
+  Actions disableDropletBackupsByTagName(String tagName)
+      throws DigitalOceanException, RequestUnsuccessfulException;
+
+  /**
+   * Takes a snapshot of every droplet with given tag. Droplets should be powered off first.
+   * 
+   * @param tagName the tag name
+   * @param snapshotName name of the snapshots, can be null
+   * @return {@link Actions} with one action per droplet
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   * 
+   * @since v2.18
+   */
+  Actions takeDropletSnapshotByTagName(String tagName, String snapshotName)
+      throws DigitalOceanException, RequestUnsuccessfulException;
+
+  /**
+   * Enables IP v6 networking on every droplet with given tag.
+   * 
+   * @param tagName the tag name
+   * @return {@link Actions} with one action per droplet
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   * 
+   * @since v2.18
+   */
+  Actions enableDropletIpv6ByTagName(String tagName)
+      throws DigitalOceanException, RequestUnsuccessfulException;
+
+  /**
+   * Enables private networking on every droplet with given tag.
+   * 
+   * @param tagName the tag name
+   * @return {@link Actions} with one action per droplet
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   * 
+   * @since v2.18
+   */
+  Actions enableDropletPrivateNetworkingByTagName(String tagName)
+      throws DigitalOceanException, RequestUnsuccessfulException;
+
   // ==============================================
   // Account manipulation/access methods
   // ==============================================
@@ -2051,4 +2200,142 @@ public interface DigitalOcean {
   Firewalls getAvailableFirewalls(Integer pageNo, Integer perPage)
       throws DigitalOceanException, RequestUnsuccessfulException;
 
+  // ===========================================
+  // Streaming methods
+  // ===========================================
+
+  /**
+   * Method streams all droplets of your account to given visitor, one droplet at a time. Pages are
+   * requested one after another and each droplet is deserialized straight from the response
+   * stream, so no list is held in memory.
+   * 
+   * @param visitor receives each droplet; return <code>false</code> to stop the sweep
+   * @return no. of droplets visited
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   * 
+   * @since v2.18
+   */
+  int forEachDroplet(ElementVisitor<Droplet> visitor)
+      throws DigitalOceanException, RequestUnsuccessfulException;
+
+  /**
+   * Method streams all droplets of your account to given visitor, binding only the attributes
+   * named by given projection.
+   * 
+   * @param projection droplet attributes to bind, <code>null</code> binds all
+   * @param visitor receives each droplet; return <code>false</code> to stop the sweep
+   * @return no. of droplets visited
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   * 
+   * @since v2.18
+   */
+  int forEachDroplet(FieldProjection projection, ElementVisitor<Droplet> visitor)
+      throws DigitalOceanException, RequestUnsuccessfulException;
+
+  /**
+   * Method streams all images (public and private) to given visitor, one image at a time.
+   * 
+   * @param visitor receives each image; return <code>false</code> to stop the sweep
+   * @return no. of images visited
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   * 
+   * @since v2.18
+   */
+  int forEachImage(ElementVisitor<Image> visitor)
+      throws DigitalOceanException, RequestUnsuccessfulException;
+
+  /**
+   * Method streams all actions of your account to given visitor, newest first, one action at a
+   * time.
+   * 
+   * @param visitor receives each action; return <code>false</code> to stop the sweep
+   * @return no. of actions visited
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   * 
+   * @since v2.18
+   */
+  int forEachAction(ElementVisitor<Action> visitor)
+      throws DigitalOceanException, RequestUnsuccessfulException;
+
+  /**
+   * Method streams all block storage volumes of your account (across regions) to given visitor,
+   * one volume at a time.
+   * 
+   * @param visitor receives each volume; return <code>false</code> to stop the sweep
+   * @return no. of volumes visited
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   * 
+   * @since v2.18
+   */
+  int forEachVolume(ElementVisitor<Volume> visitor)
+      throws DigitalOceanException, RequestUnsuccessfulException;
+
+  /**
+   * Method streams all droplet and volume snapshots of your account to given visitor, one snapshot
+   * at a time.
+   * 
+   * @param visitor receives each snapshot; return <code>false</code> to stop the sweep
+   * @return no. of snapshots visited
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   * 
+   * @since v2.18
+   */
+  int forEachSnapshot(ElementVisitor<Snapshot> visitor)
+      throws DigitalOceanException, RequestUnsuccessfulException;
+
+  /**
+   * Method streams the elements of any collection {@link ApiAction} (<code>GET</code> and
+   * collection element) to given visitor, one element at a time across all pages. Visitor type
+   * has to match the element of the collection POJO, e.g. <code>DomainRecord</code> for
+   * {@link ApiAction#GET_DOMAIN_RECORDS}.
+   * 
+   * @param apiAction a collection api action
+   * @param pathParams a api request path variable value(s), can be null
+   * @param queryParams additional query parameters, can be null
+   * @param visitor receives each element; return <code>false</code> to stop the sweep
+   * @param <T> element type of the collection
+   * @return no. of elements visited
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   * 
+   * @since v2.18
+   */
+  <T> int forEachElement(ApiAction apiAction, Object[] pathParams,
+      Map<String, String> queryParams, ElementVisitor<T> visitor)
+      throws DigitalOceanException, RequestUnsuccessfulException;
+
+  /**
+   * Same as {@link #forEachElement(ApiAction, Object[], Map, ElementVisitor)}, binding only the
+   * element attributes named by given projection.
+   * 
+   * @param apiAction a collection api action
+   * @param pathParams a api request path variable value(s), can be null
+   * @param queryParams additional query parameters, can be null
+   * @param projection element attributes to bind, <code>null</code> binds all
+   * @param visitor receives each element; return <code>false</code> to stop the sweep
+   * @param <T> element type of the collection
+   * @return no. of elements visited
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   * 
+   * @since v2.18
+   */
+  <T> int forEachElement(ApiAction apiAction, Object[] pathParams,
+      Map<String, String> queryParams, FieldProjection projection, ElementVisitor<T> visitor)
+      throws DigitalOceanException, RequestUnsuccessfulException;
+
 }
@@ -0,0 +1,40 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.action;
+
+/**
+ * Callback notified once an {@link ActionFuture} is done.
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public interface ActionCallback {
+
+  /**
+   * Invoked on the thread completing the future, or on the registering thread if the future was
+   * already done; should return quickly.
+   * 
+   * @param future the completed, failed or cancelled future
+   */
+  void onDone(ActionFuture future);
+}
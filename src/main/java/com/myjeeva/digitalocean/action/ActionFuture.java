@@ -0,0 +1,175 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.action;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.myjeeva.digitalocean.pojo.Action;
+
+/**
+ * Pending completion of an {@link Action}. The future completes with the final action, whose
+ * status is either <code>completed</code> or <code>errored</code>; it fails with a
+ * {@link TimeoutException} when the action did not finish in time, or with the exception of the
+ * API call which could not be retried.
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class ActionFuture implements Future<Action> {
+
+  private static final int PENDING = 0;
+
+  private static final int DONE = 1;
+
+  private static final int CANCELLED = 2;
+
+  private final CountDownLatch latch = new CountDownLatch(1);
+
+  // written after action and failure, under the callbacks lock like every transition, so a future
+  // seen done shows its final action
+  private volatile int state = PENDING;
+
+  private volatile Action action;
+
+  private volatile Throwable failure;
+
+  private final List<ActionCallback> callbacks = new ArrayList<ActionCallback>();
+
+  ActionFuture(Action action) {
+    this.action = action;
+  }
+
+  /**
+   * @return the last observed state of the action, final once the future is done
+   */
+  public Action getAction() {
+    return action;
+  }
+
+  /**
+   * Registers a callback notified once this future is done, right away if it already is.
+   * 
+   * @param callback the callback
+   */
+  public void addCallback(ActionCallback callback) {
+    if (null == callback) {
+      throw new IllegalArgumentException("Missing required parameter - callback.");
+    }
+    synchronized (callbacks) {
+      if (!isDone()) {
+        callbacks.add(callback);
+        return;
+      }
+    }
+    callback.onDone(this);
+  }
+
+  void update(Action latest) {
+    synchronized (callbacks) {
+      if (PENDING == state) {
+        action = latest;
+      }
+    }
+  }
+
+  boolean complete(Action latest) {
+    return finish(DONE, latest, null);
+  }
+
+  boolean fail(Throwable cause) {
+    return finish(DONE, action, cause);
+  }
+
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    return finish(CANCELLED, action, null);
+  }
+
+  @Override
+  public boolean isCancelled() {
+    return CANCELLED == state;
+  }
+
+  @Override
+  public boolean isDone() {
+    return PENDING != state;
+  }
+
+  @Override
+  public Action get() throws InterruptedException, ExecutionException {
+    latch.await();
+    return report();
+  }
+
+  @Override
+  public Action get(long timeout, TimeUnit unit)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    if (!latch.await(timeout, unit)) {
+      throw new TimeoutException("Action " + action.getId() + " still pending.");
+    }
+    return report();
+  }
+
+  private boolean finish(int finalState, Action latest, Throwable cause) {
+    List<ActionCallback> pending;
+    synchronized (callbacks) {
+      if (PENDING != state) {
+        return false;
+      }
+      action = latest;
+      failure = cause;
+      state = finalState;
+      pending = new ArrayList<ActionCallback>(callbacks);
+      callbacks.clear();
+    }
+
+    latch.countDown();
+    for (ActionCallback callback : pending) {
+      callback.onDone(this);
+    }
+    return true;
+  }
+
+  private Action report() throws ExecutionException {
+    if (CANCELLED == state) {
+      throw new CancellationException("Waiting for action " + action.getId() + " cancelled.");
+    }
+    if (null != failure) {
+      throw new ExecutionException(failure);
+    }
+    return action;
+  }
+
+  @Override
+  public String toString() {
+    return "ActionFuture [action=" + action.getId() + ", type=" + action.getType() + ", status="
+        + action.getStatus() + ", done=" + isDone() + "]";
+  }
+}
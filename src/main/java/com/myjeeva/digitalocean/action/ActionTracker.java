@@ -0,0 +1,319 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.action;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.myjeeva.digitalocean.DigitalOcean;
+import com.myjeeva.digitalocean.common.ApiAction;
+import com.myjeeva.digitalocean.exception.DigitalOceanException;
+import com.myjeeva.digitalocean.exception.RequestUnsuccessfulException;
+import com.myjeeva.digitalocean.pojo.Action;
+import com.myjeeva.digitalocean.stream.ElementVisitor;
+
+/**
+ * <p>
+ * Tracks many in-flight actions at once. Each round reads the newest pages of
+ * <code>/actions</code>, which lists the actions of the account newest first, and stops as soon as
+ * it is past the oldest tracked id; only tracked actions that sweep did not reach are fetched
+ * one by one. The no. of requests per round thus depends on how many actions were started since the
+ * oldest tracked one, not on how many are tracked.
+ * </p>
+ * 
+ * <pre>
+ * ActionTracker tracker = new ActionTracker(apiClient, 5, TimeUnit.SECONDS);
+ * List&lt;ActionFuture&gt; futures = new ArrayList&lt;ActionFuture&gt;();
+ * for (Integer dropletId : dropletIds) {
+ *   futures.add(tracker.track(apiClient.powerOnDroplet(dropletId), 10, TimeUnit.MINUTES));
+ * }
+ * </pre>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class ActionTracker {
+
+  private static final Logger log = LoggerFactory.getLogger(ActionTracker.class);
+
+  /**
+   * Default no. of actions a sweep reads before leaving the rest to per-id requests
+   */
+  public static final int DEFAULT_SWEEP_LIMIT = 1000;
+
+  private final DigitalOcean apiClient;
+
+  private final ScheduledExecutorService scheduler;
+
+  private final boolean ownScheduler;
+
+  private final ScheduledFuture<?> rounds;
+
+  private final Map<Integer, Tracked> tracked = new ConcurrentHashMap<Integer, Tracked>();
+
+  private volatile int sweepLimit = DEFAULT_SWEEP_LIMIT;
+
+  private final AtomicLong sweepRequests = new AtomicLong();
+
+  private final AtomicLong singleRequests = new AtomicLong();
+
+  /**
+   * Creates a tracker with its own timer thread, to be released with {@link #shutdown()}.
+   * 
+   * @param apiClient client used for polling
+   * @param interval delay between polling rounds
+   * @param unit unit of interval
+   */
+  public ActionTracker(DigitalOcean apiClient, long interval, TimeUnit unit) {
+    this(apiClient, Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "action-tracker");
+        thread.setDaemon(true);
+        return thread;
+      }
+    }), true, interval, unit);
+  }
+
+  /**
+   * Creates a tracker polling on given scheduler, e.g. one shared with an {@link ActionWaiter}.
+   * 
+   * @param apiClient client used for polling
+   * @param scheduler scheduler running the polling rounds
+   * @param interval delay between polling rounds
+   * @param unit unit of interval
+   */
+  public ActionTracker(DigitalOcean apiClient, ScheduledExecutorService scheduler, long interval,
+      TimeUnit unit) {
+    this(apiClient, scheduler, false, interval, unit);
+  }
+
+  private ActionTracker(DigitalOcean apiClient, ScheduledExecutorService scheduler,
+      boolean ownScheduler, long interval, TimeUnit unit) {
+    if (null == apiClient) {
+      throw new IllegalArgumentException("Missing required parameter - apiClient.");
+    }
+    if (null == scheduler) {
+      throw new IllegalArgumentException("Missing required parameter - scheduler.");
+    }
+    if (null == unit || interval <= 0) {
+      throw new IllegalArgumentException("interval must be greater than zero.");
+    }
+    this.apiClient = apiClient;
+    this.scheduler = scheduler;
+    this.ownScheduler = ownScheduler;
+    this.rounds = scheduler.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          refresh();
+        } catch (RuntimeException e) {
+          log.error("Action tracking round failed", e);
+        }
+      }
+    }, interval, interval, unit);
+  }
+
+  /**
+   * Starts tracking given action.
+   * 
+   * @param action action as returned by the API, with id
+   * @param timeout maximum time to wait
+   * @param unit unit of timeout
+   * @return future completing with the final action
+   */
+  public ActionFuture track(Action action, long timeout, TimeUnit unit) {
+    if (null == action || null == action.getId()) {
+      throw new IllegalArgumentException("Missing required parameter - action id.");
+    }
+    if (null == unit || timeout <= 0) {
+      throw new IllegalArgumentException("timeout must be greater than zero.");
+    }
+
+    ActionFuture future = new ActionFuture(action);
+    if (ActionWaiter.isFinished(action)) {
+      future.complete(action);
+    } else {
+      tracked.put(action.getId(),
+          new Tracked(future, System.currentTimeMillis() + unit.toMillis(timeout)));
+    }
+    return future;
+  }
+
+  /**
+   * Runs one polling round on the calling thread; rounds also run periodically on the scheduler.
+   */
+  public synchronized void refresh() {
+    expire();
+    if (tracked.isEmpty()) {
+      return;
+    }
+
+    final Set<Integer> seen = new HashSet<Integer>();
+    final int oldest = oldestId();
+    try {
+      int visited = apiClient.forEachElement(ApiAction.AVAILABLE_ACTIONS, null, null,
+          new ElementVisitor<Action>() {
+            private int count;
+
+            @Override
+            public boolean visit(Action action) {
+              if (null == action.getId()) {
+                return true;
+              }
+              seen.add(action.getId());
+              apply(action);
+              return action.getId() > oldest && ++count < sweepLimit;
+            }
+          });
+      sweepRequests.incrementAndGet();
+      log.debug("Swept {} action(s) down to id {}", visited, oldest);
+    } catch (DigitalOceanException | RequestUnsuccessfulException e) {
+      log.warn("Sweeping actions failed, polling tracked actions one by one: {}", e.getMessage());
+    }
+
+    for (Integer id : tracked.keySet()) {
+      if (seen.contains(id)) {
+        continue;
+      }
+      try {
+        singleRequests.incrementAndGet();
+        apply(apiClient.getActionInfo(id));
+      } catch (DigitalOceanException e) {
+        Tracked entry = tracked.remove(id);
+        if (null != entry) {
+          entry.future.fail(e);
+        }
+      } catch (RequestUnsuccessfulException e) {
+        log.warn("Polling action {} failed, retrying: {}", id, e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * @return no. of actions currently tracked
+   */
+  public int getTrackedCount() {
+    return tracked.size();
+  }
+
+  /**
+   * @param sweepLimit no. of actions a sweep reads at most before leaving the remaining tracked
+   *        actions to per-id requests
+   */
+  public void setSweepLimit(int sweepLimit) {
+    if (sweepLimit < 1) {
+      throw new IllegalArgumentException("sweepLimit must be greater than zero.");
+    }
+    this.sweepLimit = sweepLimit;
+  }
+
+  /**
+   * @return no. of <code>/actions</code> sweeps made so far
+   */
+  public long getSweepCount() {
+    return sweepRequests.get();
+  }
+
+  /**
+   * @return no. of per-id <code>getActionInfo</code> requests made for stragglers so far
+   */
+  public long getStragglerRequestCount() {
+    return singleRequests.get();
+  }
+
+  /**
+   * Stops the polling rounds, and the timer thread if created by this tracker. Pending futures are
+   * cancelled.
+   */
+  public void shutdown() {
+    rounds.cancel(false);
+    if (ownScheduler) {
+      scheduler.shutdownNow();
+    }
+    for (Iterator<Tracked> it = tracked.values().iterator(); it.hasNext();) {
+      it.next().future.cancel(false);
+      it.remove();
+    }
+  }
+
+  private void apply(Action action) {
+    Tracked entry = tracked.get(action.getId());
+    if (null == entry) {
+      return;
+    }
+    if (ActionWaiter.isFinished(action)) {
+      tracked.remove(action.getId());
+      entry.future.complete(action);
+    } else {
+      entry.future.update(action);
+    }
+  }
+
+  private void expire() {
+    long now = System.currentTimeMillis();
+    for (Iterator<Map.Entry<Integer, Tracked>> it = tracked.entrySet().iterator(); it.hasNext();) {
+      Map.Entry<Integer, Tracked> entry = it.next();
+      Tracked t = entry.getValue();
+      if (t.future.isDone()) {
+        it.remove();
+      } else if (now >= t.deadline) {
+        it.remove();
+        t.future.fail(new TimeoutException("Action " + entry.getKey() + " not finished in time."));
+      }
+    }
+  }
+
+  private int oldestId() {
+    int oldest = Integer.MAX_VALUE;
+    for (Integer id : tracked.keySet()) {
+      oldest = Math.min(oldest, id);
+    }
+    return oldest;
+  }
+
+  private static class Tracked {
+
+    private final ActionFuture future;
+
+    private final long deadline;
+
+    Tracked(ActionFuture future, long deadline) {
+      this.future = future;
+      this.deadline = deadline;
+    }
+  }
+}
@@ -0,0 +1,361 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.action;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.myjeeva.digitalocean.DigitalOcean;
+import com.myjeeva.digitalocean.common.ActionStatus;
+import com.myjeeva.digitalocean.common.ActionType;
+import com.myjeeva.digitalocean.exception.DigitalOceanException;
+import com.myjeeva.digitalocean.exception.RequestUnsuccessfulException;
+import com.myjeeva.digitalocean.pojo.Action;
+
+/**
+ * <p>
+ * Waits for actions to finish by polling <code>getActionInfo</code>, scheduled on one shared timer
+ * thread instead of a sleeping thread per waiter. The timer only hands due polls to a small poll
+ * executor, so a slow request does not hold back the polls of other actions. Polling adapts to
+ * the expected duration of each {@link ActionType}: the first poll comes at half of it, then every
+ * quarter until it has elapsed, after which the interval backs off with the elapsed time. Expected
+ * durations start from built-in estimates (seconds for <code>power_on</code>, minutes for
+ * <code>snapshot</code> or <code>transfer</code>) and follow the durations actually observed.
+ * </p>
+ * 
+ * <pre>
+ * ActionWaiter waiter = new ActionWaiter(apiClient);
+ * Action action = apiClient.powerOnDroplet(dropletId);
+ * action = waiter.waitForCompletion(action, 2, TimeUnit.MINUTES);
+ * </pre>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class ActionWaiter {
+
+  private static final Logger log = LoggerFactory.getLogger(ActionWaiter.class);
+
+  static final long MIN_INTERVAL = TimeUnit.SECONDS.toMillis(1);
+
+  static final long MAX_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+  private static final long DEFAULT_EXPECTED = TimeUnit.SECONDS.toMillis(10);
+
+  private static final double SMOOTHING = 0.2;
+
+  /**
+   * No. of threads running the polls of a waiter created with {@link #ActionWaiter(DigitalOcean)}
+   */
+  public static final int DEFAULT_POLL_THREADS = 4;
+
+  private final DigitalOcean apiClient;
+
+  private final ScheduledExecutorService scheduler;
+
+  private final Executor pollExecutor;
+
+  // created by this waiter and shut down with it, null otherwise
+  private final ExecutorService ownPollExecutor;
+
+  private final boolean ownScheduler;
+
+  private final Map<ActionType, Long> expected = new EnumMap<ActionType, Long>(ActionType.class);
+
+  /**
+   * Creates a waiter with its own timer thread and {@link #DEFAULT_POLL_THREADS} poll threads, to
+   * be released with {@link #shutdown()}.
+   * 
+   * @param apiClient client used for polling
+   */
+  public ActionWaiter(DigitalOcean apiClient) {
+    this(apiClient, Executors.newSingleThreadScheduledExecutor(daemonThreads("action-waiter")),
+        Executors.newFixedThreadPool(DEFAULT_POLL_THREADS, daemonThreads("action-waiter-poll")),
+        true);
+  }
+
+  /**
+   * Creates a waiter polling on given scheduler, e.g. one shared with other waiters. The polls run
+   * on the scheduler threads, so a single threaded scheduler performs one poll at a time.
+   * 
+   * @param apiClient client used for polling
+   * @param scheduler scheduler running the polls
+   */
+  public ActionWaiter(DigitalOcean apiClient, ScheduledExecutorService scheduler) {
+    this(apiClient, scheduler, scheduler, false);
+  }
+
+  /**
+   * Creates a waiter scheduling the polls on given scheduler and running them on given executor.
+   * 
+   * @param apiClient client used for polling
+   * @param scheduler scheduler timing the polls
+   * @param pollExecutor executor running the polls
+   */
+  public ActionWaiter(DigitalOcean apiClient, ScheduledExecutorService scheduler,
+      Executor pollExecutor) {
+    this(apiClient, scheduler, pollExecutor, false);
+  }
+
+  private ActionWaiter(DigitalOcean apiClient, ScheduledExecutorService scheduler,
+      Executor pollExecutor, boolean ownScheduler) {
+    if (null == apiClient) {
+      throw new IllegalArgumentException("Missing required parameter - apiClient.");
+    }
+    if (null == scheduler || null == pollExecutor) {
+      throw new IllegalArgumentException("Missing required parameters [scheduler, pollExecutor].");
+    }
+    this.apiClient = apiClient;
+    this.scheduler = scheduler;
+    this.pollExecutor = pollExecutor;
+    this.ownPollExecutor = ownScheduler ? (ExecutorService) pollExecutor : null;
+    this.ownScheduler = ownScheduler;
+
+    seconds(1, ActionType.RENAME, ActionType.ASSIGN_FLOATING_IP, ActionType.UNASSIGN_FLOATING_IP,
+        ActionType.RESERVE_FLOATING_IP);
+    seconds(3, ActionType.ENABLE_IPV6, ActionType.ENABLE_PRIVATE_NETWORKING,
+        ActionType.ENABLE_BACKUPS, ActionType.DISABLE_BACKUPS, ActionType.ATTACH,
+        ActionType.DETACH);
+    seconds(5, ActionType.POWER_ON, ActionType.POWER_OFF, ActionType.CHANGE_KERNEL);
+    seconds(15, ActionType.REBOOT, ActionType.POWER_CYCLE, ActionType.SHUTDOWN,
+        ActionType.PASSWORD_RESET);
+    seconds(45, ActionType.CREATE);
+    seconds(90, ActionType.RESIZE, ActionType.REBUILD, ActionType.RESTORE);
+    seconds(300, ActionType.SNAPSHOT, ActionType.BACKUP, ActionType.CONVERT,
+        ActionType.CONVERT_TO_SNAPSHOT);
+    seconds(600, ActionType.TRANSFER);
+  }
+
+  /**
+   * Starts waiting for given action to finish.
+   * 
+   * @param action action as returned by the API, with id
+   * @param timeout maximum time to wait
+   * @param unit unit of timeout
+   * @return future completing with the final action
+   */
+  public ActionFuture awaitCompletion(Action action, long timeout, TimeUnit unit) {
+    if (null == action || null == action.getId()) {
+      throw new IllegalArgumentException("Missing required parameter - action id.");
+    }
+    if (null == unit || timeout <= 0) {
+      throw new IllegalArgumentException("timeout must be greater than zero.");
+    }
+
+    ActionFuture future = new ActionFuture(action);
+    if (isFinished(action)) {
+      future.complete(action);
+      return future;
+    }
+
+    long now = System.currentTimeMillis();
+    Poll poll = new Poll(future, now, now + unit.toMillis(timeout));
+    schedule(poll, nextDelay(action.getType(), 0));
+    return future;
+  }
+
+  /**
+   * Blocks until given action is finished.
+   * 
+   * @param action action as returned by the API, with id
+   * @param timeout maximum time to wait
+   * @param unit unit of timeout
+   * @return the final action, with status <code>completed</code> or <code>errored</code>
+   * @throws TimeoutException when the action did not finish in time
+   */
+  public Action waitForCompletion(Action action, long timeout, TimeUnit unit)
+      throws DigitalOceanException, RequestUnsuccessfulException, TimeoutException,
+      InterruptedException {
+    try {
+      return awaitCompletion(action, timeout, unit).get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof DigitalOceanException) {
+        throw (DigitalOceanException) cause;
+      }
+      if (cause instanceof RequestUnsuccessfulException) {
+        throw (RequestUnsuccessfulException) cause;
+      }
+      if (cause instanceof TimeoutException) {
+        throw (TimeoutException) cause;
+      }
+      throw new RequestUnsuccessfulException(cause.getMessage(), cause);
+    }
+  }
+
+  /**
+   * @param type action type, can be null
+   * @return current estimate of the duration of given action type in milliseconds
+   */
+  public long getExpectedDuration(ActionType type) {
+    synchronized (expected) {
+      Long millis = null == type ? null : expected.get(type);
+      return null == millis ? DEFAULT_EXPECTED : millis;
+    }
+  }
+
+  /**
+   * Stops the timer and poll threads created by this waiter; executors passed in are left running.
+   */
+  public void shutdown() {
+    if (ownScheduler) {
+      scheduler.shutdownNow();
+      ownPollExecutor.shutdownNow();
+    }
+  }
+
+  static boolean isFinished(Action action) {
+    return ActionStatus.COMPLETED == action.getStatus()
+        || ActionStatus.ERRORED == action.getStatus();
+  }
+
+  long nextDelay(ActionType type, long elapsed) {
+    long expectedMillis = getExpectedDuration(type);
+    long delay;
+    if (0 == elapsed) {
+      delay = expectedMillis / 2;
+    } else if (elapsed < expectedMillis) {
+      delay = expectedMillis / 4;
+    } else {
+      delay = elapsed / 4;
+    }
+    return Math.max(MIN_INTERVAL, Math.min(MAX_INTERVAL, delay));
+  }
+
+  void observe(Action action) {
+    if (null == action.getType() || null == action.getStartedAt()
+        || null == action.getCompletedAt() || ActionStatus.COMPLETED != action.getStatus()) {
+      return;
+    }
+    long duration = action.getCompletedAt().getTime() - action.getStartedAt().getTime();
+    if (duration < 0) {
+      return;
+    }
+    synchronized (expected) {
+      long current = getExpectedDuration(action.getType());
+      expected.put(action.getType(),
+          Math.round((1 - SMOOTHING) * current + SMOOTHING * duration));
+    }
+  }
+
+  private void seconds(long seconds, ActionType... types) {
+    for (ActionType type : types) {
+      expected.put(type, TimeUnit.SECONDS.toMillis(seconds));
+    }
+  }
+
+  private void schedule(final Poll poll, long delay) {
+    long remaining = poll.deadline - System.currentTimeMillis();
+    Runnable task = poll;
+    if (pollExecutor != scheduler) {
+      task = new Runnable() {
+        @Override
+        public void run() {
+          try {
+            pollExecutor.execute(poll);
+          } catch (RejectedExecutionException e) {
+            poll.future.fail(e);
+          }
+        }
+      };
+    }
+
+    try {
+      scheduler.schedule(task, Math.max(0, Math.min(delay, remaining)), TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      poll.future.fail(e);
+    }
+  }
+
+  private static ThreadFactory daemonThreads(final String name) {
+    return new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, name);
+        thread.setDaemon(true);
+        return thread;
+      }
+    };
+  }
+
+  private class Poll implements Runnable {
+
+    private final ActionFuture future;
+
+    private final long startedAt;
+
+    private final long deadline;
+
+    Poll(ActionFuture future, long startedAt, long deadline) {
+      this.future = future;
+      this.startedAt = startedAt;
+      this.deadline = deadline;
+    }
+
+    @Override
+    public void run() {
+      if (future.isDone()) {
+        return;
+      }
+
+      Action action = future.getAction();
+      try {
+        action = apiClient.getActionInfo(action.getId());
+        if (isFinished(action)) {
+          observe(action);
+          future.complete(action);
+          return;
+        }
+        future.update(action);
+      } catch (DigitalOceanException e) {
+        future.fail(e);
+        return;
+      } catch (RequestUnsuccessfulException e) {
+        log.warn("Polling action {} failed, retrying: {}", action.getId(), e.getMessage());
+      } catch (RuntimeException e) {
+        future.fail(e);
+        return;
+      }
+
+      long now = System.currentTimeMillis();
+      if (now >= deadline) {
+        future.fail(new TimeoutException("Action " + action.getId() + " (" + action.getType()
+            + ") not finished after " + (now - startedAt) + " ms."));
+        return;
+      }
+      schedule(this, nextDelay(action.getType(), now - startedAt));
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.batch;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+import com.myjeeva.digitalocean.action.ActionFuture;
+import com.myjeeva.digitalocean.action.ActionTracker;
+import com.myjeeva.digitalocean.common.ActionStatus;
+import com.myjeeva.digitalocean.pojo.Action;
+
+/**
+ * Aggregate outcome of a {@link BatchDropletActions} run; the action of every droplet the API
+ * accepted, plus the failure of every droplet it did not.
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class BatchActionResult {
+
+  private final Map<Integer, Action> actions = new TreeMap<Integer, Action>();
+
+  private final Map<Integer, Exception> failures = new TreeMap<Integer, Exception>();
+
+  synchronized void addAction(Integer dropletId, Action action) {
+    actions.put(dropletId, action);
+  }
+
+  synchronized void addFailure(Integer dropletId, Exception e) {
+    actions.remove(dropletId);
+    failures.put(dropletId, e);
+  }
+
+  /**
+   * Waits until the actions of this result are finished, tracking them together on given tracker,
+   * and replaces each with its final state. Actions which time out, cannot be polled or whose wait
+   * is cancelled move to {@link #getFailures()}; errored actions stay in {@link #getActions()}.
+   * 
+   * @param tracker tracker polling the actions
+   * @param timeout maximum time to wait for all actions
+   * @param unit unit of timeout
+   * @return this result
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public BatchActionResult awaitCompletion(ActionTracker tracker, long timeout, TimeUnit unit)
+      throws InterruptedException {
+    if (null == tracker) {
+      throw new IllegalArgumentException("Missing required parameter - tracker.");
+    }
+
+    Map<Integer, ActionFuture> futures = new TreeMap<Integer, ActionFuture>();
+    for (Map.Entry<Integer, Action> entry : getActions().entrySet()) {
+      futures.put(entry.getKey(), tracker.track(entry.getValue(), timeout, unit));
+    }
+
+    for (Map.Entry<Integer, ActionFuture> entry : futures.entrySet()) {
+      try {
+        addAction(entry.getKey(), entry.getValue().get());
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        addFailure(entry.getKey(), cause instanceof Exception ? (Exception) cause : e);
+      } catch (CancellationException e) {
+        // e.g. the tracker was shut down
+        addFailure(entry.getKey(), e);
+      }
+    }
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return ReflectionToStringBuilder.toString(this);
+  }
+
+  /**
+   * @return action per droplet id, for the droplets the API accepted
+   */
+  public synchronized Map<Integer, Action> getActions() {
+    return Collections.unmodifiableMap(new TreeMap<Integer, Action>(actions));
+  }
+
+  /**
+   * @return failure per droplet id; a {@link TimeoutException} for actions which did not finish
+   *         in time
+   */
+  public synchronized Map<Integer, Exception> getFailures() {
+    return Collections.unmodifiableMap(new TreeMap<Integer, Exception>(failures));
+  }
+
+  /**
+   * @return <code>true</code> if there are no failures and no action is errored
+   */
+  public synchronized boolean isComplete() {
+    if (!failures.isEmpty()) {
+      return false;
+    }
+    for (Action action : actions.values()) {
+      if (ActionStatus.ERRORED == action.getStatus()) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
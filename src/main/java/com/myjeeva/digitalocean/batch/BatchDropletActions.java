@@ -0,0 +1,324 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.batch;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.myjeeva.digitalocean.DigitalOcean;
+import com.myjeeva.digitalocean.exception.DigitalOceanException;
+import com.myjeeva.digitalocean.exception.RequestUnsuccessfulException;
+import com.myjeeva.digitalocean.pojo.Action;
+
+/**
+ * <p>
+ * Runs a droplet action on many droplets concurrently, with bounded parallelism and paced by an
+ * optional {@link RateBudget}. A failing droplet is recorded in
+ * {@link BatchActionResult#getFailures()} and does not abort the others.
+ * </p>
+ * 
+ * <pre>
+ * BatchDropletActions batch = new BatchDropletActions(apiClient, 8, budget);
+ * BatchActionResult result = batch.enableBackups(dropletIds);
+ * result.awaitCompletion(tracker, 30, TimeUnit.MINUTES);
+ * </pre>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class BatchDropletActions {
+
+  private static final Logger log = LoggerFactory.getLogger(BatchDropletActions.class);
+
+  private final DigitalOcean apiClient;
+
+  private final int parallelism;
+
+  private final RateBudget budget;
+
+  /**
+   * Constructor
+   * 
+   * @param apiClient a DigitalOcean client
+   * @param parallelism max. no. of requests in flight at the same time
+   * @param budget rate budget every request takes a permit from, can be null
+   */
+  public BatchDropletActions(DigitalOcean apiClient, int parallelism, RateBudget budget) {
+    if (null == apiClient || parallelism < 1) {
+      throw new IllegalArgumentException("Missing or invalid parameters [apiClient, parallelism].");
+    }
+
+    this.apiClient = apiClient;
+    this.parallelism = parallelism;
+    this.budget = budget;
+  }
+
+  /**
+   * Runs given operation on every droplet; duplicate ids run once.
+   * 
+   * @param dropletIds the droplets
+   * @param operation the droplet action
+   * @return aggregate result
+   * @throws InterruptedException if interrupted while waiting for the droplets
+   */
+  public BatchActionResult run(Collection<Integer> dropletIds, final DropletOperation operation)
+      throws InterruptedException {
+    if (null == dropletIds || null == operation) {
+      throw new IllegalArgumentException("Missing required parameters [dropletIds, operation].");
+    }
+
+    final BatchActionResult result = new BatchActionResult();
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    try {
+      for (final Integer dropletId : new LinkedHashSet<Integer>(dropletIds)) {
+        executor.execute(new Runnable() {
+          @Override
+          public void run() {
+            try {
+              if (null != budget) {
+                budget.acquire();
+              }
+              Action action = operation.execute(dropletId);
+              if (null != budget) {
+                budget.update(action.getRateLimit());
+              }
+              result.addAction(dropletId, action);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              result.addFailure(dropletId, e);
+            } catch (Exception e) {
+              log.warn("Droplet {} failed: {}", dropletId, e.getMessage());
+              result.addFailure(dropletId, e);
+            }
+          }
+        });
+      }
+      executor.shutdown();
+      while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+        log.debug("Waiting for batch droplet actions to complete");
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    return result;
+  }
+
+  /**
+   * @param dropletIds the droplets
+   * @return aggregate result
+   * @throws InterruptedException if interrupted while waiting for the droplets
+   */
+  public BatchActionResult reboot(Collection<Integer> dropletIds) throws InterruptedException {
+    return run(dropletIds, new DropletOperation() {
+      @Override
+      public Action execute(Integer dropletId)
+          throws DigitalOceanException, RequestUnsuccessfulException {
+        return apiClient.rebootDroplet(dropletId);
+      }
+    });
+  }
+
+  /**
+   * @param dropletIds the droplets
+   * @return aggregate result
+   * @throws InterruptedException if interrupted while waiting for the droplets
+   */
+  public BatchActionResult powerCycle(Collection<Integer> dropletIds)
+      throws InterruptedException {
+    return run(dropletIds, new DropletOperation() {
+      @Override
+      public Action execute(Integer dropletId)
+          throws DigitalOceanException, RequestUnsuccessfulException {
+        return apiClient.powerCycleDroplet(dropletId);
+      }
+    });
+  }
+
+  /**
+   * @param dropletIds the droplets
+   * @return aggregate result
+   * @throws InterruptedException if interrupted while waiting for the droplets
+   */
+  public BatchActionResult shutdown(Collection<Integer> dropletIds) throws InterruptedException {
+    return run(dropletIds, new DropletOperation() {
+      @Override
+      public Action execute(Integer dropletId)
+          throws DigitalOceanException, RequestUnsuccessfulException {
+        return apiClient.shutdownDroplet(dropletId);
+      }
+    });
+  }
+
+  /**
+   * @param dropletIds the droplets
+   * @return aggregate result
+   * @throws InterruptedException if interrupted while waiting for the droplets
+   */
+  public BatchActionResult powerOff(Collection<Integer> dropletIds) throws InterruptedException {
+    return run(dropletIds, new DropletOperation() {
+      @Override
+      public Action execute(Integer dropletId)
+          throws DigitalOceanException, RequestUnsuccessfulException {
+        return apiClient.powerOffDroplet(dropletId);
+      }
+    });
+  }
+
+  /**
+   * @param dropletIds the droplets
+   * @return aggregate result
+   * @throws InterruptedException if interrupted while waiting for the droplets
+   */
+  public BatchActionResult powerOn(Collection<Integer> dropletIds) throws InterruptedException {
+    return run(dropletIds, new DropletOperation() {
+      @Override
+      public Action execute(Integer dropletId)
+          throws DigitalOceanException, RequestUnsuccessfulException {
+        return apiClient.powerOnDroplet(dropletId);
+      }
+    });
+  }
+
+  /**
+   * @param dropletIds the droplets
+   * @return aggregate result
+   * @throws InterruptedException if interrupted while waiting for the droplets
+   */
+  public BatchActionResult resetPassword(Collection<Integer> dropletIds)
+      throws InterruptedException {
+    return run(dropletIds, new DropletOperation() {
+      @Override
+      public Action execute(Integer dropletId)
+          throws DigitalOceanException, RequestUnsuccessfulException {
+        return apiClient.resetDropletPassword(dropletId);
+      }
+    });
+  }
+
+  /**
+   * @param dropletIds the droplets
+   * @param size the new size slug
+   * @param disk <code>true</code> to resize the disk too, which cannot be undone
+   * @return aggregate result
+   * @throws InterruptedException if interrupted while waiting for the droplets
+   */
+  public BatchActionResult resize(Collection<Integer> dropletIds, final String size,
+      final Boolean disk) throws InterruptedException {
+    return run(dropletIds, new DropletOperation() {
+      @Override
+      public Action execute(Integer dropletId)
+          throws DigitalOceanException, RequestUnsuccessfulException {
+        return apiClient.resizeDroplet(dropletId, size, disk);
+      }
+    });
+  }
+
+  /**
+   * @param dropletIds the droplets
+   * @param snapshotName name of the snapshots, can be null
+   * @return aggregate result
+   * @throws InterruptedException if interrupted while waiting for the droplets
+   */
+  public BatchActionResult takeSnapshot(Collection<Integer> dropletIds, final String snapshotName)
+      throws InterruptedException {
+    return run(dropletIds, new DropletOperation() {
+      @Override
+      public Action execute(Integer dropletId)
+          throws DigitalOceanException, RequestUnsuccessfulException {
+        return null == snapshotName ? apiClient.takeDropletSnapshot(dropletId)
+            : apiClient.takeDropletSnapshot(dropletId, snapshotName);
+      }
+    });
+  }
+
+  /**
+   * @param dropletIds the droplets
+   * @return aggregate result
+   * @throws InterruptedException if interrupted while waiting for the droplets
+   */
+  public BatchActionResult enableBackups(Collection<Integer> dropletIds)
+      throws InterruptedException {
+    return run(dropletIds, new DropletOperation() {
+      @Override
+      public Action execute(Integer dropletId)
+          throws DigitalOceanException, RequestUnsuccessfulException {
+        return apiClient.enableDropletBackups(dropletId);
+      }
+    });
+  }
+
+  /**
+   * @param dropletIds the droplets
+   * @return aggregate result
+   * @throws InterruptedException if interrupted while waiting for the droplets
+   */
+  public BatchActionResult disableBackups(Collection<Integer> dropletIds)
+      throws InterruptedException {
+    return run(dropletIds, new DropletOperation() {
+      @Override
+      public Action execute(Integer dropletId)
+          throws DigitalOceanException, RequestUnsuccessfulException {
+        return apiClient.disableDropletBackups(dropletId);
+      }
+    });
+  }
+
+  /**
+   * @param dropletIds the droplets
+   * @return aggregate result
+   * @throws InterruptedException if interrupted while waiting for the droplets
+   */
+  public BatchActionResult enableIpv6(Collection<Integer> dropletIds)
+      throws InterruptedException {
+    return run(dropletIds, new DropletOperation() {
+      @Override
+      public Action execute(Integer dropletId)
+          throws DigitalOceanException, RequestUnsuccessfulException {
+        return apiClient.enableDropletIpv6(dropletId);
+      }
+    });
+  }
+
+  /**
+   * @param dropletIds the droplets
+   * @return aggregate result
+   * @throws InterruptedException if interrupted while waiting for the droplets
+   */
+  public BatchActionResult enablePrivateNetworking(Collection<Integer> dropletIds)
+      throws InterruptedException {
+    return run(dropletIds, new DropletOperation() {
+      @Override
+      public Action execute(Integer dropletId)
+          throws DigitalOceanException, RequestUnsuccessfulException {
+        return apiClient.enableDropletPrivateNetworking(dropletId);
+      }
+    });
+  }
+}
@@ -0,0 +1,93 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+import com.myjeeva.digitalocean.pojo.Resource;
+
+/**
+ * Per-resource outcome of a {@link BulkTagger} run.
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class BulkTagResult {
+
+  private final List<Resource> succeeded = new ArrayList<Resource>();
+
+  private final Map<Resource, Exception> failures = new LinkedHashMap<Resource, Exception>();
+
+  private int requestCount;
+
+  synchronized void addSucceeded(List<Resource> resources) {
+    succeeded.addAll(resources);
+  }
+
+  synchronized void addFailure(Resource resource, Exception e) {
+    failures.put(resource, e);
+  }
+
+  synchronized void countRequest() {
+    requestCount++;
+  }
+
+  @Override
+  public String toString() {
+    return ReflectionToStringBuilder.toString(this);
+  }
+
+  /**
+   * @return resources the tag was applied to, or removed from
+   */
+  public synchronized List<Resource> getSucceeded() {
+    return Collections.unmodifiableList(new ArrayList<Resource>(succeeded));
+  }
+
+  /**
+   * @return failure per resource, as of its individual retry
+   */
+  public synchronized Map<Resource, Exception> getFailures() {
+    return Collections.unmodifiableMap(new LinkedHashMap<Resource, Exception>(failures));
+  }
+
+  /**
+   * @return no. of requests sent, chunks and individual retries together
+   */
+  public synchronized int getRequestCount() {
+    return requestCount;
+  }
+
+  /**
+   * @return <code>true</code> if there are no failures
+   */
+  public synchronized boolean isComplete() {
+    return failures.isEmpty();
+  }
+}
@@ -0,0 +1,303 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.myjeeva.digitalocean.DigitalOcean;
+import com.myjeeva.digitalocean.exception.DigitalOceanException;
+import com.myjeeva.digitalocean.exception.RequestUnsuccessfulException;
+import com.myjeeva.digitalocean.pojo.Resource;
+import com.myjeeva.digitalocean.pojo.Response;
+
+/**
+ * <p>
+ * Tags or untags large lists of resources. The list is split into chunks of
+ * {@link #setChunkSize(int) chunk size} resources, the chunks are sent concurrently with bounded
+ * parallelism and paced by an optional {@link RateBudget}.
+ * </p>
+ * 
+ * <p>
+ * When the API rejects a chunk because of its content (a <code>4xx</code> other than
+ * <code>401</code>, <code>403</code>, <code>404</code> or <code>429</code>), the resources of the
+ * chunk are retried one by one, so a single bad resource only fails itself. Throttling, server
+ * and connection errors retry the whole chunk with exponential backoff; authorization errors and
+ * a missing tag fail the chunk right away.
+ * </p>
+ * 
+ * <pre>
+ * BulkTagger tagger = new BulkTagger(apiClient, 4, budget);
+ * BulkTagResult result = tagger.tag("fleet-2017", resources);
+ * </pre>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class BulkTagger {
+
+  private static final Logger log = LoggerFactory.getLogger(BulkTagger.class);
+
+  private static final int TOO_MANY_REQUESTS = 429;
+
+  /**
+   * Default no. of resources per request
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 100;
+
+  /**
+   * Default no. of retries of a chunk after a throttling, server or connection error
+   */
+  public static final int DEFAULT_MAX_RETRIES = 3;
+
+  /**
+   * Default wait before the first retry of a chunk, doubled on each further retry
+   */
+  public static final long DEFAULT_RETRY_BACKOFF_MILLIS = 1000;
+
+  private final DigitalOcean apiClient;
+
+  private final int parallelism;
+
+  private final RateBudget budget;
+
+  private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+  private int maxRetries = DEFAULT_MAX_RETRIES;
+
+  private long retryBackoffMillis = DEFAULT_RETRY_BACKOFF_MILLIS;
+
+  /**
+   * Constructor
+   * 
+   * @param apiClient a DigitalOcean client
+   * @param parallelism max. no. of requests in flight at the same time
+   * @param budget rate budget every request takes a permit from, can be null
+   */
+  public BulkTagger(DigitalOcean apiClient, int parallelism, RateBudget budget) {
+    if (null == apiClient || parallelism < 1) {
+      throw new IllegalArgumentException("Missing or invalid parameters [apiClient, parallelism].");
+    }
+
+    this.apiClient = apiClient;
+    this.parallelism = parallelism;
+    this.budget = budget;
+  }
+
+  /**
+   * @param chunkSize max. no. of resources per request
+   */
+  public void setChunkSize(int chunkSize) {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("Invalid parameter - chunkSize.");
+    }
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * @param maxRetries no. of retries of a chunk after a throttling, server or connection error
+   * @param backoff wait before the first retry, doubled on each further retry
+   * @param unit unit of backoff
+   */
+  public void setRetries(int maxRetries, long backoff, TimeUnit unit) {
+    if (maxRetries < 0 || backoff < 0 || null == unit) {
+      throw new IllegalArgumentException("Missing or invalid parameters [maxRetries, backoff].");
+    }
+    this.maxRetries = maxRetries;
+    this.retryBackoffMillis = unit.toMillis(backoff);
+  }
+
+  /**
+   * Applies given tag to every resource; the tag must exist.
+   * 
+   * @param name tag name
+   * @param resources the resources
+   * @return per-resource outcome
+   * @throws InterruptedException if interrupted while waiting for the requests
+   */
+  public BulkTagResult tag(String name, List<Resource> resources) throws InterruptedException {
+    return run(name, resources, true);
+  }
+
+  /**
+   * Removes given tag from every resource.
+   * 
+   * @param name tag name
+   * @param resources the resources
+   * @return per-resource outcome
+   * @throws InterruptedException if interrupted while waiting for the requests
+   */
+  public BulkTagResult untag(String name, List<Resource> resources)
+      throws InterruptedException {
+    return run(name, resources, false);
+  }
+
+  private BulkTagResult run(String name, List<Resource> resources, boolean tag)
+      throws InterruptedException {
+    if (null == name || null == resources) {
+      throw new IllegalArgumentException("Missing required parameters [name, resources].");
+    }
+
+    BulkTagResult result = new BulkTagResult();
+    List<List<Resource>> chunks = new ArrayList<List<Resource>>();
+    for (int i = 0; i < resources.size(); i += chunkSize) {
+      chunks.add(resources.subList(i, Math.min(i + chunkSize, resources.size())));
+    }
+
+    Map<List<Resource>, Exception> rejected = send(name, chunks, tag, result);
+
+    List<List<Resource>> singles = new ArrayList<List<Resource>>();
+    for (Map.Entry<List<Resource>, Exception> entry : rejected.entrySet()) {
+      if (1 == entry.getKey().size()) {
+        result.addFailure(entry.getKey().get(0), entry.getValue());
+        continue;
+      }
+      log.debug("Retrying {} resources of a rejected chunk individually", entry.getKey().size());
+      for (Resource resource : entry.getKey()) {
+        singles.add(Collections.singletonList(resource));
+      }
+    }
+
+    for (Map.Entry<List<Resource>, Exception> entry : send(name, singles, tag, result)
+        .entrySet()) {
+      result.addFailure(entry.getKey().get(0), entry.getValue());
+    }
+    return result;
+  }
+
+  /**
+   * Sends the chunks; chunks which fail for good are recorded as failures right away.
+   * 
+   * @return chunks rejected because of their content, to be split
+   */
+  private Map<List<Resource>, Exception> send(final String name, List<List<Resource>> chunks,
+      final boolean tag, final BulkTagResult result) throws InterruptedException {
+    final Map<List<Resource>, Exception> rejected =
+        Collections.synchronizedMap(new IdentityHashMap<List<Resource>, Exception>());
+    if (chunks.isEmpty()) {
+      return rejected;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, chunks.size()));
+    try {
+      for (final List<Resource> chunk : chunks) {
+        executor.execute(new Runnable() {
+          @Override
+          public void run() {
+            try {
+              Exception e = sendWithRetries(name, chunk, tag, result);
+              if (null == e) {
+                result.addSucceeded(chunk);
+              } else if (isRejected(e)) {
+                rejected.put(chunk, e);
+              } else {
+                log.warn("Chunk of {} resources failed: {}", chunk.size(), e.getMessage());
+                for (Resource resource : chunk) {
+                  result.addFailure(resource, e);
+                }
+              }
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              for (Resource resource : chunk) {
+                result.addFailure(resource, e);
+              }
+            }
+          }
+        });
+      }
+      executor.shutdown();
+      while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+        log.debug("Waiting for bulk tag requests to complete");
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    return rejected;
+  }
+
+  private Exception sendWithRetries(String name, List<Resource> chunk, boolean tag,
+      BulkTagResult result) throws InterruptedException {
+    for (int attempt = 0;; attempt++) {
+      Exception failure;
+      try {
+        if (null != budget) {
+          budget.acquire();
+        }
+        result.countRequest();
+        Response response =
+            tag ? apiClient.tagResources(name, chunk) : apiClient.untagResources(name, chunk);
+        if (null != budget) {
+          budget.update(response.getRateLimit());
+        }
+        return null;
+      } catch (DigitalOceanException | RequestUnsuccessfulException | RuntimeException e) {
+        failure = e;
+      }
+
+      if (!isTransient(failure) || attempt >= maxRetries) {
+        return failure;
+      }
+      long backoff = retryBackoffMillis << attempt;
+      log.debug("Retrying chunk of {} resources in {} ms: {}", chunk.size(), backoff,
+          failure.getMessage());
+      Thread.sleep(backoff);
+    }
+  }
+
+  /**
+   * @return true if the API rejected the content of the request, i.e. some of its resources
+   */
+  private static boolean isRejected(Exception e) {
+    if (!(e instanceof DigitalOceanException)) {
+      return false;
+    }
+    int status = ((DigitalOceanException) e).getHttpStatusCode();
+    return status >= HttpStatus.SC_BAD_REQUEST && status < HttpStatus.SC_INTERNAL_SERVER_ERROR
+        && HttpStatus.SC_UNAUTHORIZED != status && HttpStatus.SC_FORBIDDEN != status
+        && HttpStatus.SC_NOT_FOUND != status && TOO_MANY_REQUESTS != status;
+  }
+
+  /**
+   * @return true for throttling, server and connection errors
+   */
+  private static boolean isTransient(Exception e) {
+    if (e instanceof RequestUnsuccessfulException) {
+      return true;
+    }
+    if (!(e instanceof DigitalOceanException)) {
+      return false;
+    }
+    int status = ((DigitalOceanException) e).getHttpStatusCode();
+    return TOO_MANY_REQUESTS == status || status >= HttpStatus.SC_INTERNAL_SERVER_ERROR;
+  }
+}
@@ -0,0 +1,424 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.myjeeva.digitalocean.DigitalOcean;
+import com.myjeeva.digitalocean.action.ActionCallback;
+import com.myjeeva.digitalocean.action.ActionFuture;
+import com.myjeeva.digitalocean.action.ActionTracker;
+import com.myjeeva.digitalocean.common.ActionStatus;
+import com.myjeeva.digitalocean.common.ActionType;
+import com.myjeeva.digitalocean.exception.DigitalOceanException;
+import com.myjeeva.digitalocean.exception.RequestUnsuccessfulException;
+import com.myjeeva.digitalocean.pojo.Action;
+import com.myjeeva.digitalocean.pojo.Droplet;
+import com.myjeeva.digitalocean.pojo.Droplets;
+import com.myjeeva.digitalocean.pojo.LinkAction;
+import com.myjeeva.digitalocean.pojo.Region;
+import com.myjeeva.digitalocean.stream.ElementVisitor;
+
+/**
+ * <p>
+ * Provisions many droplets across regions. The names of each region are split into
+ * <code>createDroplets</code> requests of at most {@link #MAX_NAMES_PER_REQUEST} names, which are
+ * submitted concurrently with bounded parallelism and paced by an optional {@link RateBudget}. The
+ * create actions returned with each request are followed on an {@link ActionTracker}, and every
+ * droplet is handed to the visitor, on the calling thread, as soon as it is active.
+ * </p>
+ * 
+ * <p>
+ * A failing request, an errored create action or a droplet not active in time is recorded per
+ * name in {@link ProvisioningResult#getFailures()} and does not abort the others. Provisioning
+ * returns once every request and create action has finished, or at the timeout. Droplets are not
+ * deleted on failure.
+ * </p>
+ * 
+ * <pre>
+ * Map&lt;String, List&lt;String&gt;&gt; names = new HashMap&lt;String, List&lt;String&gt;&gt;();
+ * names.put("nyc3", Arrays.asList("web-1", "web-2", "web-3"));
+ * names.put("ams3", Arrays.asList("web-4", "web-5"));
+ * ProvisioningResult result = new ProvisioningPipeline(apiClient, tracker, 4, budget)
+ *     .provision(template, names, visitor, 15, TimeUnit.MINUTES);
+ * </pre>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class ProvisioningPipeline {
+
+  private static final Logger log = LoggerFactory.getLogger(ProvisioningPipeline.class);
+
+  /**
+   * Max. no. of names the API accepts in one <code>createDroplets</code> request
+   */
+  public static final int MAX_NAMES_PER_REQUEST = 10;
+
+  private final DigitalOcean apiClient;
+
+  private final ActionTracker tracker;
+
+  private final int parallelism;
+
+  private final RateBudget budget;
+
+  /**
+   * Constructor
+   * 
+   * @param apiClient a DigitalOcean client
+   * @param tracker tracker following the create actions
+   * @param parallelism max. no. of create requests in flight at the same time
+   * @param budget rate budget every request takes a permit from, can be null
+   */
+  public ProvisioningPipeline(DigitalOcean apiClient, ActionTracker tracker, int parallelism,
+      RateBudget budget) {
+    if (null == apiClient || null == tracker || parallelism < 1) {
+      throw new IllegalArgumentException(
+          "Missing or invalid parameters [apiClient, tracker, parallelism].");
+    }
+
+    this.apiClient = apiClient;
+    this.tracker = tracker;
+    this.parallelism = parallelism;
+    this.budget = budget;
+  }
+
+  /**
+   * Creates the droplets and waits until they are active.
+   * 
+   * @param template size, image, keys, tags and options of the droplets; its name and region are
+   *        ignored
+   * @param namesByRegion droplet names per region slug; names must be unique
+   * @param visitor receives each droplet once it is active, can be null; returning
+   *        <code>false</code> stops the notifications, not the provisioning
+   * @param timeout maximum time for the whole run
+   * @param unit unit of timeout
+   * @return active droplets and failures per name
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public ProvisioningResult provision(Droplet template, Map<String, List<String>> namesByRegion,
+      ElementVisitor<Droplet> visitor, long timeout, TimeUnit unit) throws InterruptedException {
+    if (null == template || null == template.getSize() || null == template.getImage()) {
+      throw new IllegalArgumentException("Missing required parameters [Size Slug, Image].");
+    }
+    if (null == namesByRegion || null == unit || timeout <= 0) {
+      throw new IllegalArgumentException("Missing or invalid parameters [namesByRegion, timeout].");
+    }
+
+    Set<String> allNames = new LinkedHashSet<String>();
+    for (List<String> names : namesByRegion.values()) {
+      for (String name : names) {
+        if (!allNames.add(name)) {
+          throw new IllegalArgumentException("Duplicate droplet name - " + name + ".");
+        }
+      }
+    }
+
+    long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+    ProvisioningResult result = new ProvisioningResult();
+    BlockingQueue<Event> events = new LinkedBlockingQueue<Event>();
+    List<ActionFuture> futures = Collections.synchronizedList(new ArrayList<ActionFuture>());
+    Map<Integer, String> namesById = new ConcurrentHashMap<Integer, String>();
+    List<Exception> unattributed = new ArrayList<Exception>();
+
+    // submissions not finished yet and tracked create actions not handled yet
+    int submissions = 0;
+    int tracked = 0;
+
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    try {
+      for (Map.Entry<String, List<String>> entry : namesByRegion.entrySet()) {
+        List<String> names = entry.getValue();
+        for (int from = 0; from < names.size(); from += MAX_NAMES_PER_REQUEST) {
+          List<String> chunk = new ArrayList<String>(
+              names.subList(from, Math.min(names.size(), from + MAX_NAMES_PER_REQUEST)));
+          executor.execute(
+              new Submission(template, entry.getKey(), chunk, deadline, events, futures,
+                  namesById));
+          submissions++;
+        }
+      }
+      executor.shutdown();
+
+      boolean notify = null != visitor;
+      while (result.getResolvedCount() < allNames.size() && (submissions > 0 || tracked > 0)) {
+        long remaining = deadline - System.currentTimeMillis();
+        Event event = remaining > 0 ? events.poll(remaining, TimeUnit.MILLISECONDS) : null;
+        if (null == event) {
+          break;
+        }
+        if (event.finished) {
+          submissions--;
+          tracked += event.tracked;
+          continue;
+        }
+        if (null != event.future) {
+          tracked--;
+        }
+        Droplet droplet = handle(event, namesById, unattributed, result);
+        if (notify && null != droplet) {
+          notify = visitor.visit(droplet);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+      synchronized (futures) {
+        for (ActionFuture future : futures) {
+          future.cancel(false);
+        }
+      }
+    }
+
+    boolean finished = 0 == submissions && tracked <= 0;
+    for (String name : allNames) {
+      if (result.isResolved(name)) {
+        continue;
+      }
+      if (!finished) {
+        result.addFailure(name, new TimeoutException("Droplet " + name + " not active in time."));
+      } else if (unattributed.isEmpty()) {
+        result.addFailure(name, new RequestUnsuccessfulException(
+            "No create action returned for droplet " + name + "."));
+      } else {
+        // failed before a poll revealed the droplet; report the first such cause
+        result.addFailure(name, unattributed.get(0));
+      }
+    }
+    log.debug("Provisioned {} of {} droplet(s)", result.getActive().size(), allNames.size());
+    return result;
+  }
+
+  private Droplet handle(Event event, Map<Integer, String> namesById,
+      List<Exception> unattributed, ProvisioningResult result) throws InterruptedException {
+    if (null != event.failure) {
+      result.addFailure(event.name, event.failure);
+      return null;
+    }
+
+    // the create actions are not in the order of the droplets, pair them by resource id; a failed
+    // wait is attributed by the last observed state of its action
+    Action observed = event.future.getAction();
+    String name = null == observed.getResourceId() ? null
+        : namesById.get(observed.getResourceId().intValue());
+    try {
+      Action action = event.future.get();
+      if (null == action.getResourceId()) {
+        throw new RequestUnsuccessfulException(
+            "Create action " + action.getId() + " has no droplet id.");
+      }
+      Integer dropletId = action.getResourceId().intValue();
+      name = namesById.get(dropletId);
+      if (ActionStatus.COMPLETED != action.getStatus()) {
+        throw new RequestUnsuccessfulException(
+            "Create action " + action.getId() + " of droplet " + dropletId + " errored.");
+      }
+
+      if (null != budget) {
+        budget.acquire();
+      }
+      Droplet droplet = apiClient.getDropletInfo(dropletId);
+      result.addActive(droplet.getName(), droplet);
+      return droplet;
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      fail(name, cause instanceof Exception ? (Exception) cause : e, unattributed, result);
+    } catch (CancellationException | DigitalOceanException | RequestUnsuccessfulException e) {
+      fail(name, e, unattributed, result);
+    }
+    return null;
+  }
+
+  private static void fail(String name, Exception e, List<Exception> unattributed,
+      ProvisioningResult result) {
+    if (null == name) {
+      log.warn("Create action failed: {}", e.getMessage());
+      unattributed.add(e);
+    } else {
+      result.addFailure(name, e);
+    }
+  }
+
+  private static Droplet copyOf(Droplet template, String regionSlug, List<String> names) {
+    Droplet droplet = new Droplet();
+    droplet.setNames(names);
+    droplet.setRegion(new Region(regionSlug));
+    droplet.setSize(template.getSize());
+    droplet.setImage(template.getImage());
+    droplet.setEnableBackup(template.getEnableBackup());
+    droplet.setEnableIpv6(template.getEnableIpv6());
+    droplet.setEnablePrivateNetworking(template.getEnablePrivateNetworking());
+    droplet.setKeys(template.getKeys());
+    droplet.setUserData(template.getUserData());
+    droplet.setVolumeIds(template.getVolumeIds());
+    droplet.setTags(template.getTags());
+    droplet.setInstallMonitoring(template.getInstallMonitoring());
+    return droplet;
+  }
+
+  /**
+   * One <code>createDroplets</code> request, run on the pool.
+   */
+  private class Submission implements Runnable {
+
+    private final Droplet template;
+
+    private final String regionSlug;
+
+    private final List<String> names;
+
+    private final long deadline;
+
+    private final BlockingQueue<Event> events;
+
+    private final List<ActionFuture> futures;
+
+    private final Map<Integer, String> namesById;
+
+    // no. of create actions followed, each of them posts one event
+    private int tracked;
+
+    Submission(Droplet template, String regionSlug, List<String> names, long deadline,
+        BlockingQueue<Event> events, List<ActionFuture> futures,
+        Map<Integer, String> namesById) {
+      this.template = template;
+      this.regionSlug = regionSlug;
+      this.names = names;
+      this.deadline = deadline;
+      this.events = events;
+      this.futures = futures;
+      this.namesById = namesById;
+    }
+
+    @Override
+    public void run() {
+      try {
+        if (null != budget) {
+          budget.acquire();
+        }
+        Droplets created = apiClient.createDroplets(copyOf(template, regionSlug, names));
+        if (null != budget) {
+          budget.update(created.getRateLimit());
+        }
+        follow(created);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        fail(names, e);
+      } catch (Exception e) {
+        log.warn("Creating droplets {} in {} failed: {}", names, regionSlug, e.getMessage());
+        fail(names, e);
+      } finally {
+        events.add(new Event(tracked));
+      }
+    }
+
+    private void follow(Droplets created) {
+      List<Droplet> droplets = null == created.getDroplets() ? Collections.<Droplet>emptyList()
+          : created.getDroplets();
+      List<LinkAction> actions =
+          null == created.getLinks() || null == created.getLinks().getActions()
+              ? Collections.<LinkAction>emptyList() : created.getLinks().getActions();
+
+      Set<String> pending = new LinkedHashSet<String>(names);
+      for (Droplet droplet : droplets) {
+        if (null != droplet.getId() && pending.remove(droplet.getName())) {
+          namesById.put(droplet.getId(), droplet.getName());
+        }
+      }
+      if (!pending.isEmpty()) {
+        fail(pending, new RequestUnsuccessfulException(
+            "No droplet returned for " + pending + " in " + regionSlug + "."));
+      }
+
+      long timeout = Math.max(1, deadline - System.currentTimeMillis());
+      for (LinkAction link : actions) {
+        Action action = new Action();
+        action.setId(link.getId());
+        action.setType(ActionType.CREATE);
+        action.setStatus(ActionStatus.IN_PROGRESS);
+        ActionFuture future = tracker.track(action, timeout, TimeUnit.MILLISECONDS);
+        futures.add(future);
+        future.addCallback(new ActionCallback() {
+          @Override
+          public void onDone(ActionFuture done) {
+            events.add(new Event(null, done, null));
+          }
+        });
+        tracked++;
+      }
+    }
+
+    private void fail(Iterable<String> failed, Exception e) {
+      for (String name : failed) {
+        events.add(new Event(name, null, e));
+      }
+    }
+  }
+
+  private static class Event {
+
+    private final String name;
+
+    private final ActionFuture future;
+
+    private final Exception failure;
+
+    // marks a finished submission, with the no. of create actions it tracked
+    private final boolean finished;
+
+    private final int tracked;
+
+    Event(String name, ActionFuture future, Exception failure) {
+      this.name = name;
+      this.future = future;
+      this.failure = failure;
+      this.finished = false;
+      this.tracked = 0;
+    }
+
+    Event(int tracked) {
+      this.name = null;
+      this.future = null;
+      this.failure = null;
+      this.finished = true;
+      this.tracked = tracked;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+import com.myjeeva.digitalocean.pojo.Droplet;
+
+/**
+ * Outcome of a {@link ProvisioningPipeline} run; every droplet that became active, plus the failure
+ * of every requested name that did not.
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class ProvisioningResult {
+
+  private final Map<String, Droplet> active = new TreeMap<String, Droplet>();
+
+  private final Map<String, Exception> failures = new TreeMap<String, Exception>();
+
+  synchronized void addActive(String name, Droplet droplet) {
+    active.put(name, droplet);
+  }
+
+  synchronized void addFailure(String name, Exception e) {
+    failures.put(name, e);
+  }
+
+  synchronized boolean isResolved(String name) {
+    return active.containsKey(name) || failures.containsKey(name);
+  }
+
+  synchronized int getResolvedCount() {
+    return active.size() + failures.size();
+  }
+
+  @Override
+  public String toString() {
+    return ReflectionToStringBuilder.toString(this);
+  }
+
+  /**
+   * @return active droplet per requested name
+   */
+  public synchronized Map<String, Droplet> getActive() {
+    return Collections.unmodifiableMap(new TreeMap<String, Droplet>(active));
+  }
+
+  /**
+   * @return the active droplets, ordered by name
+   */
+  public synchronized List<Droplet> getDroplets() {
+    return new ArrayList<Droplet>(active.values());
+  }
+
+  /**
+   * @return failure per requested name; a <code>TimeoutException</code> for droplets which did not
+   *         become active in time
+   */
+  public synchronized Map<String, Exception> getFailures() {
+    return Collections.unmodifiableMap(new TreeMap<String, Exception>(failures));
+  }
+
+  /**
+   * @return <code>true</code> if every requested droplet became active
+   */
+  public synchronized boolean isComplete() {
+    return failures.isEmpty();
+  }
+}
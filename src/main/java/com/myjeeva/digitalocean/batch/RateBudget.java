@@ -0,0 +1,189 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.batch;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.myjeeva.digitalocean.common.ApiAction;
+import com.myjeeva.digitalocean.impl.ResponseListener;
+import com.myjeeva.digitalocean.pojo.RateLimit;
+import com.myjeeva.digitalocean.pojo.RateLimitBase;
+
+/**
+ * <p>
+ * Token bucket pacing requests to the API. Permits refill continuously at a fixed rate up to a
+ * burst of one period's worth. The bucket also follows the <code>RateLimit</code> values returned
+ * with every response: it never holds more permits than the API reports as remaining, less a
+ * reserve, and once the reserve is reached it pauses until the reported reset time.
+ * </p>
+ * 
+ * <p>
+ * Feed it by registering it with
+ * {@link com.myjeeva.digitalocean.impl.DigitalOceanClient#addResponseListener(ResponseListener)},
+ * or by calling {@link #update(RateLimit)} with the rate limit of each response.
+ * </p>
+ * 
+ * <pre>
+ * RateBudget budget = new RateBudget(250, 1, TimeUnit.MINUTES);
+ * apiClient.addResponseListener(budget);
+ * </pre>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class RateBudget implements ResponseListener {
+
+  private static final Logger log = LoggerFactory.getLogger(RateBudget.class);
+
+  private final double capacity;
+
+  private final double permitsPerNano;
+
+  private double tokens;
+
+  private long refilledAt = System.nanoTime();
+
+  private long pausedUntil;
+
+  private volatile int reserve;
+
+  /**
+   * Constructor
+   * 
+   * @param permits no. of requests allowed per period, also the burst size
+   * @param period length of the period
+   * @param unit unit of period
+   */
+  public RateBudget(int permits, long period, TimeUnit unit) {
+    if (permits < 1 || period < 1 || null == unit) {
+      throw new IllegalArgumentException("Missing or invalid parameters [permits, period, unit].");
+    }
+    this.capacity = permits;
+    this.permitsPerNano = (double) permits / unit.toNanos(period);
+    this.tokens = permits;
+  }
+
+  /**
+   * @param reserve no. of remaining requests, as reported by the API, this budget leaves to other
+   *        clients of the same account
+   */
+  public void setReserve(int reserve) {
+    if (reserve < 0) {
+      throw new IllegalArgumentException("reserve must not be negative.");
+    }
+    this.reserve = reserve;
+  }
+
+  /**
+   * Takes one permit, blocking until one is available.
+   * 
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public synchronized void acquire() throws InterruptedException {
+    while (true) {
+      long pause = pausedUntil - System.currentTimeMillis();
+      if (pause > 0) {
+        wait(pause);
+        continue;
+      }
+
+      refill();
+      if (tokens >= 1) {
+        tokens -= 1;
+        return;
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, Math.max(1L, (long) ((1 - tokens) / permitsPerNano)));
+    }
+  }
+
+  /**
+   * Takes one permit if available right now.
+   * 
+   * @return <code>true</code> if a permit was taken
+   */
+  public synchronized boolean tryAcquire() {
+    if (pausedUntil > System.currentTimeMillis()) {
+      return false;
+    }
+    refill();
+    if (tokens < 1) {
+      return false;
+    }
+    tokens -= 1;
+    return true;
+  }
+
+  /**
+   * Aligns the budget with the rate limit reported by the API.
+   * 
+   * @param rateLimit rate limit of a response, can be null
+   */
+  public synchronized void update(RateLimit rateLimit) {
+    if (null == rateLimit || null == rateLimit.getRemaining()) {
+      return;
+    }
+
+    refill();
+    int usable = rateLimit.getRemaining() - reserve;
+    if (usable > 0) {
+      tokens = Math.min(tokens, usable);
+      return;
+    }
+
+    tokens = 0;
+    if (null != rateLimit.getReset() && rateLimit.getReset().getTime() > pausedUntil) {
+      pausedUntil = rateLimit.getReset().getTime();
+      log.warn("Rate limit reserve reached, pausing requests until {}", rateLimit.getReset());
+    }
+  }
+
+  @Override
+  public void onResponse(ApiAction apiAction, Object[] pathParams, Object data) {
+    if (data instanceof RateLimitBase) {
+      update(((RateLimitBase) data).getRateLimit());
+    }
+  }
+
+  /**
+   * @return no. of permits available right now
+   */
+  public synchronized int getAvailable() {
+    refill();
+    return pausedUntil > System.currentTimeMillis() ? 0 : (int) tokens;
+  }
+
+  private void refill() {
+    long now = System.nanoTime();
+    tokens = Math.min(capacity, tokens + (now - refilledAt) * permitsPerNano);
+    refilledAt = now;
+  }
+
+  @Override
+  public String toString() {
+    return "RateBudget [available=" + getAvailable() + ", capacity=" + (int) capacity
+        + ", reserve=" + reserve + "]";
+  }
+}
@@ -0,0 +1,206 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.batch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.myjeeva.digitalocean.DigitalOcean;
+import com.myjeeva.digitalocean.common.ApiAction;
+import com.myjeeva.digitalocean.exception.DigitalOceanException;
+import com.myjeeva.digitalocean.exception.RequestUnsuccessfulException;
+import com.myjeeva.digitalocean.pojo.Region;
+import com.myjeeva.digitalocean.pojo.Volume;
+import com.myjeeva.digitalocean.stream.ElementVisitor;
+
+/**
+ * <p>
+ * Runs a region-scoped query against every region concurrently, with bounded parallelism, and
+ * merges the results. A failing region is recorded in {@link RegionSweepResult#getFailures()}
+ * and does not abort the others.
+ * </p>
+ * 
+ * <pre>
+ * RegionSweep sweep = new RegionSweep(apiClient, 4);
+ * RegionSweepResult&lt;Volume&gt; result = sweep.findVolumesByName("pg-data");
+ * </pre>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class RegionSweep {
+
+  private static final Logger log = LoggerFactory.getLogger(RegionSweep.class);
+
+  private final DigitalOcean apiClient;
+
+  private final int parallelism;
+
+  /**
+   * Constructor
+   * 
+   * @param apiClient a DigitalOcean client
+   * @param parallelism max. no. of regions queried at the same time
+   */
+  public RegionSweep(DigitalOcean apiClient, int parallelism) {
+    if (null == apiClient || parallelism < 1) {
+      throw new IllegalArgumentException("Missing or invalid parameters [apiClient, parallelism].");
+    }
+
+    this.apiClient = apiClient;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Runs given query against every region known to the API. Regions which no longer accept new
+   * resources are included, since existing resources may still live there.
+   * 
+   * @param query the region-scoped query
+   * @param <T> element type of the query
+   * @return merged result
+   * @throws DigitalOceanException if region list request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if region list request unsuccessful
+   * @throws InterruptedException if interrupted while waiting for the regions
+   */
+  public <T> RegionSweepResult<T> run(RegionQuery<T> query)
+      throws DigitalOceanException, RequestUnsuccessfulException, InterruptedException {
+    return run(getRegionSlugs(), query);
+  }
+
+  /**
+   * Runs given query against given regions.
+   * 
+   * @param regionSlugs the regions to query
+   * @param query the region-scoped query
+   * @param <T> element type of the query
+   * @return merged result
+   * @throws InterruptedException if interrupted while waiting for the regions
+   */
+  public <T> RegionSweepResult<T> run(List<String> regionSlugs, final RegionQuery<T> query)
+      throws InterruptedException {
+    if (null == query) {
+      throw new IllegalArgumentException("Missing required parameter - query.");
+    }
+
+    final RegionSweepResult<T> result = new RegionSweepResult<T>();
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    try {
+      for (final String regionSlug : regionSlugs) {
+        executor.execute(new Runnable() {
+          @Override
+          public void run() {
+            try {
+              result.addResult(regionSlug, query.query(regionSlug));
+            } catch (Exception e) {
+              log.warn("Region {} failed: {}", regionSlug, e.getMessage());
+              result.addFailure(regionSlug, e);
+            }
+          }
+        });
+      }
+      executor.shutdown();
+      while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+        log.debug("Waiting for region sweep to complete");
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    return result;
+  }
+
+  /**
+   * Lists all volumes of every region, all pages per region.
+   * 
+   * @return merged volumes
+   * @throws DigitalOceanException if region list request had interruption
+   * @throws RequestUnsuccessfulException if region list request unsuccessful
+   * @throws InterruptedException if interrupted while waiting for the regions
+   */
+  public RegionSweepResult<Volume> getAllVolumes()
+      throws DigitalOceanException, RequestUnsuccessfulException, InterruptedException {
+    return run(new RegionQuery<Volume>() {
+      @Override
+      public List<Volume> query(String regionSlug)
+          throws DigitalOceanException, RequestUnsuccessfulException {
+        Map<String, String> queryParams = new HashMap<String, String>();
+        queryParams.put("region", regionSlug);
+        return collect(ApiAction.AVAILABLE_VOLUMES, queryParams);
+      }
+    });
+  }
+
+  /**
+   * Looks up the volumes with given name in every region.
+   * 
+   * @param volumeName the volume name
+   * @return merged volumes
+   * @throws DigitalOceanException if region list request had interruption
+   * @throws RequestUnsuccessfulException if region list request unsuccessful
+   * @throws InterruptedException if interrupted while waiting for the regions
+   */
+  public RegionSweepResult<Volume> findVolumesByName(final String volumeName)
+      throws DigitalOceanException, RequestUnsuccessfulException, InterruptedException {
+    return run(new RegionQuery<Volume>() {
+      @Override
+      public List<Volume> query(String regionSlug)
+          throws DigitalOceanException, RequestUnsuccessfulException {
+        return apiClient.getVolumeInfo(volumeName, regionSlug).getVolumes();
+      }
+    });
+  }
+
+  private List<String> getRegionSlugs() throws DigitalOceanException, RequestUnsuccessfulException {
+    final List<String> slugs = new ArrayList<String>();
+    apiClient.forEachElement(ApiAction.AVAILABLE_REGIONS, null, null, new ElementVisitor<Region>() {
+      @Override
+      public boolean visit(Region region) {
+        slugs.add(region.getSlug());
+        return true;
+      }
+    });
+    return slugs;
+  }
+
+  private <T> List<T> collect(ApiAction apiAction, Map<String, String> queryParams)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    final List<T> elements = new ArrayList<T>();
+    apiClient.forEachElement(apiAction, null, queryParams, new ElementVisitor<T>() {
+      @Override
+      public boolean visit(T element) {
+        elements.add(element);
+        return true;
+      }
+    });
+    return elements;
+  }
+}
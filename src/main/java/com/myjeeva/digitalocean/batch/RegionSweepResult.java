@@ -0,0 +1,91 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+/**
+ * Merged outcome of a {@link RegionSweep}; elements of every region that answered, plus the failure
+ * of every region that did not.
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class RegionSweepResult<T> {
+
+  private final Map<String, List<T>> perRegion = new TreeMap<String, List<T>>();
+
+  private final Map<String, Exception> failures = new TreeMap<String, Exception>();
+
+  synchronized void addResult(String regionSlug, List<T> elements) {
+    List<T> list = (null == elements) ? Collections.<T>emptyList() : elements;
+    perRegion.put(regionSlug, list);
+  }
+
+  synchronized void addFailure(String regionSlug, Exception e) {
+    failures.put(regionSlug, e);
+  }
+
+  @Override
+  public String toString() {
+    return ReflectionToStringBuilder.toString(this);
+  }
+
+  /**
+   * @return merged elements of all regions, ordered by region slug
+   */
+  public synchronized List<T> getElements() {
+    List<T> merged = new ArrayList<T>();
+    for (List<T> elements : perRegion.values()) {
+      merged.addAll(elements);
+    }
+    return merged;
+  }
+
+  /**
+   * @return elements per region slug, for the regions that answered
+   */
+  public synchronized Map<String, List<T>> getPerRegion() {
+    return Collections.unmodifiableMap(new TreeMap<String, List<T>>(perRegion));
+  }
+
+  /**
+   * @return failure per region slug
+   */
+  public synchronized Map<String, Exception> getFailures() {
+    return Collections.unmodifiableMap(new TreeMap<String, Exception>(failures));
+  }
+
+  /**
+   * @return <code>true</code> if every region answered
+   */
+  public synchronized boolean isComplete() {
+    return failures.isEmpty();
+  }
+}
@@ -0,0 +1,165 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.batch;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+import com.myjeeva.digitalocean.pojo.Snapshot;
+
+/**
+ * <p>
+ * Decides which snapshots {@link SnapshotRetention} expires. A snapshot expires when it is older
+ * than the max. age, or when more than the max. count of newer snapshots exist for its droplet or
+ * volume; but never when it is among the min. count of newest snapshots of its resource, nor when
+ * it carries a protected tag. Protected snapshots do not count towards either limit.
+ * </p>
+ * 
+ * <pre>
+ * RetentionPolicy policy = new RetentionPolicy();
+ * policy.setMaxAge(30, TimeUnit.DAYS);
+ * policy.setMaxPerResource(14);
+ * policy.setMinPerResource(2);
+ * policy.setProtectedTags(Arrays.asList("keep"));
+ * </pre>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class RetentionPolicy {
+
+  private long maxAgeMillis;
+
+  private int maxPerResource;
+
+  private int minPerResource;
+
+  private Set<String> protectedTags = Collections.emptySet();
+
+  @Override
+  public String toString() {
+    return ReflectionToStringBuilder.toString(this);
+  }
+
+  /**
+   * @param maxAge max. age of a snapshot, <code>0</code> for no age limit
+   * @param unit unit of maxAge
+   */
+  public void setMaxAge(long maxAge, TimeUnit unit) {
+    if (maxAge < 0 || null == unit) {
+      throw new IllegalArgumentException("Missing or invalid parameters [maxAge, unit].");
+    }
+    this.maxAgeMillis = unit.toMillis(maxAge);
+  }
+
+  /**
+   * @return max. age in milliseconds, <code>0</code> for no age limit
+   */
+  public long getMaxAgeMillis() {
+    return maxAgeMillis;
+  }
+
+  /**
+   * @param maxPerResource max. no. of snapshots kept per resource, <code>0</code> for no limit
+   */
+  public void setMaxPerResource(int maxPerResource) {
+    if (maxPerResource < 0) {
+      throw new IllegalArgumentException("Invalid parameter - maxPerResource.");
+    }
+    this.maxPerResource = maxPerResource;
+  }
+
+  /**
+   * @return max. no. of snapshots kept per resource, <code>0</code> for no limit
+   */
+  public int getMaxPerResource() {
+    return maxPerResource;
+  }
+
+  /**
+   * @param minPerResource no. of newest snapshots per resource never expired
+   */
+  public void setMinPerResource(int minPerResource) {
+    if (minPerResource < 0) {
+      throw new IllegalArgumentException("Invalid parameter - minPerResource.");
+    }
+    this.minPerResource = minPerResource;
+  }
+
+  /**
+   * @return no. of newest snapshots per resource never expired
+   */
+  public int getMinPerResource() {
+    return minPerResource;
+  }
+
+  /**
+   * @param protectedTags snapshots with any of these tags are never expired
+   */
+  public void setProtectedTags(Collection<String> protectedTags) {
+    this.protectedTags = null == protectedTags ? Collections.<String>emptySet()
+        : Collections.unmodifiableSet(new HashSet<String>(protectedTags));
+  }
+
+  /**
+   * @return snapshots with any of these tags are never expired
+   */
+  public Set<String> getProtectedTags() {
+    return protectedTags;
+  }
+
+  /**
+   * @param snapshot a snapshot
+   * @return <code>true</code> if given snapshot carries a protected tag
+   */
+  public boolean isProtected(Snapshot snapshot) {
+    if (null == snapshot.getTags()) {
+      return false;
+    }
+    for (String tag : snapshot.getTags()) {
+      if (protectedTags.contains(tag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @param snapshot a snapshot
+   * @param now current time in milliseconds
+   * @return <code>true</code> if given snapshot is older than the max. age
+   */
+  public boolean isTooOld(Snapshot snapshot, long now) {
+    return maxAgeMillis > 0 && null != snapshot.getCreatedDate()
+        && now - snapshot.getCreatedDate().getTime() > maxAgeMillis;
+  }
+
+  int getRankedCount() {
+    return Math.max(maxPerResource, minPerResource);
+  }
+}
@@ -0,0 +1,149 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+import com.myjeeva.digitalocean.pojo.Snapshot;
+
+/**
+ * Outcome and throughput of a {@link SnapshotRetention} run.
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class RetentionResult {
+
+  private final boolean dryRun;
+
+  private final List<Snapshot> expired = new ArrayList<Snapshot>();
+
+  private final List<Snapshot> deleted = new ArrayList<Snapshot>();
+
+  private final Map<Snapshot, Exception> failures = new LinkedHashMap<Snapshot, Exception>();
+
+  private int evaluatedCount;
+
+  private long listMillis;
+
+  private long deleteMillis;
+
+  RetentionResult(boolean dryRun) {
+    this.dryRun = dryRun;
+  }
+
+  synchronized void setEvaluated(int evaluatedCount, long listMillis) {
+    this.evaluatedCount = evaluatedCount;
+    this.listMillis = listMillis;
+  }
+
+  synchronized void addExpired(Snapshot snapshot) {
+    expired.add(snapshot);
+  }
+
+  synchronized void addDeleted(Snapshot snapshot) {
+    deleted.add(snapshot);
+  }
+
+  synchronized void addFailure(Snapshot snapshot, Exception e) {
+    failures.put(snapshot, e);
+  }
+
+  synchronized void setDeleteMillis(long deleteMillis) {
+    this.deleteMillis = deleteMillis;
+  }
+
+  @Override
+  public String toString() {
+    return ReflectionToStringBuilder.toString(this);
+  }
+
+  /**
+   * @return <code>true</code> if the run only evaluated the policy, deleting nothing
+   */
+  public boolean isDryRun() {
+    return dryRun;
+  }
+
+  /**
+   * @return no. of snapshots streamed and evaluated
+   */
+  public synchronized int getEvaluatedCount() {
+    return evaluatedCount;
+  }
+
+  /**
+   * @return snapshots expired by the policy
+   */
+  public synchronized List<Snapshot> getExpired() {
+    return Collections.unmodifiableList(new ArrayList<Snapshot>(expired));
+  }
+
+  /**
+   * @return expired snapshots deleted, empty on dry run
+   */
+  public synchronized List<Snapshot> getDeleted() {
+    return Collections.unmodifiableList(new ArrayList<Snapshot>(deleted));
+  }
+
+  /**
+   * @return failure per expired snapshot which could not be deleted
+   */
+  public synchronized Map<Snapshot, Exception> getFailures() {
+    return Collections.unmodifiableMap(new LinkedHashMap<Snapshot, Exception>(failures));
+  }
+
+  /**
+   * @return time spent streaming and evaluating the snapshots
+   */
+  public synchronized long getListMillis() {
+    return listMillis;
+  }
+
+  /**
+   * @return time spent deleting the expired snapshots
+   */
+  public synchronized long getDeleteMillis() {
+    return deleteMillis;
+  }
+
+  /**
+   * @return snapshots evaluated per second while streaming
+   */
+  public synchronized double getEvaluatedPerSecond() {
+    return 0 == listMillis ? evaluatedCount : evaluatedCount * 1000.0 / listMillis;
+  }
+
+  /**
+   * @return snapshots deleted per second
+   */
+  public synchronized double getDeletedPerSecond() {
+    return 0 == deleteMillis ? deleted.size() : deleted.size() * 1000.0 / deleteMillis;
+  }
+}
@@ -0,0 +1,106 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+import com.myjeeva.digitalocean.pojo.Droplet;
+
+/**
+ * Outcome of a {@link RollingScheduler} run; the droplets which are active again after the
+ * operation, the failure of every droplet which is not, and the droplets never started because
+ * the run was aborted.
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class RollingResult {
+
+  private final Map<Integer, Droplet> completed = new TreeMap<Integer, Droplet>();
+
+  private final Map<Integer, Exception> failures = new TreeMap<Integer, Exception>();
+
+  private final List<Integer> skipped = new ArrayList<Integer>();
+
+  private boolean aborted;
+
+  synchronized void addCompleted(Droplet droplet) {
+    completed.put(droplet.getId(), droplet);
+  }
+
+  synchronized int addFailure(Integer dropletId, Exception e) {
+    failures.put(dropletId, e);
+    return failures.size();
+  }
+
+  synchronized void abort(List<Integer> notStarted) {
+    aborted = true;
+    skipped.addAll(notStarted);
+  }
+
+  @Override
+  public String toString() {
+    return ReflectionToStringBuilder.toString(this);
+  }
+
+  /**
+   * @return droplet per id, as read once active again
+   */
+  public synchronized Map<Integer, Droplet> getCompleted() {
+    return Collections.unmodifiableMap(new TreeMap<Integer, Droplet>(completed));
+  }
+
+  /**
+   * @return failure per droplet id
+   */
+  public synchronized Map<Integer, Exception> getFailures() {
+    return Collections.unmodifiableMap(new TreeMap<Integer, Exception>(failures));
+  }
+
+  /**
+   * @return droplets not started because the failure threshold was reached, in input order
+   */
+  public synchronized List<Integer> getSkipped() {
+    return Collections.unmodifiableList(new ArrayList<Integer>(skipped));
+  }
+
+  /**
+   * @return <code>true</code> if the run stopped early at the failure threshold
+   */
+  public synchronized boolean isAborted() {
+    return aborted;
+  }
+
+  /**
+   * @return <code>true</code> if every droplet completed
+   */
+  public synchronized boolean isComplete() {
+    return !aborted && failures.isEmpty();
+  }
+}
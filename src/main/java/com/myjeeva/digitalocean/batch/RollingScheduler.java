@@ -0,0 +1,269 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.batch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.myjeeva.digitalocean.DigitalOcean;
+import com.myjeeva.digitalocean.action.ActionCallback;
+import com.myjeeva.digitalocean.action.ActionFuture;
+import com.myjeeva.digitalocean.action.ActionTracker;
+import com.myjeeva.digitalocean.common.ActionStatus;
+import com.myjeeva.digitalocean.common.DropletStatus;
+import com.myjeeva.digitalocean.exception.DigitalOceanException;
+import com.myjeeva.digitalocean.exception.RequestUnsuccessfulException;
+import com.myjeeva.digitalocean.pojo.Action;
+import com.myjeeva.digitalocean.pojo.Droplet;
+
+/**
+ * <p>
+ * Runs a droplet operation across a set of droplets as a rolling change: at most
+ * <code>maxUnavailable</code> droplets are in flight at any time, and a slot is only handed to the
+ * next droplet once the previous one is {@link DropletStatus#ACTIVE} again after its action
+ * completed. Once <code>failureThreshold</code> droplets failed no new operation is started; those
+ * in flight are still followed to the end.
+ * </p>
+ * 
+ * <p>
+ * The operation should leave the droplet running, e.g. <code>rebootDroplet</code> or
+ * <code>rebuildDroplet</code>; one that powers it off, like a resize with disk, needs to power it
+ * on again itself, otherwise the droplet times out waiting to become active.
+ * </p>
+ * 
+ * <pre>
+ * RollingScheduler rolling = new RollingScheduler(apiClient, tracker, budget);
+ * RollingResult result = rolling.run(dropletIds, new DropletOperation() {
+ *   public Action execute(Integer dropletId) throws DigitalOceanException,
+ *       RequestUnsuccessfulException {
+ *     return apiClient.rebuildDroplet(dropletId, imageId);
+ *   }
+ * }, 2, 3, 20, TimeUnit.MINUTES);
+ * </pre>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class RollingScheduler {
+
+  private static final Logger log = LoggerFactory.getLogger(RollingScheduler.class);
+
+  private final DigitalOcean apiClient;
+
+  private final ActionTracker tracker;
+
+  private final RateBudget budget;
+
+  private volatile long statusInterval = TimeUnit.SECONDS.toMillis(5);
+
+  /**
+   * Constructor
+   * 
+   * @param apiClient a DigitalOcean client
+   * @param tracker tracker following the actions
+   * @param budget rate budget every request takes a permit from, can be null
+   */
+  public RollingScheduler(DigitalOcean apiClient, ActionTracker tracker, RateBudget budget) {
+    if (null == apiClient || null == tracker) {
+      throw new IllegalArgumentException("Missing required parameters [apiClient, tracker].");
+    }
+
+    this.apiClient = apiClient;
+    this.tracker = tracker;
+    this.budget = budget;
+  }
+
+  /**
+   * @param interval delay between droplet status checks once its action completed
+   * @param unit unit of interval
+   */
+  public void setStatusInterval(long interval, TimeUnit unit) {
+    if (interval < 1 || null == unit) {
+      throw new IllegalArgumentException("interval must be greater than zero.");
+    }
+    this.statusInterval = unit.toMillis(interval);
+  }
+
+  /**
+   * Runs given operation on the droplets, in the given order, as a rolling change.
+   * 
+   * @param dropletIds the droplets; duplicate ids run once
+   * @param operation the droplet action
+   * @param maxUnavailable max. no. of droplets in flight at the same time
+   * @param failureThreshold no. of failed droplets after which no new operation is started
+   * @param timeout maximum time per droplet, from starting its operation until it is active
+   * @param unit unit of timeout
+   * @return completed, failed and skipped droplets
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public RollingResult run(Collection<Integer> dropletIds, DropletOperation operation,
+      int maxUnavailable, int failureThreshold, long timeout, TimeUnit unit)
+      throws InterruptedException {
+    if (null == dropletIds || null == operation) {
+      throw new IllegalArgumentException("Missing required parameters [dropletIds, operation].");
+    }
+    if (maxUnavailable < 1 || failureThreshold < 1 || timeout < 1 || null == unit) {
+      throw new IllegalArgumentException(
+          "Invalid parameters [maxUnavailable, failureThreshold, timeout].");
+    }
+
+    final DelayQueue<Step> steps = new DelayQueue<Step>();
+    RollingResult result = new RollingResult();
+    List<Integer> queue = new ArrayList<Integer>(new LinkedHashSet<Integer>(dropletIds));
+    int next = 0;
+    int inFlight = 0;
+    int failures = 0;
+
+    while (next < queue.size() || inFlight > 0) {
+      while (failures < failureThreshold && inFlight < maxUnavailable && next < queue.size()) {
+        Integer dropletId = queue.get(next++);
+        try {
+          start(dropletId, operation, System.currentTimeMillis() + unit.toMillis(timeout), steps);
+          inFlight++;
+        } catch (DigitalOceanException | RequestUnsuccessfulException e) {
+          log.warn("Starting operation on droplet {} failed: {}", dropletId, e.getMessage());
+          failures = result.addFailure(dropletId, e);
+        }
+      }
+      if (failures >= failureThreshold && next < queue.size()) {
+        log.warn("Failure threshold {} reached, skipping {} droplet(s)", failureThreshold,
+            queue.size() - next);
+        result.abort(queue.subList(next, queue.size()));
+        next = queue.size();
+      }
+      if (0 == inFlight) {
+        continue;
+      }
+
+      Step step = steps.take();
+      try {
+        if (step.isActive()) {
+          inFlight--;
+          result.addCompleted(step.droplet);
+        } else {
+          steps.add(step.recheck(statusInterval));
+        }
+      } catch (DigitalOceanException | RequestUnsuccessfulException | TimeoutException
+          | ExecutionException | CancellationException e) {
+        inFlight--;
+        Exception cause = e instanceof ExecutionException && e.getCause() instanceof Exception
+            ? (Exception) e.getCause() : e;
+        log.warn("Operation on droplet {} failed: {}", step.dropletId, cause.getMessage());
+        failures = result.addFailure(step.dropletId, cause);
+      }
+    }
+    return result;
+  }
+
+  private void start(final Integer dropletId, DropletOperation operation, final long deadline,
+      final DelayQueue<Step> steps)
+      throws DigitalOceanException, RequestUnsuccessfulException, InterruptedException {
+    if (null != budget) {
+      budget.acquire();
+    }
+    Action action = operation.execute(dropletId);
+    if (null != budget) {
+      budget.update(action.getRateLimit());
+    }
+
+    ActionFuture future = tracker.track(action,
+        Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+    future.addCallback(new ActionCallback() {
+      @Override
+      public void onDone(ActionFuture done) {
+        steps.add(new Step(dropletId, done, deadline, 0));
+      }
+    });
+  }
+
+  /**
+   * Next check of one droplet in flight, due after a delay.
+   */
+  private class Step implements Delayed {
+
+    private final Integer dropletId;
+
+    private final ActionFuture future;
+
+    private final long deadline;
+
+    private final long dueAt;
+
+    private Droplet droplet;
+
+    Step(Integer dropletId, ActionFuture future, long deadline, long delay) {
+      this.dropletId = dropletId;
+      this.future = future;
+      this.deadline = deadline;
+      this.dueAt = System.currentTimeMillis() + delay;
+    }
+
+    boolean isActive() throws DigitalOceanException, RequestUnsuccessfulException,
+        TimeoutException, ExecutionException, InterruptedException {
+      Action action = future.get();
+      if (ActionStatus.COMPLETED != action.getStatus()) {
+        throw new RequestUnsuccessfulException(
+            "Action " + action.getId() + " (" + action.getType() + ") errored.");
+      }
+
+      if (null != budget) {
+        budget.acquire();
+      }
+      droplet = apiClient.getDropletInfo(dropletId);
+      if (DropletStatus.ACTIVE == droplet.getStatus()) {
+        return true;
+      }
+      if (System.currentTimeMillis() >= deadline) {
+        throw new TimeoutException(
+            "Droplet " + dropletId + " still " + droplet.getStatus() + " after its action.");
+      }
+      return false;
+    }
+
+    Step recheck(long delay) {
+      return new Step(dropletId, future, deadline,
+          Math.min(delay, Math.max(0, deadline - System.currentTimeMillis())));
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(dueAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed o) {
+      return Long.compare(getDelay(TimeUnit.MILLISECONDS), o.getDelay(TimeUnit.MILLISECONDS));
+    }
+  }
+}
@@ -0,0 +1,262 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.myjeeva.digitalocean.DigitalOcean;
+import com.myjeeva.digitalocean.common.ApiAction;
+import com.myjeeva.digitalocean.common.ResourceType;
+import com.myjeeva.digitalocean.exception.DigitalOceanException;
+import com.myjeeva.digitalocean.exception.RequestUnsuccessfulException;
+import com.myjeeva.digitalocean.pojo.Delete;
+import com.myjeeva.digitalocean.pojo.Snapshot;
+import com.myjeeva.digitalocean.serializer.FieldProjection;
+import com.myjeeva.digitalocean.stream.ElementVisitor;
+
+/**
+ * <p>
+ * Garbage collector of droplet and volume snapshots. Snapshots are streamed once, binding only the
+ * attributes the {@link RetentionPolicy} needs, and evaluated in the same pass: per resource only
+ * the newest snapshots which count against the policy are held, so memory does not grow with the
+ * number of snapshots kept. Expired snapshots are deleted afterwards, not during the listing, so
+ * the deletes cannot shift the listing pages; deletes run with bounded parallelism and are paced
+ * by an optional {@link RateBudget}.
+ * </p>
+ * 
+ * <pre>
+ * SnapshotRetention retention = new SnapshotRetention(apiClient, 8, budget);
+ * retention.setDryRun(true);
+ * RetentionResult result = retention.run(policy, ResourceType.VOLUME);
+ * </pre>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class SnapshotRetention {
+
+  private static final Logger log = LoggerFactory.getLogger(SnapshotRetention.class);
+
+  private static final FieldProjection PROJECTION =
+      FieldProjection.of("id", "name", "created_at", "resource_id", "resource_type", "tags");
+
+  private static final Comparator<Snapshot> OLDEST_FIRST = new Comparator<Snapshot>() {
+    @Override
+    public int compare(Snapshot s1, Snapshot s2) {
+      int result = Long.compare(createdAt(s1), createdAt(s2));
+      if (0 == result && null != s1.getSnapshotId() && null != s2.getSnapshotId()) {
+        result = s1.getSnapshotId().compareTo(s2.getSnapshotId());
+      }
+      return result;
+    }
+  };
+
+  private final DigitalOcean apiClient;
+
+  private final int parallelism;
+
+  private final RateBudget budget;
+
+  private boolean dryRun;
+
+  /**
+   * Constructor
+   * 
+   * @param apiClient a DigitalOcean client
+   * @param parallelism max. no. of delete requests in flight at the same time
+   * @param budget rate budget every delete request takes a permit from, can be null
+   */
+  public SnapshotRetention(DigitalOcean apiClient, int parallelism, RateBudget budget) {
+    if (null == apiClient || parallelism < 1) {
+      throw new IllegalArgumentException("Missing or invalid parameters [apiClient, parallelism].");
+    }
+
+    this.apiClient = apiClient;
+    this.parallelism = parallelism;
+    this.budget = budget;
+  }
+
+  /**
+   * @param dryRun <code>true</code> to only report the expired snapshots, deleting nothing
+   */
+  public void setDryRun(boolean dryRun) {
+    this.dryRun = dryRun;
+  }
+
+  /**
+   * Applies given policy to the snapshots of all droplets and volumes.
+   * 
+   * @param policy the retention policy
+   * @return expired and deleted snapshots, with throughput
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   * @throws InterruptedException if interrupted while waiting for the deletes
+   */
+  public RetentionResult run(RetentionPolicy policy)
+      throws DigitalOceanException, RequestUnsuccessfulException, InterruptedException {
+    return run(policy, null);
+  }
+
+  /**
+   * Applies given policy to the snapshots of one resource type.
+   * 
+   * @param policy the retention policy
+   * @param resourceType {@link ResourceType#DROPLET} or {@link ResourceType#VOLUME},
+   *        <code>null</code> for both
+   * @return expired and deleted snapshots, with throughput
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   * @throws InterruptedException if interrupted while waiting for the deletes
+   */
+  public RetentionResult run(final RetentionPolicy policy, ResourceType resourceType)
+      throws DigitalOceanException, RequestUnsuccessfulException, InterruptedException {
+    if (null == policy) {
+      throw new IllegalArgumentException("Missing required parameter - policy.");
+    }
+
+    ApiAction apiAction = ApiAction.AVAILABLE_SNAPSHOTS;
+    Map<String, String> queryParams = null;
+    if (ResourceType.DROPLET == resourceType || ResourceType.VOLUME == resourceType) {
+      apiAction = ResourceType.DROPLET == resourceType ? ApiAction.ALL_DROPLET_SNAPSHOTS
+          : ApiAction.ALL_VOLUME_SNAPSHOTS;
+      queryParams = new HashMap<String, String>();
+      queryParams.put("resource_type", resourceType.toString());
+    } else if (null != resourceType) {
+      throw new IllegalArgumentException("Invalid parameter - resourceType.");
+    }
+
+    final RetentionResult result = new RetentionResult(dryRun);
+    final long now = System.currentTimeMillis();
+    final int ranked = policy.getRankedCount();
+    final Map<String, PriorityQueue<Snapshot>> newest =
+        new HashMap<String, PriorityQueue<Snapshot>>();
+
+    long start = System.nanoTime();
+    int evaluated = apiClient.forEachElement(apiAction, null, queryParams, PROJECTION,
+        new ElementVisitor<Snapshot>() {
+          @Override
+          public boolean visit(Snapshot snapshot) {
+            if (policy.isProtected(snapshot)) {
+              return true;
+            }
+
+            Snapshot beyond = snapshot;
+            if (ranked > 0) {
+              PriorityQueue<Snapshot> queue = newest.get(snapshot.getResourceId());
+              if (null == queue) {
+                queue = new PriorityQueue<Snapshot>(ranked, OLDEST_FIRST);
+                newest.put(snapshot.getResourceId(), queue);
+              }
+              queue.add(snapshot);
+              beyond = queue.size() > ranked ? queue.poll() : null;
+            }
+
+            // ranked after the newest snapshots held, so past min. count and max. count
+            if (null != beyond
+                && (policy.getMaxPerResource() > 0 || policy.isTooOld(beyond, now))) {
+              result.addExpired(beyond);
+            }
+            return true;
+          }
+        });
+
+    for (PriorityQueue<Snapshot> queue : newest.values()) {
+      List<Snapshot> snapshots = new ArrayList<Snapshot>(queue);
+      Collections.sort(snapshots, Collections.reverseOrder(OLDEST_FIRST));
+      for (int rank = policy.getMinPerResource(); rank < snapshots.size(); rank++) {
+        Snapshot snapshot = snapshots.get(rank);
+        if (policy.isTooOld(snapshot, now)
+            || (policy.getMaxPerResource() > 0 && rank >= policy.getMaxPerResource())) {
+          result.addExpired(snapshot);
+        }
+      }
+    }
+    result.setEvaluated(evaluated, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    log.debug("Evaluated {} snapshots, {} expired", evaluated, result.getExpired().size());
+
+    if (!dryRun) {
+      start = System.nanoTime();
+      delete(result);
+      result.setDeleteMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+    return result;
+  }
+
+  private void delete(final RetentionResult result) throws InterruptedException {
+    List<Snapshot> expired = result.getExpired();
+    if (expired.isEmpty()) {
+      return;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, expired.size()));
+    try {
+      for (final Snapshot snapshot : expired) {
+        executor.execute(new Runnable() {
+          @Override
+          public void run() {
+            try {
+              if (null != budget) {
+                budget.acquire();
+              }
+              Delete delete = apiClient.deleteSnapshot(snapshot.getSnapshotId());
+              if (null != budget) {
+                budget.update(delete.getRateLimit());
+              }
+              result.addDeleted(snapshot);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              result.addFailure(snapshot, e);
+            } catch (DigitalOceanException | RequestUnsuccessfulException | RuntimeException e) {
+              log.warn("Deleting snapshot {} failed: {}", snapshot.getSnapshotId(), e.getMessage());
+              result.addFailure(snapshot, e);
+            }
+          }
+        });
+      }
+      executor.shutdown();
+      while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+        log.debug("Waiting for snapshot deletes to complete");
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static long createdAt(Snapshot snapshot) {
+    return null == snapshot.getCreatedDate() ? 0 : snapshot.getCreatedDate().getTime();
+  }
+}
@@ -0,0 +1,315 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.cache;
+
+import static com.myjeeva.digitalocean.common.ApiAction.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import com.myjeeva.digitalocean.common.ApiAction;
+import com.myjeeva.digitalocean.common.RequestMethod;
+
+/**
+ * <p>
+ * Declares which cached reads a mutating {@link ApiAction} makes stale. After a successful
+ * mutation the client drops the cached responses of every dependent read action:
+ * </p>
+ * 
+ * <ul>
+ * <li><em>keyed</em> dependencies drop only the responses of the same resource, i.e. the read
+ * path filled with the path params of the mutation, e.g. <code>DELETE_DROPLET</code> of droplet 42
+ * drops <code>GET_DROPLET_INFO</code> of <code>/droplets/42</code></li>
+ * <li>other dependencies drop all responses of the read action, e.g.
+ * <code>AVAILABLE_DROPLETS</code> of every page</li>
+ * </ul>
+ * 
+ * <p>
+ * Mutations naming their targets in the request body (attach volume, tag resources) use unkeyed
+ * dependencies, so do create operations, which also drop cached 404 answers of their resource.
+ * Additional dependencies can be declared with {@link #add(ApiAction, ApiAction, boolean)}.
+ * </p>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class CacheDependencies {
+
+  private static final ApiAction[] DROPLET_KEYED = {GET_DROPLET_INFO, GET_DROPLETS_KERNELS,
+      GET_DROPLET_SNAPSHOTS, GET_DROPLET_BACKUPS, GET_DROPLET_ACTIONS, GET_DROPLET_NEIGHBORS};
+
+  private static final ApiAction[] DROPLET_LISTINGS = {AVAILABLE_DROPLETS, ALL_DROPLET_NEIGHBORS,
+      AVAILABLE_ACTIONS, AVAILABLE_TAGS, GET_TAG};
+
+  private static final ApiAction[] DROPLET_REFERENCES = {AVAILABLE_VOLUMES, GET_VOLUME_INFO,
+      GET_VOLUME_INFO_BY_NAME, FLOATING_IPS, GET_FLOATING_IP_INFO, AVAILABLE_LOAD_BALANCERS,
+      GET_LOAD_BALANCER_INFO, AVAILABLE_FIREWALLS, GET_FIREWALL_INFO};
+
+  private static final ApiAction[] DROPLET_ACTIONS = {REBOOT_DROPLET, POWER_CYCLE_DROPLET,
+      SHUTDOWN_DROPLET, POWER_OFF_DROPLET, POWER_ON_DROPLET, RESET_DROPLET_PASSWORD,
+      RESIZE_DROPLET, RESTORE_DROPLET, REBUILD_DROPLET, RENAME_DROPLET, CHANGE_DROPLET_KERNEL,
+      ENABLE_DROPLET_IPV6, ENABLE_DROPLET_BACKUPS, DISABLE_DROPLET_BACKUPS,
+      ENABLE_DROPLET_PRIVATE_NETWORKING, SNAPSHOT_DROPLET};
+
+  private static final ApiAction[] TAGGED_DROPLET_ACTIONS = {POWER_CYCLE_DROPLETS_BY_TAG_NAME,
+      POWER_ON_DROPLETS_BY_TAG_NAME, POWER_OFF_DROPLETS_BY_TAG_NAME, SHUTDOWN_DROPLETS_BY_TAG_NAME,
+      ENABLE_DROPLET_BACKUPS_BY_TAG_NAME, DISABLE_DROPLET_BACKUPS_BY_TAG_NAME,
+      SNAPSHOT_DROPLETS_BY_TAG_NAME, ENABLE_DROPLET_IPV6_BY_TAG_NAME,
+      ENABLE_DROPLET_PRIVATE_NETWORKING_BY_TAG_NAME};
+
+  private static final ApiAction[] SNAPSHOT_LISTINGS = {AVAILABLE_SNAPSHOTS,
+      ALL_DROPLET_SNAPSHOTS, ALL_VOLUME_SNAPSHOTS, GET_DROPLET_SNAPSHOTS, GET_VOLUME_SNAPSHOTS,
+      AVAILABLE_IMAGES};
+
+  private static final ApiAction[] TAGGABLE = {AVAILABLE_TAGS, AVAILABLE_DROPLETS,
+      GET_DROPLET_INFO, AVAILABLE_VOLUMES, GET_VOLUME_INFO, GET_VOLUME_INFO_BY_NAME,
+      AVAILABLE_IMAGES, GET_IMAGE_INFO, AVAILABLE_SNAPSHOTS, ALL_DROPLET_SNAPSHOTS,
+      ALL_VOLUME_SNAPSHOTS, GET_SNAPSHOT_INFO};
+
+  private static final ApiAction[] VOLUME_LISTINGS = {AVAILABLE_VOLUMES, GET_VOLUME_INFO_BY_NAME,
+      AVAILABLE_DROPLETS, GET_DROPLET_INFO, AVAILABLE_ACTIONS};
+
+  private final Map<ApiAction, List<Dependency>> dependencies =
+      new EnumMap<ApiAction, List<Dependency>>(ApiAction.class);
+
+  /**
+   * Creates the dependencies of all mutating api actions of this client.
+   * 
+   * @return the dependencies
+   */
+  public static CacheDependencies defaults() {
+    CacheDependencies d = new CacheDependencies();
+
+    // Droplets
+    d.all(CREATE_DROPLET, DROPLET_LISTINGS);
+    d.all(CREATE_DROPLETS, DROPLET_LISTINGS);
+    d.keyed(DELETE_DROPLET, DROPLET_KEYED);
+    d.all(DELETE_DROPLET, DROPLET_LISTINGS);
+    d.all(DELETE_DROPLET, DROPLET_REFERENCES);
+    d.all(DELETE_DROPLET_BY_TAG_NAME, DROPLET_KEYED);
+    d.all(DELETE_DROPLET_BY_TAG_NAME, DROPLET_LISTINGS);
+    d.all(DELETE_DROPLET_BY_TAG_NAME, DROPLET_REFERENCES);
+    for (ApiAction action : DROPLET_ACTIONS) {
+      d.keyed(action, GET_DROPLET_INFO, GET_DROPLET_ACTIONS, GET_DROPLET_BACKUPS);
+      d.all(action, AVAILABLE_DROPLETS, AVAILABLE_ACTIONS);
+    }
+    d.keyed(SNAPSHOT_DROPLET, GET_DROPLET_SNAPSHOTS);
+    d.all(SNAPSHOT_DROPLET, SNAPSHOT_LISTINGS);
+    d.all(SNAPSHOT_DROPLET, GET_IMAGE_INFO, GET_SNAPSHOT_INFO);
+    for (ApiAction action : TAGGED_DROPLET_ACTIONS) {
+      d.all(action, GET_DROPLET_INFO, GET_DROPLET_ACTIONS, GET_DROPLET_BACKUPS);
+      d.all(action, AVAILABLE_DROPLETS, AVAILABLE_ACTIONS);
+    }
+    d.all(SNAPSHOT_DROPLETS_BY_TAG_NAME, GET_DROPLET_SNAPSHOTS);
+    d.all(SNAPSHOT_DROPLETS_BY_TAG_NAME, SNAPSHOT_LISTINGS);
+    d.all(RESTORE_DROPLET, AVAILABLE_IMAGES);
+    d.all(REBUILD_DROPLET, AVAILABLE_IMAGES);
+
+    // Images
+    d.all(CREATE_CUSTOM_IMAGE, AVAILABLE_IMAGES, GET_IMAGE_INFO);
+    d.keyed(UPDATE_IMAGE_INFO, GET_IMAGE_INFO, GET_SNAPSHOT_INFO);
+    d.all(UPDATE_IMAGE_INFO, SNAPSHOT_LISTINGS);
+    d.keyed(DELETE_IMAGE, GET_IMAGE_INFO, GET_IMAGE_ACTIONS, GET_SNAPSHOT_INFO);
+    d.all(DELETE_IMAGE, SNAPSHOT_LISTINGS);
+    d.keyed(TRANSFER_IMAGE, GET_IMAGE_INFO, GET_IMAGE_ACTIONS);
+    d.all(TRANSFER_IMAGE, AVAILABLE_IMAGES, AVAILABLE_ACTIONS);
+    d.keyed(CONVERT_IMAGE, GET_IMAGE_INFO, GET_IMAGE_ACTIONS);
+    d.all(CONVERT_IMAGE, AVAILABLE_IMAGES, AVAILABLE_ACTIONS);
+
+    // Domains and domain records
+    d.all(CREATE_DOMAIN, AVAILABLE_DOMAINS, GET_DOMAIN_INFO);
+    d.keyed(DELETE_DOMAIN, GET_DOMAIN_INFO, GET_DOMAIN_RECORDS, GET_DOMAIN_RECORD_INFO);
+    d.all(DELETE_DOMAIN, AVAILABLE_DOMAINS);
+    d.keyed(CREATE_DOMAIN_RECORD, GET_DOMAIN_RECORDS, GET_DOMAIN_INFO);
+    d.keyed(UPDATE_DOMAIN_RECORD, GET_DOMAIN_RECORDS, GET_DOMAIN_RECORD_INFO, GET_DOMAIN_INFO);
+    d.keyed(DELETE_DOMAIN_RECORD, GET_DOMAIN_RECORDS, GET_DOMAIN_RECORD_INFO, GET_DOMAIN_INFO);
+
+    // SSH keys, looked up by id or fingerprint
+    d.all(CREATE_KEY, AVAILABLE_KEYS, GET_KEY_INFO);
+    d.all(UPDATE_KEY, AVAILABLE_KEYS, GET_KEY_INFO);
+    d.all(DELETE_KEY, AVAILABLE_KEYS, GET_KEY_INFO);
+
+    // Floating IPs
+    d.all(CREATE_FLOATING_IP, FLOATING_IPS, AVAILABLE_ACTIONS);
+    d.keyed(DELETE_FLOATING_IP, GET_FLOATING_IP_INFO, GET_FLOATING_IP_ACTIONS);
+    d.all(DELETE_FLOATING_IP, FLOATING_IPS);
+    d.keyed(ASSIGN_FLOATING_IP, GET_FLOATING_IP_INFO, GET_FLOATING_IP_ACTIONS);
+    d.all(ASSIGN_FLOATING_IP, FLOATING_IPS, AVAILABLE_ACTIONS);
+    d.keyed(UNASSIGN_FLOATING_IP, GET_FLOATING_IP_INFO, GET_FLOATING_IP_ACTIONS);
+    d.all(UNASSIGN_FLOATING_IP, FLOATING_IPS, AVAILABLE_ACTIONS);
+
+    // Tags
+    d.all(CREATE_TAG, AVAILABLE_TAGS, GET_TAG);
+    d.keyed(DELETE_TAG, GET_TAG);
+    d.all(DELETE_TAG, TAGGABLE);
+    d.keyed(TAG_RESOURCE, GET_TAG);
+    d.all(TAG_RESOURCE, TAGGABLE);
+    d.keyed(UNTAG_RESOURCE, GET_TAG);
+    d.all(UNTAG_RESOURCE, TAGGABLE);
+
+    // Volumes
+    d.all(CREATE_VOLUME, AVAILABLE_VOLUMES, GET_VOLUME_INFO_BY_NAME, GET_VOLUME_INFO);
+    d.keyed(DELETE_VOLUME, GET_VOLUME_INFO, GET_VOLUME_SNAPSHOTS, GET_VOLUME_ACTIONS);
+    d.all(DELETE_VOLUME, VOLUME_LISTINGS);
+    d.all(DELETE_VOLUME_BY_NAME, GET_VOLUME_INFO, GET_VOLUME_SNAPSHOTS, GET_VOLUME_ACTIONS);
+    d.all(DELETE_VOLUME_BY_NAME, VOLUME_LISTINGS);
+    d.keyed(ACTIONS_VOLUME, GET_VOLUME_INFO, GET_VOLUME_ACTIONS);
+    d.all(ACTIONS_VOLUME, VOLUME_LISTINGS);
+    d.all(ACTIONS_VOLUME_BY_NAME, GET_VOLUME_INFO, GET_VOLUME_ACTIONS);
+    d.all(ACTIONS_VOLUME_BY_NAME, VOLUME_LISTINGS);
+    d.keyed(SNAPSHOT_VOLUME, GET_VOLUME_SNAPSHOTS, GET_VOLUME_INFO);
+    d.all(SNAPSHOT_VOLUME, AVAILABLE_SNAPSHOTS, ALL_VOLUME_SNAPSHOTS);
+
+    // Snapshots, droplet snapshots are images too
+    d.keyed(DELETE_SNAPSHOT, GET_SNAPSHOT_INFO, GET_IMAGE_INFO);
+    d.all(DELETE_SNAPSHOT, SNAPSHOT_LISTINGS);
+    d.all(DELETE_SNAPSHOT, GET_VOLUME_INFO);
+
+    // Load balancers
+    d.all(CREATE_LOAD_BALANCER, AVAILABLE_LOAD_BALANCERS);
+    for (ApiAction action : new ApiAction[] {UPDATE_LOAD_BALANCER, DELETE_LOAD_BALANCER,
+        ADD_DROPLET_TO_LOAD_BALANCER, REMOVE_DROPLET_FROM_LOAD_BALANCER,
+        ADD_FORWARDING_RULES_TO_LOAD_BALANCER, REMOVE_FORWARDING_RULES_FROM_LOAD_BALANCER}) {
+      d.keyed(action, GET_LOAD_BALANCER_INFO);
+      d.all(action, AVAILABLE_LOAD_BALANCERS);
+    }
+
+    // Certificates
+    d.all(CREATE_CERTIFICATE, AVAILABLE_CERTIFICATES);
+    d.keyed(DELETE_CERTIFICATE, GET_CERTIFICATE_INFO);
+    d.all(DELETE_CERTIFICATE, AVAILABLE_CERTIFICATES);
+
+    // Firewalls
+    d.all(CREATE_FIREWALL, AVAILABLE_FIREWALLS);
+    for (ApiAction action : new ApiAction[] {UPDATE_FIREWALL, DELETE_FIREWALL,
+        ADD_DROPLET_TO_FIREWALL, REMOVE_DROPLET_FROM_FIREWALL}) {
+      d.keyed(action, GET_FIREWALL_INFO);
+      d.all(action, AVAILABLE_FIREWALLS);
+    }
+
+    return d;
+  }
+
+  /**
+   * Declares that given mutation makes responses of given read action stale.
+   * 
+   * @param mutation a mutating api action
+   * @param read a <code>GET</code> api action
+   * @param keyed true to drop only the responses of the resource addressed by the path params of
+   *        the mutation
+   */
+  public synchronized void add(ApiAction mutation, ApiAction read, boolean keyed) {
+    if (null == mutation || RequestMethod.GET == mutation.getMethod()) {
+      throw new IllegalArgumentException("mutation must be a non GET api action.");
+    }
+    if (null == read || RequestMethod.GET != read.getMethod()) {
+      throw new IllegalArgumentException("read must be a GET api action.");
+    }
+
+    List<Dependency> list = dependencies.get(mutation);
+    if (null == list) {
+      list = new ArrayList<Dependency>();
+      dependencies.put(mutation, list);
+    }
+
+    Dependency dependency = new Dependency(read, keyed);
+    if (!list.contains(dependency)) {
+      list.add(dependency);
+    }
+  }
+
+  /**
+   * @param mutation a mutating api action
+   * @return the reads made stale by given mutation, never null
+   */
+  public synchronized List<Dependency> get(ApiAction mutation) {
+    List<Dependency> list = dependencies.get(mutation);
+    if (null == list) {
+      return Collections.emptyList();
+    }
+    return new ArrayList<Dependency>(list);
+  }
+
+  private void keyed(ApiAction mutation, ApiAction... reads) {
+    for (ApiAction read : reads) {
+      add(mutation, read, true);
+    }
+  }
+
+  private void all(ApiAction mutation, ApiAction... reads) {
+    for (ApiAction read : reads) {
+      add(mutation, read, false);
+    }
+  }
+
+  /**
+   * A read action depending on a mutation
+   */
+  public static class Dependency {
+
+    private final ApiAction apiAction;
+
+    private final boolean keyed;
+
+    Dependency(ApiAction apiAction, boolean keyed) {
+      this.apiAction = apiAction;
+      this.keyed = keyed;
+    }
+
+    /**
+     * @return the read api action
+     */
+    public ApiAction getApiAction() {
+      return apiAction;
+    }
+
+    /**
+     * @return true if only the responses of the same resource are stale
+     */
+    public boolean isKeyed() {
+      return keyed;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Dependency)) {
+        return false;
+      }
+      Dependency other = (Dependency) obj;
+      return apiAction == other.apiAction && keyed == other.keyed;
+    }
+
+    @Override
+    public int hashCode() {
+      return apiAction.hashCode() * 31 + (keyed ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+      return keyed ? apiAction + "/{id}" : apiAction.toString();
+    }
+  }
+}
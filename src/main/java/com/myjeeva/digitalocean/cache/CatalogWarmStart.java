@@ -0,0 +1,371 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.myjeeva.digitalocean.DigitalOcean;
+import com.myjeeva.digitalocean.common.ApiAction;
+import com.myjeeva.digitalocean.common.Constants;
+import com.myjeeva.digitalocean.exception.DigitalOceanException;
+import com.myjeeva.digitalocean.exception.RequestUnsuccessfulException;
+import com.myjeeva.digitalocean.pojo.Image;
+import com.myjeeva.digitalocean.pojo.Region;
+import com.myjeeva.digitalocean.pojo.Size;
+import com.myjeeva.digitalocean.stream.ElementVisitor;
+
+/**
+ * <p>
+ * Disk-backed copy of the region, size and image catalogs for short-lived processes. On start the
+ * catalogs are read from a memory-mapped file, so they are usable in milliseconds; stale catalogs
+ * are then re-fetched in the background with {@link #revalidate(ExecutorService)} and written back.
+ * </p>
+ * 
+ * <p>
+ * File layout: magic <code>DOCC</code>, format version and no. of catalogs, then per catalog the
+ * api action name, fetch timestamp (epoch millis), no. of elements and the elements as UTF-8 JSON
+ * array. Missing, unreadable or foreign files are treated as empty, a catalog is then fetched
+ * synchronously on first access.
+ * </p>
+ * 
+ * <pre>
+ * CatalogWarmStart catalogs =
+ *     new CatalogWarmStart(apiClient, new File("catalogs.bin"), 1, TimeUnit.DAYS);
+ * catalogs.load();
+ * catalogs.revalidate(executor);
+ * List&lt;Size&gt; sizes = catalogs.getSizes();
+ * </pre>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class CatalogWarmStart {
+
+  private static final Logger log = LoggerFactory.getLogger(CatalogWarmStart.class);
+
+  private static final int MAGIC = 0x444f4343; // DOCC
+
+  private static final int VERSION = 1;
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final Map<ApiAction, Class<?>> CATALOGS =
+      new EnumMap<ApiAction, Class<?>>(ApiAction.class);
+
+  static {
+    CATALOGS.put(ApiAction.AVAILABLE_REGIONS, Region.class);
+    CATALOGS.put(ApiAction.AVAILABLE_SIZES, Size.class);
+    CATALOGS.put(ApiAction.AVAILABLE_IMAGES, Image.class);
+  }
+
+  private final DigitalOcean apiClient;
+
+  private final File file;
+
+  private final long maxAgeMillis;
+
+  private final Gson gson = new GsonBuilder().setDateFormat(Constants.DATE_FORMAT).create();
+
+  private volatile Map<ApiAction, Catalog> catalogs =
+      new EnumMap<ApiAction, Catalog>(ApiAction.class);
+
+  /**
+   * Constructor
+   * 
+   * @param apiClient a DigitalOcean client
+   * @param file the cache file, created on first fetch
+   * @param maxAge how long a catalog is fresh
+   * @param unit unit of maxAge
+   */
+  public CatalogWarmStart(DigitalOcean apiClient, File file, long maxAge, TimeUnit unit) {
+    if (null == apiClient || null == file || null == unit) {
+      throw new IllegalArgumentException("Missing required parameters [apiClient, file, unit].");
+    }
+
+    this.apiClient = apiClient;
+    this.file = file;
+    this.maxAgeMillis = unit.toMillis(maxAge);
+  }
+
+  /**
+   * Reads the catalogs from the cache file, regardless of their age.
+   * 
+   * @return no. of catalogs read
+   */
+  public int load() {
+    if (!file.isFile()) {
+      return 0;
+    }
+
+    Map<ApiAction, Catalog> loaded = new EnumMap<ApiAction, Catalog>(ApiAction.class);
+    try {
+      FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+      try {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (buffer.remaining() < 12 || MAGIC != buffer.getInt() || VERSION != buffer.getInt()) {
+          log.warn("Ignoring catalog cache file {}, unknown format", file);
+          return 0;
+        }
+
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+          String name = readString(buffer);
+          long fetchedAt = buffer.getLong();
+          buffer.getInt(); // element count, the array carries it too
+          String json = readString(buffer);
+
+          ApiAction apiAction = ApiAction.valueOf(name);
+          Class<?> type = CATALOGS.get(apiAction);
+          if (null != type) {
+            Class<?> arrayType = Array.newInstance(type, 0).getClass();
+            Object[] elements = (Object[]) gson.fromJson(json, arrayType);
+            loaded.put(apiAction,
+                new Catalog(fetchedAt, Collections.unmodifiableList(Arrays.asList(elements))));
+          }
+        }
+      } finally {
+        channel.close();
+      }
+    } catch (IOException | RuntimeException e) {
+      log.warn("Ignoring unreadable catalog cache file " + file, e);
+      return 0;
+    }
+
+    synchronized (this) {
+      Map<ApiAction, Catalog> merged = new EnumMap<ApiAction, Catalog>(loaded);
+      merged.putAll(catalogs);
+      catalogs = merged;
+    }
+    log.debug("Loaded {} catalog(s) from {}", loaded.size(), file);
+    return loaded.size();
+  }
+
+  /**
+   * @return the regions, fetched now if neither loaded nor fetched before
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   */
+  public List<Region> getRegions() throws DigitalOceanException, RequestUnsuccessfulException {
+    return get(ApiAction.AVAILABLE_REGIONS);
+  }
+
+  /**
+   * @return the sizes, fetched now if neither loaded nor fetched before
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   */
+  public List<Size> getSizes() throws DigitalOceanException, RequestUnsuccessfulException {
+    return get(ApiAction.AVAILABLE_SIZES);
+  }
+
+  /**
+   * @return the images, fetched now if neither loaded nor fetched before
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   */
+  public List<Image> getImages() throws DigitalOceanException, RequestUnsuccessfulException {
+    return get(ApiAction.AVAILABLE_IMAGES);
+  }
+
+  /**
+   * @param apiAction one of <code>AVAILABLE_REGIONS</code>, <code>AVAILABLE_SIZES</code> or
+   *        <code>AVAILABLE_IMAGES</code>
+   * @return fetch time of the catalog in epoch millis, <code>-1</code> if not present
+   */
+  public long getFetchedAt(ApiAction apiAction) {
+    Catalog catalog = catalogs.get(apiAction);
+    return null == catalog ? -1 : catalog.fetchedAt;
+  }
+
+  /**
+   * @param apiAction one of <code>AVAILABLE_REGIONS</code>, <code>AVAILABLE_SIZES</code> or
+   *        <code>AVAILABLE_IMAGES</code>
+   * @return true if the catalog is present and younger than max age
+   */
+  public boolean isFresh(ApiAction apiAction) {
+    Catalog catalog = catalogs.get(apiAction);
+    return null != catalog && System.currentTimeMillis() - catalog.fetchedAt < maxAgeMillis;
+  }
+
+  /**
+   * Re-fetches the missing and stale catalogs and writes the cache file.
+   * 
+   * @return no. of catalogs fetched
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   */
+  public int revalidate() throws DigitalOceanException, RequestUnsuccessfulException {
+    int fetched = 0;
+    for (ApiAction apiAction : CATALOGS.keySet()) {
+      if (!isFresh(apiAction)) {
+        fetch(apiAction);
+        fetched++;
+      }
+    }
+    return fetched;
+  }
+
+  /**
+   * Runs {@link #revalidate()} on given executor, callers keep using the loaded catalogs meanwhile.
+   * 
+   * @param executor runs the revalidation
+   * @return no. of catalogs fetched
+   */
+  public Future<Integer> revalidate(ExecutorService executor) {
+    return executor.submit(new Callable<Integer>() {
+      @Override
+      public Integer call() throws Exception {
+        return revalidate();
+      }
+    });
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> List<T> get(ApiAction apiAction)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    Catalog catalog = catalogs.get(apiAction);
+    if (null == catalog) {
+      catalog = fetch(apiAction);
+    }
+    return (List<T>) catalog.elements;
+  }
+
+  private Catalog fetch(ApiAction apiAction)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    final List<Object> elements = new ArrayList<Object>();
+    apiClient.forEachElement(apiAction, null, null, new ElementVisitor<Object>() {
+      @Override
+      public boolean visit(Object element) {
+        elements.add(element);
+        return true;
+      }
+    });
+
+    Catalog catalog =
+        new Catalog(System.currentTimeMillis(), Collections.unmodifiableList(elements));
+    synchronized (this) {
+      Map<ApiAction, Catalog> updated = new EnumMap<ApiAction, Catalog>(ApiAction.class);
+      updated.putAll(catalogs);
+      updated.put(apiAction, catalog);
+      catalogs = updated;
+
+      try {
+        store(updated);
+      } catch (IOException e) {
+        log.warn("Unable to write catalog cache file " + file, e);
+      }
+    }
+    log.debug("Fetched {} element(s) of {}", elements.size(), apiAction);
+    return catalog;
+  }
+
+  private void store(Map<ApiAction, Catalog> snapshot) throws IOException {
+    List<byte[]> payload = new ArrayList<byte[]>();
+    int size = 12;
+    for (Map.Entry<ApiAction, Catalog> entry : snapshot.entrySet()) {
+      byte[] name = entry.getKey().name().getBytes(UTF_8);
+      byte[] json = gson.toJson(entry.getValue().elements).getBytes(UTF_8);
+      payload.add(name);
+      payload.add(json);
+      size += 4 + name.length + 8 + 4 + 4 + json.length;
+    }
+
+    // write aside and swap, so a reader never maps a half written file
+    File tmp = new File(file.getAbsoluteFile().getParentFile(), file.getName() + ".tmp");
+    FileChannel channel = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+      buffer.putInt(MAGIC).putInt(VERSION).putInt(snapshot.size());
+
+      int i = 0;
+      for (Catalog catalog : snapshot.values()) {
+        writeBytes(buffer, payload.get(i++));
+        buffer.putLong(catalog.fetchedAt);
+        buffer.putInt(catalog.elements.size());
+        writeBytes(buffer, payload.get(i++));
+      }
+      buffer.force();
+    } finally {
+      channel.close();
+    }
+
+    Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static void writeBytes(ByteBuffer buffer, byte[] bytes) {
+    buffer.putInt(bytes.length);
+    buffer.put(bytes);
+  }
+
+  private static String readString(ByteBuffer buffer) throws IOException {
+    int length = buffer.getInt();
+    if (length < 0 || length > buffer.remaining()) {
+      throw new IOException("Corrupt catalog cache entry.");
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  private static class Catalog {
+
+    private final long fetchedAt;
+
+    private final List<?> elements;
+
+    Catalog(long fetchedAt, List<?> elements) {
+      this.fetchedAt = fetchedAt;
+      this.elements = elements;
+    }
+  }
+}
@@ -0,0 +1,225 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.cache;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Cache of deserialized <code>GET</code> responses along with their HTTP validators
+ * (<code>ETag</code> / <code>Last-Modified</code>). On the next call of the same request the
+ * client sends <code>If-None-Match</code> / <code>If-Modified-Since</code>, and a
+ * <code>304 Not Modified</code> answer is served from the cached object without reading or
+ * parsing a response body.
+ * </p>
+ * 
+ * <p>
+ * Cached objects are handed out as is, callers should treat them as read-only. Entries are evicted
+ * in least recently used order once <code>maxEntries</code> is reached.
+ * </p>
+ * 
+ * <pre>
+ * DigitalOceanClient apiClient = new DigitalOceanClient(authToken);
+ * apiClient.setConditionalCache(new ConditionalCache(1000));
+ * </pre>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class ConditionalCache {
+
+  private final Map<String, Entry> entries;
+
+  private final AtomicLong hits = new AtomicLong();
+
+  private final AtomicLong misses = new AtomicLong();
+
+  private final AtomicLong notModified = new AtomicLong();
+
+  /**
+   * Constructor
+   * 
+   * @param maxEntries maximum no. of cached responses
+   */
+  public ConditionalCache(final int maxEntries) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("maxEntries must be greater than zero.");
+    }
+
+    this.entries = Collections.synchronizedMap(new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        return size() > maxEntries;
+      }
+    });
+  }
+
+  /**
+   * Looks up the cached response of given request key, counting a hit or a miss.
+   * 
+   * @param key request key
+   * @return the entry or <code>null</code>
+   */
+  public Entry get(String key) {
+    Entry entry = entries.get(key);
+    if (null == entry) {
+      misses.incrementAndGet();
+    } else {
+      hits.incrementAndGet();
+    }
+    return entry;
+  }
+
+  /**
+   * Caches given response object, provided there is at least one validator.
+   * 
+   * @param key request key
+   * @param etag value of <code>ETag</code> header, can be null
+   * @param lastModified value of <code>Last-Modified</code> header, can be null
+   * @param data deserialized response
+   */
+  public void put(String key, String etag, String lastModified, Object data) {
+    if (null == etag && null == lastModified) {
+      entries.remove(key);
+      return;
+    }
+    entries.put(key, new Entry(etag, lastModified, data));
+  }
+
+  /**
+   * Records a <code>304 Not Modified</code> answer served from the cache.
+   */
+  public void notModified() {
+    notModified.incrementAndGet();
+  }
+
+  /**
+   * Removes the cached response of given request key.
+   * 
+   * @param key request key
+   */
+  public void remove(String key) {
+    entries.remove(key);
+  }
+
+  /**
+   * Removes the cached responses whose request key starts with given prefix.
+   * 
+   * @param keyPrefix request key prefix
+   */
+  public void invalidateByPrefix(String keyPrefix) {
+    synchronized (entries) {
+      for (Iterator<String> it = entries.keySet().iterator(); it.hasNext();) {
+        if (it.next().startsWith(keyPrefix)) {
+          it.remove();
+        }
+      }
+    }
+  }
+
+  /**
+   * Removes all cached responses, counters are kept.
+   */
+  public void clear() {
+    entries.clear();
+  }
+
+  /**
+   * @return no. of cached responses
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * @return no. of lookups which found a cached response
+   */
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  /**
+   * @return no. of lookups without a cached response
+   */
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  /**
+   * @return no. of <code>304 Not Modified</code> answers served from the cache
+   */
+  public long getNotModifiedCount() {
+    return notModified.get();
+  }
+
+  @Override
+  public String toString() {
+    return "ConditionalCache [size=" + size() + ", hits=" + hits + ", misses=" + misses
+        + ", notModified=" + notModified + "]";
+  }
+
+  /**
+   * Cached response along with its validators
+   */
+  public static class Entry {
+
+    private final String etag;
+
+    private final String lastModified;
+
+    private final Object data;
+
+    Entry(String etag, String lastModified, Object data) {
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.data = data;
+    }
+
+    /**
+     * @return the etag
+     */
+    public String getEtag() {
+      return etag;
+    }
+
+    /**
+     * @return the lastModified
+     */
+    public String getLastModified() {
+      return lastModified;
+    }
+
+    /**
+     * @return the data
+     */
+    public Object getData() {
+      return data;
+    }
+  }
+}
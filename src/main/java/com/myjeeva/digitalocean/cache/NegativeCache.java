@@ -0,0 +1,228 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.cache;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.HttpStatus;
+
+import com.myjeeva.digitalocean.common.ApiAction;
+import com.myjeeva.digitalocean.common.RequestMethod;
+import com.myjeeva.digitalocean.exception.DigitalOceanException;
+
+/**
+ * <p>
+ * Short-lived cache of <code>404 Not Found</code> answers of <code>GET</code> requests, with a
+ * time-to-live per {@link ApiAction}. A repeated lookup of a missing resource is answered locally
+ * with a {@link DigitalOceanException} of status 404 which carries no stack trace.
+ * </p>
+ * 
+ * <p>
+ * Entries are dropped by the creating mutations declared in {@link CacheDependencies}, e.g.
+ * <code>CREATE_TAG</code> drops the cached misses of <code>GET_TAG</code>.
+ * </p>
+ * 
+ * <pre>
+ * DigitalOceanClient apiClient = new DigitalOceanClient(authToken);
+ * apiClient.setNegativeCache(NegativeCache.forLookups(1000));
+ * </pre>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class NegativeCache {
+
+  private final Map<String, Entry> entries;
+
+  private final ConcurrentMap<ApiAction, Long> timeToLive =
+      new ConcurrentHashMap<ApiAction, Long>();
+
+  private final AtomicLong hits = new AtomicLong();
+
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Constructor
+   * 
+   * @param maxEntries maximum no. of cached misses
+   */
+  public NegativeCache(final int maxEntries) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("maxEntries must be greater than zero.");
+    }
+
+    this.entries = Collections.synchronizedMap(new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        return size() > maxEntries;
+      }
+    });
+  }
+
+  /**
+   * Creates a cache remembering for 30 seconds the misses of the speculative lookups: SSH key by id
+   * or fingerprint, image by id or slug and tag by name. Volume lookups by name answer a miss with
+   * an empty list rather than a 404, so they are not covered.
+   * 
+   * @param maxEntries maximum no. of cached misses
+   * @return the cache
+   */
+  public static NegativeCache forLookups(int maxEntries) {
+    NegativeCache cache = new NegativeCache(maxEntries);
+    cache.setTimeToLive(ApiAction.GET_KEY_INFO, 30, TimeUnit.SECONDS);
+    cache.setTimeToLive(ApiAction.GET_IMAGE_INFO, 30, TimeUnit.SECONDS);
+    cache.setTimeToLive(ApiAction.GET_TAG, 30, TimeUnit.SECONDS);
+    return cache;
+  }
+
+  /**
+   * Enables caching of the misses of given <code>GET</code> action.
+   * 
+   * @param apiAction a <code>GET</code> api action
+   * @param duration how long a miss is remembered
+   * @param unit unit of duration
+   */
+  public void setTimeToLive(ApiAction apiAction, long duration, TimeUnit unit) {
+    if (null == apiAction || RequestMethod.GET != apiAction.getMethod()) {
+      throw new IllegalArgumentException("Only GET api actions can be cached.");
+    }
+    if (duration <= 0) {
+      throw new IllegalArgumentException("duration must be greater than zero.");
+    }
+    timeToLive.put(apiAction, unit.toNanos(duration));
+  }
+
+  /**
+   * @param apiAction a api action
+   * @return true if misses of given action are cached
+   */
+  public boolean isCached(ApiAction apiAction) {
+    return timeToLive.containsKey(apiAction);
+  }
+
+  /**
+   * @param key request key
+   * @return a fresh exception replaying the cached miss, or <code>null</code>
+   */
+  public DigitalOceanException get(String key) {
+    Entry entry = entries.get(key);
+    if (null != entry && System.nanoTime() - entry.expiresAt >= 0) {
+      entries.remove(key);
+      entry = null;
+    }
+
+    if (null == entry) {
+      misses.incrementAndGet();
+      return null;
+    }
+    hits.incrementAndGet();
+    return new DigitalOceanException(entry.message, entry.id, HttpStatus.SC_NOT_FOUND, false);
+  }
+
+  /**
+   * Remembers given miss, other status codes are ignored.
+   * 
+   * @param apiAction api action of the request
+   * @param key request key
+   * @param e the 404 exception of the request
+   */
+  public void put(ApiAction apiAction, String key, DigitalOceanException e) {
+    Long ttl = timeToLive.get(apiAction);
+    if (null == ttl || HttpStatus.SC_NOT_FOUND != e.getHttpStatusCode()) {
+      return;
+    }
+    entries.put(key, new Entry(e.getId(), e.getMessage(), System.nanoTime() + ttl));
+  }
+
+  /**
+   * Drops the cached misses whose request key starts with given prefix.
+   * 
+   * @param keyPrefix request key prefix
+   */
+  public void invalidateByPrefix(String keyPrefix) {
+    synchronized (entries) {
+      for (Iterator<String> it = entries.keySet().iterator(); it.hasNext();) {
+        if (it.next().startsWith(keyPrefix)) {
+          it.remove();
+        }
+      }
+    }
+  }
+
+  /**
+   * Drops all cached misses, counters are kept.
+   */
+  public void clear() {
+    entries.clear();
+  }
+
+  /**
+   * @return no. of cached misses, expired ones included until they are touched
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * @return no. of lookups answered from the cache
+   */
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  /**
+   * @return no. of lookups sent to the API
+   */
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  @Override
+  public String toString() {
+    return "NegativeCache [size=" + size() + ", hits=" + hits + ", misses=" + misses + "]";
+  }
+
+  private static class Entry {
+
+    private final String id;
+
+    private final String message;
+
+    private final long expiresAt;
+
+    Entry(String id, String message, long expiresAt) {
+      this.id = id;
+      this.message = message;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -0,0 +1,475 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.myjeeva.digitalocean.common.ApiAction;
+import com.myjeeva.digitalocean.common.RequestMethod;
+import com.myjeeva.digitalocean.exception.DigitalOceanException;
+import com.myjeeva.digitalocean.exception.RequestUnsuccessfulException;
+
+/**
+ * <p>
+ * Bounded read-through cache of <code>GET</code> responses with a time-to-live per
+ * {@link ApiAction}. Only actions with a configured time-to-live are cached, every other request
+ * goes straight to the API.
+ * </p>
+ * 
+ * <p>
+ * Eviction follows W-TinyLFU: new entries enter a small LRU window (1% of the size); when the
+ * window overflows its oldest entry competes with the oldest entry of the main segment, and the one
+ * accessed more often according to a {@link FrequencySketch} stays. The main segment is a
+ * segmented LRU (probation 20%, protected 80%). Concurrent loads of the same key are coalesced
+ * into a single API request.
+ * </p>
+ * 
+ * <pre>
+ * DigitalOceanClient apiClient = new DigitalOceanClient(authToken);
+ * apiClient.setReadThroughCache(ReadThroughCache.forCatalogs(500));
+ * </pre>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class ReadThroughCache {
+
+  private static final int WINDOW = 0;
+
+  private static final int PROBATION = 1;
+
+  private static final int PROTECTED = 2;
+
+  private final int maximumSize;
+
+  private final int windowMaximum;
+
+  private final int protectedMaximum;
+
+  private final Map<String, Node> window = new LinkedHashMap<String, Node>();
+
+  private final Map<String, Node> probation = new LinkedHashMap<String, Node>();
+
+  private final Map<String, Node> protectedSegment = new LinkedHashMap<String, Node>();
+
+  private final FrequencySketch sketch;
+
+  private final ConcurrentMap<ApiAction, Long> timeToLive =
+      new ConcurrentHashMap<ApiAction, Long>();
+
+  private final ConcurrentMap<String, FutureTask<Object>> loading =
+      new ConcurrentHashMap<String, FutureTask<Object>>();
+
+  private final AtomicLong hits = new AtomicLong();
+
+  private final AtomicLong misses = new AtomicLong();
+
+  private final AtomicLong loads = new AtomicLong();
+
+  private final AtomicLong evictions = new AtomicLong();
+
+  // bumped on every invalidation, so loads started before it are not cached
+  private long generation;
+
+  /**
+   * Constructor
+   * 
+   * @param maximumSize maximum no. of cached responses
+   */
+  public ReadThroughCache(int maximumSize) {
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("maximumSize must be greater than zero.");
+    }
+
+    this.maximumSize = maximumSize;
+    this.windowMaximum = Math.max(1, maximumSize / 100);
+    this.protectedMaximum = (maximumSize - windowMaximum) * 80 / 100;
+    this.sketch = new FrequencySketch(maximumSize);
+  }
+
+  /**
+   * Creates a cache for the near-static catalogs: regions, sizes and kernels are kept for an hour,
+   * images and SSH keys for five minutes.
+   * 
+   * @param maximumSize maximum no. of cached responses
+   * @return the cache
+   */
+  public static ReadThroughCache forCatalogs(int maximumSize) {
+    ReadThroughCache cache = new ReadThroughCache(maximumSize);
+    cache.setTimeToLive(ApiAction.AVAILABLE_REGIONS, 1, TimeUnit.HOURS);
+    cache.setTimeToLive(ApiAction.AVAILABLE_SIZES, 1, TimeUnit.HOURS);
+    cache.setTimeToLive(ApiAction.GET_DROPLETS_KERNELS, 1, TimeUnit.HOURS);
+    cache.setTimeToLive(ApiAction.AVAILABLE_IMAGES, 5, TimeUnit.MINUTES);
+    cache.setTimeToLive(ApiAction.AVAILABLE_KEYS, 5, TimeUnit.MINUTES);
+    return cache;
+  }
+
+  /**
+   * Enables caching of given <code>GET</code> action.
+   * 
+   * @param apiAction a <code>GET</code> api action
+   * @param duration how long a response stays fresh
+   * @param unit unit of duration
+   */
+  public void setTimeToLive(ApiAction apiAction, long duration, TimeUnit unit) {
+    if (null == apiAction || RequestMethod.GET != apiAction.getMethod()) {
+      throw new IllegalArgumentException("Only GET api actions can be cached.");
+    }
+    if (duration <= 0) {
+      throw new IllegalArgumentException("duration must be greater than zero.");
+    }
+    timeToLive.put(apiAction, unit.toNanos(duration));
+  }
+
+  /**
+   * Disables caching of given action and drops its cached responses.
+   * 
+   * @param apiAction a api action
+   */
+  public void removeTimeToLive(ApiAction apiAction) {
+    timeToLive.remove(apiAction);
+    invalidateAll(apiAction);
+  }
+
+  /**
+   * @param apiAction a api action
+   * @return true if responses of given action are cached
+   */
+  public boolean isCached(ApiAction apiAction) {
+    return timeToLive.containsKey(apiAction);
+  }
+
+  /**
+   * Returns the cached value of given key or loads it. Concurrent callers of the same missing key
+   * wait for one load instead of issuing their own request.
+   * 
+   * @param apiAction api action of the request
+   * @param key request key, the api action name followed by a space and the request URI
+   * @param loader performs the request on a miss
+   * @return the value
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   */
+  public Object get(final ApiAction apiAction, String key, final CacheLoader<?> loader)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    Long ttl = timeToLive.get(apiAction);
+    if (null == ttl) {
+      return loader.load();
+    }
+
+    Object value = getIfPresent(key);
+    if (null != value) {
+      hits.incrementAndGet();
+      return value;
+    }
+    misses.incrementAndGet();
+
+    final long loadGeneration = currentGeneration();
+    FutureTask<Object> task = new FutureTask<Object>(new Callable<Object>() {
+      @Override
+      public Object call() throws Exception {
+        return loader.load();
+      }
+    });
+    FutureTask<Object> inFlight = loading.putIfAbsent(key, task);
+    if (null == inFlight) {
+      try {
+        loads.incrementAndGet();
+        task.run();
+        value = await(task);
+        if (null != value) {
+          put(key, value, ttl, loadGeneration);
+        }
+        return value;
+      } finally {
+        loading.remove(key, task);
+      }
+    }
+
+    return await(inFlight);
+  }
+
+  /**
+   * @param key request key
+   * @return the fresh cached value or <code>null</code>
+   */
+  public synchronized Object getIfPresent(String key) {
+    Node node = find(key);
+    if (null == node) {
+      return null;
+    }
+    if (node.isExpired(System.nanoTime())) {
+      remove(node);
+      return null;
+    }
+
+    sketch.increment(key);
+    onAccess(node);
+    return node.value;
+  }
+
+  /**
+   * Drops the cached value of given key.
+   * 
+   * @param key request key
+   */
+  public synchronized void invalidate(String key) {
+    generation++;
+    Node node = find(key);
+    if (null != node) {
+      remove(node);
+    }
+  }
+
+  /**
+   * Drops all cached values of given action, i.e. whose key starts with the action name.
+   * 
+   * @param apiAction a api action
+   */
+  public synchronized void invalidateAll(ApiAction apiAction) {
+    invalidateByPrefix(apiAction + " ");
+  }
+
+  /**
+   * Drops the cached values whose request key starts with given prefix.
+   * 
+   * @param keyPrefix request key prefix
+   */
+  public synchronized void invalidateByPrefix(String keyPrefix) {
+    generation++;
+    removeAll(window, keyPrefix);
+    removeAll(probation, keyPrefix);
+    removeAll(protectedSegment, keyPrefix);
+  }
+
+  /**
+   * Drops all cached values, counters are kept.
+   */
+  public synchronized void invalidateAll() {
+    generation++;
+    window.clear();
+    probation.clear();
+    protectedSegment.clear();
+  }
+
+  /**
+   * @return no. of cached values, expired ones included until they are touched
+   */
+  public synchronized int size() {
+    return window.size() + probation.size() + protectedSegment.size();
+  }
+
+  /**
+   * @return no. of lookups served from the cache
+   */
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  /**
+   * @return no. of lookups not served from the cache
+   */
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  /**
+   * @return no. of loads performed, less than misses when loads were coalesced
+   */
+  public long getLoadCount() {
+    return loads.get();
+  }
+
+  /**
+   * @return no. of values evicted for size
+   */
+  public long getEvictionCount() {
+    return evictions.get();
+  }
+
+  @Override
+  public String toString() {
+    return "ReadThroughCache [size=" + size() + ", maximumSize=" + maximumSize + ", hits=" + hits
+        + ", misses=" + misses + ", loads=" + loads + ", evictions=" + evictions + "]";
+  }
+
+  private synchronized long currentGeneration() {
+    return generation;
+  }
+
+  private synchronized void put(String key, Object value, long ttl, long loadGeneration) {
+    if (loadGeneration != generation) {
+      return;
+    }
+
+    sketch.increment(key);
+    long expiresAt = System.nanoTime() + ttl;
+
+    Node node = find(key);
+    if (null != node) {
+      node.value = value;
+      node.expiresAt = expiresAt;
+      onAccess(node);
+      return;
+    }
+
+    node = new Node(key, value, expiresAt);
+    window.put(key, node);
+    if (window.size() > windowMaximum) {
+      Node candidate = removeFirst(window);
+      candidate.segment = PROBATION;
+      probation.put(candidate.key, candidate);
+      evict(candidate);
+    }
+  }
+
+  // Admission: the window candidate only stays if it is more popular than the main victim
+  private void evict(Node candidate) {
+    if (size() <= maximumSize) {
+      return;
+    }
+
+    Node victim = probation.values().iterator().next();
+    if (victim != candidate && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+      probation.remove(victim.key);
+    } else {
+      probation.remove(candidate.key);
+    }
+    evictions.incrementAndGet();
+  }
+
+  private void onAccess(Node node) {
+    if (WINDOW == node.segment) {
+      moveToEnd(window, node);
+    } else if (PROTECTED == node.segment) {
+      moveToEnd(protectedSegment, node);
+    } else {
+      probation.remove(node.key);
+      node.segment = PROTECTED;
+      protectedSegment.put(node.key, node);
+      if (protectedSegment.size() > protectedMaximum) {
+        Node demoted = removeFirst(protectedSegment);
+        demoted.segment = PROBATION;
+        probation.put(demoted.key, demoted);
+      }
+    }
+  }
+
+  private Node find(String key) {
+    Node node = window.get(key);
+    if (null == node) {
+      node = probation.get(key);
+    }
+    if (null == node) {
+      node = protectedSegment.get(key);
+    }
+    return node;
+  }
+
+  private void remove(Node node) {
+    segmentOf(node).remove(node.key);
+  }
+
+  private Map<String, Node> segmentOf(Node node) {
+    if (WINDOW == node.segment) {
+      return window;
+    }
+    return PROBATION == node.segment ? probation : protectedSegment;
+  }
+
+  private static void moveToEnd(Map<String, Node> segment, Node node) {
+    segment.remove(node.key);
+    segment.put(node.key, node);
+  }
+
+  private static Node removeFirst(Map<String, Node> segment) {
+    Iterator<Node> it = segment.values().iterator();
+    Node first = it.next();
+    it.remove();
+    return first;
+  }
+
+  private static void removeAll(Map<String, Node> segment, String keyPrefix) {
+    for (Iterator<String> it = segment.keySet().iterator(); it.hasNext();) {
+      if (it.next().startsWith(keyPrefix)) {
+        it.remove();
+      }
+    }
+  }
+
+  private static Object await(FutureTask<Object> task)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RequestUnsuccessfulException("Interrupted while waiting for a cache load.", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof DigitalOceanException) {
+        throw (DigitalOceanException) cause;
+      }
+      if (cause instanceof RequestUnsuccessfulException) {
+        throw (RequestUnsuccessfulException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new RequestUnsuccessfulException(cause.getMessage(), cause);
+    }
+  }
+
+  private static class Node {
+
+    private final String key;
+
+    private Object value;
+
+    private long expiresAt;
+
+    private int segment = WINDOW;
+
+    Node(String key, Object value, long expiresAt) {
+      this.key = key;
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+
+    boolean isExpired(long now) {
+      return now - expiresAt >= 0;
+    }
+  }
+}
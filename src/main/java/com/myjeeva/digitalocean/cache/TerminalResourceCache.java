@@ -0,0 +1,192 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.cache;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.myjeeva.digitalocean.common.ActionStatus;
+import com.myjeeva.digitalocean.common.ApiAction;
+import com.myjeeva.digitalocean.pojo.Action;
+import com.myjeeva.digitalocean.pojo.Snapshot;
+
+/**
+ * <p>
+ * Cache of resources which can no longer change: an {@link Action} once it is
+ * {@link ActionStatus#COMPLETED} or {@link ActionStatus#ERRORED}, and a {@link Snapshot} once it
+ * exists. Such responses are kept without time-to-live, so pollers and auditors re-reading them
+ * are served locally. Responses in any other state are never cached.
+ * </p>
+ * 
+ * <p>
+ * Deleting a snapshot through the client drops its entry; one deleted outside of this client is
+ * served until evicted. Entries are evicted in least recently used order once
+ * <code>maxEntries</code> is reached.
+ * </p>
+ * 
+ * <pre>
+ * DigitalOceanClient apiClient = new DigitalOceanClient(authToken);
+ * apiClient.setTerminalResourceCache(new TerminalResourceCache(10000));
+ * </pre>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class TerminalResourceCache {
+
+  private static final Set<ApiAction> CACHED_ACTIONS = EnumSet.of(ApiAction.GET_ACTION_INFO,
+      ApiAction.GET_VOLUME_ACTION, ApiAction.GET_FLOATING_IP_ACTION_INFO,
+      ApiAction.GET_SNAPSHOT_INFO);
+
+  private final Map<String, Object> entries;
+
+  private final AtomicLong hits = new AtomicLong();
+
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Constructor
+   * 
+   * @param maxEntries maximum no. of cached resources
+   */
+  public TerminalResourceCache(final int maxEntries) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("maxEntries must be greater than zero.");
+    }
+
+    this.entries =
+        Collections.synchronizedMap(new LinkedHashMap<String, Object>(16, 0.75f, true) {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            return size() > maxEntries;
+          }
+        });
+  }
+
+  /**
+   * @param apiAction api action
+   * @return <code>true</code> if responses of given action are looked up in this cache
+   */
+  public boolean isCached(ApiAction apiAction) {
+    return CACHED_ACTIONS.contains(apiAction);
+  }
+
+  /**
+   * @param data deserialized response
+   * @return <code>true</code> if given resource is in a state which never changes
+   */
+  public static boolean isTerminal(Object data) {
+    if (data instanceof Action) {
+      ActionStatus status = ((Action) data).getStatus();
+      return ActionStatus.COMPLETED == status || ActionStatus.ERRORED == status;
+    }
+    return data instanceof Snapshot;
+  }
+
+  /**
+   * Looks up the cached resource of given request key, counting a hit or a miss.
+   * 
+   * @param key request key
+   * @return the resource or <code>null</code>
+   */
+  public Object get(String key) {
+    Object data = entries.get(key);
+    if (null == data) {
+      misses.incrementAndGet();
+    } else {
+      hits.incrementAndGet();
+    }
+    return data;
+  }
+
+  /**
+   * Caches given resource, provided it is in a terminal state.
+   * 
+   * @param key request key
+   * @param data deserialized response
+   * @return <code>true</code> if the resource was cached
+   */
+  public boolean put(String key, Object data) {
+    if (!isTerminal(data)) {
+      return false;
+    }
+    entries.put(key, data);
+    return true;
+  }
+
+  /**
+   * Removes the cached resources whose request key starts with given prefix.
+   * 
+   * @param keyPrefix request key prefix
+   */
+  public void invalidateByPrefix(String keyPrefix) {
+    synchronized (entries) {
+      for (Iterator<String> it = entries.keySet().iterator(); it.hasNext();) {
+        if (it.next().startsWith(keyPrefix)) {
+          it.remove();
+        }
+      }
+    }
+  }
+
+  /**
+   * Removes all cached resources, counters are kept.
+   */
+  public void clear() {
+    entries.clear();
+  }
+
+  /**
+   * @return no. of cached resources
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * @return no. of lookups which found a cached resource
+   */
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  /**
+   * @return no. of lookups without a cached resource
+   */
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  @Override
+  public String toString() {
+    return "TerminalResourceCache [size=" + size() + ", hits=" + hits + ", misses=" + misses
+        + "]";
+  }
+}
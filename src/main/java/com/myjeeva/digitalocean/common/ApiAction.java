@@ -92,6 +92,15 @@ public enum ApiAction {
   DISABLE_DROPLET_BACKUPS("/droplets/%s/actions", "action", RequestMethod.POST, Action.class),
   ENABLE_DROPLET_PRIVATE_NETWORKING("/droplets/%s/actions", "action", RequestMethod.POST, Action.class),
   SNAPSHOT_DROPLET("/droplets/%s/actions", "action", RequestMethod.POST, Action.class),
+  POWER_CYCLE_DROPLETS_BY_TAG_NAME("/droplets/actions", "actions", RequestMethod.POST, Actions.class),
+  POWER_ON_DROPLETS_BY_TAG_NAME("/droplets/actions", "actions", RequestMethod.POST, Actions.class),
+  POWER_OFF_DROPLETS_BY_TAG_NAME("/droplets/actions", "actions", RequestMethod.POST, Actions.class),
+  SHUTDOWN_DROPLETS_BY_TAG_NAME("/droplets/actions", "actions", RequestMethod.POST, Actions.class),
+  ENABLE_DROPLET_BACKUPS_BY_TAG_NAME("/droplets/actions", "actions", RequestMethod.POST, Actions.class),
+  DISABLE_DROPLET_BACKUPS_BY_TAG_NAME("/droplets/actions", "actions", RequestMethod.POST, Actions.class),
+  SNAPSHOT_DROPLETS_BY_TAG_NAME("/droplets/actions", "actions", RequestMethod.POST, Actions.class),
+  ENABLE_DROPLET_IPV6_BY_TAG_NAME("/droplets/actions", "actions", RequestMethod.POST, Actions.class),
+  ENABLE_DROPLET_PRIVATE_NETWORKING_BY_TAG_NAME("/droplets/actions", "actions", RequestMethod.POST, Actions.class),
 
   // Account
   GET_ACCOUNT_INFO("/account", "account", RequestMethod.GET, Account.class),
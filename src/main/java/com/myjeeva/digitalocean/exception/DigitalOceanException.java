@@ -49,6 +49,13 @@ public class DigitalOceanException extends Exception {
     this.httpStatusCode = statusCode;
   }
 
+  public DigitalOceanException(String msg, String id, int statusCode,
+      boolean writableStackTrace) {
+    super(msg, null, false, writableStackTrace);
+    this.id = id;
+    this.httpStatusCode = statusCode;
+  }
+
   /**
    * @return the id
    */
@@ -25,6 +25,7 @@ import java.util.Map;
 
 import com.myjeeva.digitalocean.common.ApiAction;
 import com.myjeeva.digitalocean.common.RequestMethod;
+import com.myjeeva.digitalocean.serializer.FieldProjection;
 
 /**
  * Represents DigitalOcean API Request details
@@ -47,6 +48,8 @@ public class ApiRequest {
 
   private Integer perPage;
 
+  private FieldProjection projection;
+
   /**
    * Default Constructor
    */
@@ -265,4 +268,18 @@ public class ApiRequest {
   public void setPerPage(Integer perPage) {
     this.perPage = perPage;
   }
+
+  /**
+   * @return the projection
+   */
+  public FieldProjection getProjection() {
+    return projection;
+  }
+
+  /**
+   * @param projection the projection to set
+   */
+  public void setProjection(FieldProjection projection) {
+    this.projection = projection;
+  }
 }
@@ -40,6 +40,8 @@ public class ApiResponse {
 
   private boolean requestSuccess;
 
+  private boolean cached;
+
   /**
    * Default Constructor
    */
@@ -120,4 +122,18 @@ public class ApiResponse {
   public void setRequestSuccess(boolean requestSuccess) {
     this.requestSuccess = requestSuccess;
   }
+
+  /**
+   * @return true if the data was served from a cache, e.g. on a <code>304 Not Modified</code>
+   */
+  public boolean isCached() {
+    return cached;
+  }
+
+  /**
+   * @param cached the cached to set
+   */
+  public void setCached(boolean cached) {
+    this.cached = cached;
+  }
 }
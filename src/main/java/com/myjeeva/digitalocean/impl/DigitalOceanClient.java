@@ -22,6 +22,7 @@
 package com.myjeeva.digitalocean.impl;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -30,6 +31,9 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.Header;
@@ -49,6 +53,7 @@ import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
@@ -57,10 +62,17 @@ import org.slf4j.LoggerFactory;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonSyntaxException;
 import com.myjeeva.digitalocean.DigitalOcean;
+import com.myjeeva.digitalocean.cache.CacheDependencies;
+import com.myjeeva.digitalocean.cache.CacheLoader;
+import com.myjeeva.digitalocean.cache.ConditionalCache;
+import com.myjeeva.digitalocean.cache.NegativeCache;
+import com.myjeeva.digitalocean.cache.ReadThroughCache;
+import com.myjeeva.digitalocean.cache.TerminalResourceCache;
 import com.myjeeva.digitalocean.common.ActionType;
 import com.myjeeva.digitalocean.common.ApiAction;
 import com.myjeeva.digitalocean.common.Constants;
@@ -68,6 +80,7 @@ import com.myjeeva.digitalocean.common.RequestMethod;
 import com.myjeeva.digitalocean.exception.DigitalOceanException;
 import com.myjeeva.digitalocean.exception.RequestUnsuccessfulException;
 import com.myjeeva.digitalocean.http.client.methods.CustomHttpDelete;
+import com.myjeeva.digitalocean.journal.MutationJournal;
 import com.myjeeva.digitalocean.pojo.Account;
 import com.myjeeva.digitalocean.pojo.Action;
 import com.myjeeva.digitalocean.pojo.Actions;
@@ -111,9 +124,13 @@ import com.myjeeva.digitalocean.pojo.Volume;
 import com.myjeeva.digitalocean.pojo.VolumeAction;
 import com.myjeeva.digitalocean.pojo.Volumes;
 import com.myjeeva.digitalocean.serializer.DropletSerializer;
+import com.myjeeva.digitalocean.serializer.FieldProjection;
 import com.myjeeva.digitalocean.serializer.FirewallSerializer;
 import com.myjeeva.digitalocean.serializer.LoadBalancerSerializer;
+import com.myjeeva.digitalocean.serializer.ProjectionTypeAdapterFactory;
+import com.myjeeva.digitalocean.serializer.SnapshotTypeAdapterFactory;
 import com.myjeeva.digitalocean.serializer.VolumeSerializer;
+import com.myjeeva.digitalocean.stream.ElementVisitor;
 
 /**
  * DigitalOcean API client wrapper methods Implementation
@@ -124,6 +141,12 @@ public class DigitalOceanClient implements DigitalOcean, Constants {
 
   private static final Logger log = LoggerFactory.getLogger(DigitalOceanClient.class);
 
+  /**
+   * Size of the connection pool of the default <code>HttpClient</code>, which bounds the no. of
+   * requests in flight at the same time; pass a client with a larger pool beyond that
+   */
+  public static final int DEFAULT_MAX_CONNECTIONS = 20;
+
   /**
    * Http client
    */
@@ -159,11 +182,58 @@ public class DigitalOceanClient implements DigitalOcean, Constants {
    */
   private JsonParser jsonParser;
 
+  /**
+   * Streaming reader for collection responses
+   */
+  private ElementStreamReader elementStreamReader;
+
+  /**
+   * Gson Parser instances per element type and field projection
+   */
+  private final ConcurrentMap<String, Gson> projectedDeserializers =
+      new ConcurrentHashMap<String, Gson>();
+
   /**
    * API Request Header
    */
   private Header[] requestHeaders;
 
+  /**
+   * Conditional request cache for GET requests, disabled when null
+   */
+  private ConditionalCache conditionalCache;
+
+  /**
+   * Read-through cache for GET requests, disabled when null
+   */
+  private ReadThroughCache readThroughCache;
+
+  /**
+   * Cache of 404 answers for GET requests, disabled when null
+   */
+  private NegativeCache negativeCache;
+
+  /**
+   * Cache of completed actions and snapshots, disabled when null
+   */
+  private TerminalResourceCache terminalResourceCache;
+
+  /**
+   * Write-ahead journal of mutating requests, disabled when null
+   */
+  private MutationJournal mutationJournal;
+
+  /**
+   * Cached reads made stale by each mutating api action
+   */
+  private CacheDependencies cacheDependencies = CacheDependencies.defaults();
+
+  /**
+   * Observers of successful responses
+   */
+  private final List<ResponseListener> responseListeners =
+      new CopyOnWriteArrayList<ResponseListener>();
+
   /**
    * DigitalOcean Client Constructor
    * 
@@ -188,7 +258,8 @@ public class DigitalOceanClient implements DigitalOcean, Constants {
    * 
    * @param apiVersion a {@link String} object
    * @param authToken a {@link String} object
-   * @param httpClient a {@link CloseableHttpClient} object
+   * @param httpClient a {@link CloseableHttpClient} object, null for a default client pooling
+   *        {@link #DEFAULT_MAX_CONNECTIONS} connections
    */
   public DigitalOceanClient(String apiVersion, String authToken, CloseableHttpClient httpClient) {
 
@@ -216,6 +287,124 @@ public class DigitalOceanClient implements DigitalOcean, Constants {
     this.httpClient = httpClient;
   }
 
+  /**
+   * @return the conditionalCache
+   */
+  public ConditionalCache getConditionalCache() {
+    return conditionalCache;
+  }
+
+  /**
+   * Enables <code>ETag</code> / <code>Last-Modified</code> based caching of GET responses. Pass
+   * <code>null</code> to disable it.
+   * 
+   * @param conditionalCache the conditionalCache to set
+   */
+  public void setConditionalCache(ConditionalCache conditionalCache) {
+    this.conditionalCache = conditionalCache;
+  }
+
+  /**
+   * @return the readThroughCache
+   */
+  public ReadThroughCache getReadThroughCache() {
+    return readThroughCache;
+  }
+
+  /**
+   * Enables read-through caching of GET requests whose {@link ApiAction} has a time-to-live on
+   * given cache, e.g. {@link ReadThroughCache#forCatalogs(int)}. Pass <code>null</code> to disable
+   * it.
+   * 
+   * @param readThroughCache the readThroughCache to set
+   */
+  public void setReadThroughCache(ReadThroughCache readThroughCache) {
+    this.readThroughCache = readThroughCache;
+  }
+
+  /**
+   * @return the negativeCache
+   */
+  public NegativeCache getNegativeCache() {
+    return negativeCache;
+  }
+
+  /**
+   * Enables caching of 404 answers of GET requests whose {@link ApiAction} has a time-to-live on
+   * given cache, e.g. {@link NegativeCache#forLookups(int)}. Pass <code>null</code> to disable it.
+   * 
+   * @param negativeCache the negativeCache to set
+   */
+  public void setNegativeCache(NegativeCache negativeCache) {
+    this.negativeCache = negativeCache;
+  }
+
+  /**
+   * @return the terminalResourceCache
+   */
+  public TerminalResourceCache getTerminalResourceCache() {
+    return terminalResourceCache;
+  }
+
+  /**
+   * Enables caching of actions in a terminal state and of snapshots, without time-to-live. Pass
+   * <code>null</code> to disable it.
+   * 
+   * @param terminalResourceCache the terminalResourceCache to set
+   */
+  public void setTerminalResourceCache(TerminalResourceCache terminalResourceCache) {
+    this.terminalResourceCache = terminalResourceCache;
+  }
+
+  /**
+   * @return the mutationJournal
+   */
+  public MutationJournal getMutationJournal() {
+    return mutationJournal;
+  }
+
+  /**
+   * Enables journaling of mutating requests: the intent of each is made durable before it is sent
+   * and its outcome is appended once the API answered. Pass <code>null</code> to disable it.
+   * 
+   * @param mutationJournal the mutationJournal to set
+   */
+  public void setMutationJournal(MutationJournal mutationJournal) {
+    this.mutationJournal = mutationJournal;
+  }
+
+  /**
+   * Registers a listener notified of every successful response and streamed element.
+   * 
+   * @param listener the listener to add
+   */
+  public void addResponseListener(ResponseListener listener) {
+    checkNullAndThrowError(listener, "Missing required parameter - listener.");
+    responseListeners.add(listener);
+  }
+
+  /**
+   * @param listener the listener to remove
+   */
+  public void removeResponseListener(ResponseListener listener) {
+    responseListeners.remove(listener);
+  }
+
+  /**
+   * @return the cacheDependencies, consulted after each successful mutation to drop stale cached
+   *         responses
+   */
+  public CacheDependencies getCacheDependencies() {
+    return cacheDependencies;
+  }
+
+  /**
+   * @param cacheDependencies the cacheDependencies to set
+   */
+  public void setCacheDependencies(CacheDependencies cacheDependencies) {
+    this.cacheDependencies = cacheDependencies;
+  }
+
   /**
    * @return the authToken
    */
@@ -257,6 +446,16 @@ public class DigitalOceanClient implements DigitalOcean, Constants {
         .getData();
   }
 
+  @Override
+  public Droplets getAvailableDroplets(Integer pageNo, Integer perPage,
+      FieldProjection projection) throws DigitalOceanException, RequestUnsuccessfulException {
+    validatePageNo(pageNo);
+
+    ApiRequest request = new ApiRequest(ApiAction.AVAILABLE_DROPLETS, pageNo, perPage);
+    request.setProjection(projection);
+    return (Droplets) perform(request).getData();
+  }
+
   @Override
   public Kernels getDropletKernels(Integer dropletId, Integer pageNo, Integer perPage)
       throws DigitalOceanException, RequestUnsuccessfulException {
@@ -573,6 +772,72 @@ public class DigitalOceanClient implements DigitalOcean, Constants {
         new DropletAction(ActionType.ENABLE_PRIVATE_NETWORKING), params)).getData();
   }
 
+  @Override
+  public Actions powerCycleDropletsByTagName(String tagName)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    return performByTagName(ApiAction.POWER_CYCLE_DROPLETS_BY_TAG_NAME,
+        new DropletAction(ActionType.POWER_CYCLE), tagName);
+  }
+
+  @Override
+  public Actions powerOnDropletsByTagName(String tagName)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    return performByTagName(ApiAction.POWER_ON_DROPLETS_BY_TAG_NAME,
+        new DropletAction(ActionType.POWER_ON), tagName);
+  }
+
+  @Override
+  public Actions powerOffDropletsByTagName(String tagName)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    return performByTagName(ApiAction.POWER_OFF_DROPLETS_BY_TAG_NAME,
+        new DropletAction(ActionType.POWER_OFF), tagName);
+  }
+
+  @Override
+  public Actions shutdownDropletsByTagName(String tagName)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    return performByTagName(ApiAction.SHUTDOWN_DROPLETS_BY_TAG_NAME,
+        new DropletAction(ActionType.SHUTDOWN), tagName);
+  }
+
+  @Override
+  public Actions enableDropletBackupsByTagName(String tagName)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    return performByTagName(ApiAction.ENABLE_DROPLET_BACKUPS_BY_TAG_NAME,
+        new DropletAction(ActionType.ENABLE_BACKUPS), tagName);
+  }
+
+  @Override
+  public Actions disableDropletBackupsByTagName(String tagName)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    return performByTagName(ApiAction.DISABLE_DROPLET_BACKUPS_BY_TAG_NAME,
+        new DropletAction(ActionType.DISABLE_BACKUPS), tagName);
+  }
+
+  @Override
+  public Actions takeDropletSnapshotByTagName(String tagName, String snapshotName)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    DropletAction action = new DropletAction(ActionType.SNAPSHOT);
+    if (StringUtils.isNotBlank(snapshotName)) {
+      action.setName(snapshotName);
+    }
+    return performByTagName(ApiAction.SNAPSHOT_DROPLETS_BY_TAG_NAME, action, tagName);
+  }
+
+  @Override
+  public Actions enableDropletIpv6ByTagName(String tagName)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    return performByTagName(ApiAction.ENABLE_DROPLET_IPV6_BY_TAG_NAME,
+        new DropletAction(ActionType.ENABLE_IPV6), tagName);
+  }
+
+  @Override
+  public Actions enableDropletPrivateNetworkingByTagName(String tagName)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    return performByTagName(ApiAction.ENABLE_DROPLET_PRIVATE_NETWORKING_BY_TAG_NAME,
+        new DropletAction(ActionType.ENABLE_PRIVATE_NETWORKING), tagName);
+  }
+
   // ==============================================
   // Account manipulation/access methods
   // ==============================================
@@ -1107,9 +1372,11 @@ public class DigitalOceanClient implements DigitalOcean, Constants {
       throws DigitalOceanException, RequestUnsuccessfulException {
     checkBlankAndThrowError(regionSlug, "Missing required parameter - regionSlug.");
 
-    Map<String, String> data = new HashMap<String, String>();
-    data.put("region", regionSlug);
-    return (Volumes) perform(new ApiRequest(ApiAction.AVAILABLE_VOLUMES, data)).getData();
+    // GET request carries no body, filters are query parameters
+    Map<String, String> queryParams = new HashMap<String, String>();
+    queryParams.put("region", regionSlug);
+    return (Volumes) perform(new ApiRequest(ApiAction.AVAILABLE_VOLUMES, null, queryParams, null))
+        .getData();
   }
 
   @Override
@@ -1139,10 +1406,11 @@ public class DigitalOceanClient implements DigitalOcean, Constants {
     checkBlankAndThrowError(volumeName, "Missing required parameter - volumeName.");
     checkBlankAndThrowError(regionSlug, "Missing required parameter - regionSlug.");
 
-    Map<String, String> data = new HashMap<String, String>();
-    data.put("region", regionSlug);
-    data.put("name", volumeName);
-    return (Volumes) perform(new ApiRequest(ApiAction.GET_VOLUME_INFO_BY_NAME, data)).getData();
+    Map<String, String> queryParams = new HashMap<String, String>();
+    queryParams.put("region", regionSlug);
+    queryParams.put("name", volumeName);
+    return (Volumes) perform(
+        new ApiRequest(ApiAction.GET_VOLUME_INFO_BY_NAME, null, queryParams, null)).getData();
   }
 
   @Override
@@ -1587,16 +1855,268 @@ public class DigitalOceanClient implements DigitalOcean, Constants {
         .getData();
   }
 
+  // ===========================================
+  // Streaming methods
+  // ===========================================
+
+  @Override
+  public int forEachDroplet(ElementVisitor<Droplet> visitor)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    return forEachElement(ApiAction.AVAILABLE_DROPLETS, null, null, visitor);
+  }
+
+  @Override
+  public int forEachDroplet(FieldProjection projection, ElementVisitor<Droplet> visitor)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    return forEachElement(ApiAction.AVAILABLE_DROPLETS, null, null, projection, visitor);
+  }
+
+  @Override
+  public int forEachImage(ElementVisitor<Image> visitor)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    return forEachElement(ApiAction.AVAILABLE_IMAGES, null, null, visitor);
+  }
+
+  @Override
+  public int forEachAction(ElementVisitor<Action> visitor)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    return forEachElement(ApiAction.AVAILABLE_ACTIONS, null, null, visitor);
+  }
+
+  @Override
+  public int forEachVolume(ElementVisitor<Volume> visitor)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    return forEachElement(ApiAction.AVAILABLE_VOLUMES, null, null, visitor);
+  }
+
+  @Override
+  public int forEachSnapshot(ElementVisitor<Snapshot> visitor)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    return forEachElement(ApiAction.AVAILABLE_SNAPSHOTS, null, null, visitor);
+  }
+
+  @Override
+  public <T> int forEachElement(ApiAction apiAction, Object[] pathParams,
+      Map<String, String> queryParams, ElementVisitor<T> visitor)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    return forEachElement(apiAction, pathParams, queryParams, null, visitor);
+  }
+
+  @Override
+  public <T> int forEachElement(ApiAction apiAction, Object[] pathParams,
+      Map<String, String> queryParams, FieldProjection projection, ElementVisitor<T> visitor)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    checkNullAndThrowError(apiAction, "Missing required parameter - apiAction.");
+    checkNullAndThrowError(visitor, "Missing required parameter - visitor.");
+
+    ApiRequest request = new ApiRequest(apiAction, null, pathParams, START_PAGE_NO, queryParams,
+        MAX_PAGE_SIZE);
+    if (RequestMethod.GET != apiAction.getMethod() || !request.isCollectionElement()) {
+      throw new IllegalArgumentException(
+          "ApiAction [" + apiAction + "] is not a collection GET request.");
+    }
+    request.setProjection(projection);
+
+    return stream(request, responseListeners.isEmpty() ? visitor : notifying(request, visitor));
+  }
+
+  private <T> ElementVisitor<T> notifying(final ApiRequest request,
+      final ElementVisitor<T> visitor) {
+    return new ElementVisitor<T>() {
+      @Override
+      public boolean visit(T element) {
+        notifyResponseListeners(request, element);
+        return visitor.visit(element);
+      }
+    };
+  }
+
   //
   // Private methods
   //
 
-  private ApiResponse perform(ApiRequest request)
+  private ApiResponse perform(final ApiRequest request)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+
+    final URI uri = createUri(request);
+
+    TerminalResourceCache terminal = terminalResourceCache;
+    if (RequestMethod.GET == request.getMethod() && null != terminal
+        && terminal.isCached(request.getApiAction())) {
+      String key = createCacheKey(request, uri);
+      Object data = terminal.get(key);
+      if (null == data) {
+        ApiResponse fetched = performRequest(request, uri);
+        data = fetched.getData();
+        terminal.put(key, data);
+        notifyResponseListeners(request, fetched);
+      }
+      return new ApiResponse(request.getApiAction(), data, null != data);
+    }
+
+    ReadThroughCache cache = readThroughCache;
+    if (RequestMethod.GET == request.getMethod() && null != cache
+        && cache.isCached(request.getApiAction())) {
+      final ApiResponse[] fetched = new ApiResponse[1];
+      Object data = cache.get(request.getApiAction(), createCacheKey(request, uri),
+          new CacheLoader<Object>() {
+            @Override
+            public Object load() throws DigitalOceanException, RequestUnsuccessfulException {
+              fetched[0] = performRequest(request, uri);
+              return fetched[0].getData();
+            }
+          });
+      if (null != fetched[0]) {
+        notifyResponseListeners(request, fetched[0]);
+      }
+      return new ApiResponse(request.getApiAction(), data, null != data);
+    }
+
+    ApiResponse apiResponse;
+    if (RequestMethod.GET == request.getMethod()) {
+      apiResponse = performRequest(request, uri);
+    } else {
+      apiResponse = performJournaled(request, uri);
+      invalidateCaches(request);
+    }
+    notifyResponseListeners(request, apiResponse);
+    return apiResponse;
+  }
+
+  private ApiResponse performJournaled(ApiRequest request, URI uri)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    MutationJournal journal = mutationJournal;
+    if (null == journal) {
+      return performRequest(request, uri);
+    }
+
+    long sequence;
+    try {
+      sequence = journal.intent(request.getApiAction(), request.getPathParams(),
+          request.getQueryParams(),
+          null == request.getData() ? null : serialize.toJson(request.getData()));
+    } catch (IOException e) {
+      throw new RequestUnsuccessfulException(
+          "Unable to journal " + request.getApiAction() + ", request not sent", e);
+    }
+
+    ApiResponse apiResponse;
+    try {
+      apiResponse = performRequest(request, uri);
+    } catch (DigitalOceanException e) {
+      // a 5xx answer, e.g. 502 or 504, may come after the call was applied, so it stays pending
+      if (e.getHttpStatusCode() >= HttpStatus.SC_BAD_REQUEST
+          && e.getHttpStatusCode() < HttpStatus.SC_INTERNAL_SERVER_ERROR) {
+        try {
+          journal.failed(sequence, e.getMessage());
+        } catch (IOException ioe) {
+          log.error("Unable to journal outcome of " + request.getApiAction(), ioe);
+        }
+      }
+      throw e;
+    }
+
+    // the request serializer writes request attributes only, e.g. no ids
+    try {
+      journal.succeeded(sequence,
+          null == apiResponse.getData() ? null : deserialize.toJson(apiResponse.getData()));
+    } catch (IOException e) {
+      log.error("Unable to journal outcome of " + request.getApiAction(), e);
+    }
+    return apiResponse;
+  }
+
+  private Actions performByTagName(ApiAction apiAction, DropletAction action, String tagName)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    checkBlankAndThrowError(tagName, "Missing required parameter - tagName.");
+
+    Map<String, String> queryParams = new HashMap<String, String>();
+    queryParams.put("tag_name", tagName);
+    return (Actions) perform(
+        new ApiRequest(apiAction, action, null, null, queryParams, null)).getData();
+  }
+
+  private void notifyResponseListeners(ApiRequest request, ApiResponse apiResponse) {
+    // cached data carries the rate limit and state of an earlier response
+    if (!apiResponse.isCached()) {
+      notifyResponseListeners(request, apiResponse.getData());
+    }
+  }
+
+  private void notifyResponseListeners(ApiRequest request, Object data) {
+    if (null == data) {
+      return;
+    }
+    for (ResponseListener listener : responseListeners) {
+      try {
+        listener.onResponse(request.getApiAction(), request.getPathParams(), data);
+      } catch (RuntimeException e) {
+        log.error("Response listener failed for " + request.getApiAction(), e);
+      }
+    }
+  }
+
+  private void invalidateCaches(ApiRequest request) {
+    ConditionalCache conditional = conditionalCache;
+    ReadThroughCache readThrough = readThroughCache;
+    NegativeCache negative = negativeCache;
+    TerminalResourceCache terminal = terminalResourceCache;
+    if ((null == conditional && null == readThrough && null == negative && null == terminal)
+        || null == cacheDependencies) {
+      return;
+    }
+
+    for (CacheDependencies.Dependency dependency : cacheDependencies
+        .get(request.getApiAction())) {
+      String keyPrefix = createCacheKeyPrefix(dependency.getApiAction(),
+          dependency.isKeyed() ? request.getPathParams() : null);
+      log.debug("Invalidating cached responses of {}", keyPrefix);
+
+      if (null != conditional) {
+        conditional.invalidateByPrefix(keyPrefix);
+      }
+      if (null != readThrough) {
+        readThrough.invalidateByPrefix(keyPrefix);
+      }
+      if (null != negative) {
+        negative.invalidateByPrefix(keyPrefix);
+      }
+      if (null != terminal) {
+        terminal.invalidateByPrefix(keyPrefix);
+      }
+    }
+  }
+
+  private ApiResponse performRequest(ApiRequest request, URI uri)
       throws DigitalOceanException, RequestUnsuccessfulException {
+    NegativeCache negative = negativeCache;
+    if (RequestMethod.GET == request.getMethod() && null != negative
+        && negative.isCached(request.getApiAction())) {
+      String key = createCacheKey(request, uri);
+      DigitalOceanException notFound = negative.get(key);
+      if (null != notFound) {
+        throw notFound;
+      }
+
+      try {
+        return dispatchRequest(request, uri);
+      } catch (DigitalOceanException e) {
+        negative.put(request.getApiAction(), key, e);
+        throw e;
+      }
+    }
 
-    URI uri = createUri(request);
+    return dispatchRequest(request, uri);
+  }
+
+  private ApiResponse dispatchRequest(ApiRequest request, URI uri)
+      throws DigitalOceanException, RequestUnsuccessfulException {
     String response = null;
 
+    if (RequestMethod.GET == request.getMethod() && null != conditionalCache) {
+      return performConditionalGet(request, uri);
+    }
+
     if (RequestMethod.GET == request.getMethod()) {
       response = doGet(uri);
     } else if (RequestMethod.POST == request.getMethod()) {
@@ -1607,11 +2127,17 @@ public class DigitalOceanClient implements DigitalOcean, Constants {
       response = doDelete(uri, createRequestData(request));
     }
 
+    return createApiResponse(request, response);
+  }
+
+  private ApiResponse createApiResponse(ApiRequest request, String response) {
     ApiResponse apiResponse = new ApiResponse(request.getApiAction(), true);
 
     try {
       if (request.isCollectionElement()) {
-        apiResponse.setData(deserialize.fromJson(response, request.getClazz()));
+        Gson gson = null == request.getProjection() ? deserialize
+            : getProjectedDeserializer(request.getApiAction(), request.getProjection());
+        apiResponse.setData(gson.fromJson(response, request.getClazz()));
       } else {
         JsonObject rootObject = jsonParser.parse(response).getAsJsonObject();
         JsonObject elementObject = rootObject.get(request.getElementName()).getAsJsonObject();
@@ -1630,6 +2156,123 @@ public class DigitalOceanClient implements DigitalOcean, Constants {
     return apiResponse;
   }
 
+  private ApiResponse performConditionalGet(ApiRequest request, URI uri)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    String key = createCacheKey(request, uri);
+    ConditionalCache.Entry entry = conditionalCache.get(key);
+
+    HttpGet get = new HttpGet(uri);
+    get.setHeaders(requestHeaders);
+    if (null != entry && null != entry.getEtag()) {
+      get.setHeader(HttpHeaders.IF_NONE_MATCH, entry.getEtag());
+    }
+    if (null != entry && null != entry.getLastModified()) {
+      get.setHeader(HttpHeaders.IF_MODIFIED_SINCE, entry.getLastModified());
+    }
+
+    log.debug("HTTP Request:: {} {}", get.getMethod(), get.getURI());
+    CloseableHttpResponse httpResponse = null;
+
+    try {
+      httpResponse = httpClient.execute(get);
+      log.debug("HTTP Response Object:: {}", httpResponse);
+
+      int statusCode = httpResponse.getStatusLine().getStatusCode();
+      if (null != entry && HttpStatus.SC_NOT_MODIFIED == statusCode) {
+        conditionalCache.notModified();
+        ApiResponse apiResponse = new ApiResponse(request.getApiAction(), entry.getData(), true);
+        apiResponse.setCached(true);
+        return apiResponse;
+      }
+
+      String response = appendRateLimitValues(evaluateResponse(httpResponse), httpResponse);
+      log.debug("Parsed Response:: {}", response);
+
+      ApiResponse apiResponse = createApiResponse(request, response);
+      if (HttpStatus.SC_OK == statusCode && apiResponse.isRequestSuccess()) {
+        conditionalCache.put(key, getSimpleHeaderValue(HttpHeaders.ETAG, httpResponse),
+            getSimpleHeaderValue(HttpHeaders.LAST_MODIFIED, httpResponse),
+            apiResponse.getData());
+      }
+      return apiResponse;
+    } catch (IOException ioe) {
+      throw new RequestUnsuccessfulException(ioe.getMessage(), ioe);
+    } finally {
+      try {
+        if (null != httpResponse) {
+          httpResponse.close();
+        }
+      } catch (IOException e) {
+        log.error("Error occurred while closing a response.", e);
+      }
+    }
+  }
+
+  private String createCacheKey(ApiRequest request, URI uri) {
+    String key = request.getApiAction() + " " + uri;
+    if (null != request.getProjection()) {
+      key += " " + request.getProjection();
+    }
+    return key;
+  }
+
+  // Prefix of the cache keys of given read action, narrowed to the resource of given path params
+  private String createCacheKeyPrefix(ApiAction apiAction, Object[] pathParams) {
+    String path = apiAction.getPath();
+    int placeholders = StringUtils.countMatches(path, "%s");
+    if (null == pathParams || 0 == pathParams.length || 0 == placeholders) {
+      return apiAction + " ";
+    }
+
+    String suffix = "?";
+    if (pathParams.length < placeholders) {
+      path = path.substring(0, StringUtils.ordinalIndexOf(path, "%s", pathParams.length + 1));
+      suffix = StringUtils.EMPTY;
+    }
+
+    URIBuilder ub = new URIBuilder();
+    ub.setScheme(HTTPS_SCHEME);
+    ub.setHost(apiHost);
+    ub.setPath(URL_PATH_SEPARATOR + apiVersion + String.format(path, pathParams));
+    return apiAction + " " + ub.toString() + suffix;
+  }
+
+  private <T> int stream(ApiRequest request, ElementVisitor<T> visitor)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    int visited = 0;
+    ElementStreamReader.Page page;
+    ElementStreamReader reader = null == request.getProjection() ? elementStreamReader
+        : new ElementStreamReader(
+            getProjectedDeserializer(request.getApiAction(), request.getProjection()));
+
+    do {
+      HttpGet get = new HttpGet(createUri(request));
+      get.setHeaders(requestHeaders);
+      page = executeStreamingRequest(get, reader, request.getApiAction(), visitor);
+      visited += page.count;
+      request.setPageNo(request.getPageNo() + 1);
+    } while (page.hasNext());
+
+    log.debug("Streamed {} element(s) of {}", visited, request.getApiAction());
+    return visited;
+  }
+
+  private Gson getProjectedDeserializer(ApiAction apiAction, FieldProjection projection) {
+    Class<?> elementType = ElementStreamReader.elementType(apiAction);
+    String key = elementType.getName() + projection;
+    Gson gson = projectedDeserializers.get(key);
+    if (null == gson) {
+      gson = new GsonBuilder().setDateFormat(DATE_FORMAT)
+          .registerTypeAdapterFactory(new ProjectionTypeAdapterFactory(elementType, projection))
+          .registerTypeAdapterFactory(new SnapshotTypeAdapterFactory()).create();
+      Gson existing = projectedDeserializers.putIfAbsent(key, gson);
+      if (null != existing) {
+        gson = existing;
+      }
+    }
+    return gson;
+  }
+
   private void fetchAddElement(String key, JsonObject rootObject, JsonObject elementObject) {
     JsonElement ele = rootObject.get(key);
     if (null != ele) {
@@ -1713,6 +2356,45 @@ public class DigitalOceanClient implements DigitalOcean, Constants {
     return response;
   }
 
+  private <T> ElementStreamReader.Page executeStreamingRequest(HttpUriRequest request,
+      ElementStreamReader reader, ApiAction apiAction, ElementVisitor<T> visitor)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    log.debug("HTTP Request:: {} {}", request.getMethod(), request.getURI());
+    CloseableHttpResponse httpResponse = null;
+
+    try {
+      httpResponse = httpClient.execute(request);
+      log.debug("HTTP Response Object:: {}", httpResponse);
+
+      evaluateErrorResponse(httpResponse);
+      if (HttpStatus.SC_OK != httpResponse.getStatusLine().getStatusCode()
+          || null == httpResponse.getEntity()) {
+        return new ElementStreamReader.Page();
+      }
+
+      InputStream in = httpResponse.getEntity().getContent();
+      try {
+        return reader.read(in, apiAction, visitor);
+      } finally {
+        in.close();
+      }
+    } catch (JsonSyntaxException jse) {
+      throw new RequestUnsuccessfulException("Error occurred while parsing response", jse);
+    } catch (JsonIOException jie) {
+      throw new RequestUnsuccessfulException(jie.getMessage(), jie);
+    } catch (IOException ioe) {
+      throw new RequestUnsuccessfulException(ioe.getMessage(), ioe);
+    } finally {
+      try {
+        if (null != httpResponse) {
+          httpResponse.close();
+        }
+      } catch (IOException e) {
+        log.error("Error occurred while closing a response.", e);
+      }
+    }
+  }
+
   private String evaluateResponse(HttpResponse httpResponse) throws DigitalOceanException {
     int statusCode = httpResponse.getStatusLine().getStatusCode();
     String response = "";
@@ -1725,6 +2407,14 @@ public class DigitalOceanClient implements DigitalOcean, Constants {
       response = String.format(NO_CONTENT_JSON_STRUCT, statusCode);
     }
 
+    evaluateErrorResponse(httpResponse);
+
+    return response;
+  }
+
+  private void evaluateErrorResponse(HttpResponse httpResponse) throws DigitalOceanException {
+    int statusCode = httpResponse.getStatusLine().getStatusCode();
+
     if (statusCode >= 400 && statusCode < 510) {
       String jsonStr = httpResponseToString(httpResponse);
       log.debug("JSON Response: {}", jsonStr);
@@ -1747,8 +2437,6 @@ public class DigitalOceanClient implements DigitalOcean, Constants {
 
       throw new DigitalOceanException(errorMsg, id, statusCode);
     }
-
-    return response;
   }
 
   private String httpResponseToString(HttpResponse httpResponse) {
@@ -1945,7 +2633,8 @@ public class DigitalOceanClient implements DigitalOcean, Constants {
   }
 
   private void initialize() {
-    this.deserialize = new GsonBuilder().setDateFormat(DATE_FORMAT).create();
+    this.deserialize = new GsonBuilder().setDateFormat(DATE_FORMAT)
+        .registerTypeAdapterFactory(new SnapshotTypeAdapterFactory()).create();
 
     this.serialize = new GsonBuilder().setDateFormat(DATE_FORMAT)
         .registerTypeAdapter(Droplet.class, new DropletSerializer())
@@ -1956,6 +2645,8 @@ public class DigitalOceanClient implements DigitalOcean, Constants {
 
     this.jsonParser = new JsonParser();
 
+    this.elementStreamReader = new ElementStreamReader(deserialize);
+
     Header[] headers = {new BasicHeader(HDR_USER_AGENT, USER_AGENT),
         new BasicHeader(HDR_CONTENT_TYPE, JSON_CONTENT_TYPE),
         new BasicHeader(HDR_AUTHORIZATION, "Bearer " + authToken)};
@@ -1964,7 +2655,11 @@ public class DigitalOceanClient implements DigitalOcean, Constants {
     this.requestHeaders = headers;
 
     if (null == this.httpClient) {
-      this.httpClient = HttpClients.createDefault();
+      PoolingHttpClientConnectionManager connectionManager =
+          new PoolingHttpClientConnectionManager();
+      connectionManager.setMaxTotal(DEFAULT_MAX_CONNECTIONS);
+      connectionManager.setDefaultMaxPerRoute(DEFAULT_MAX_CONNECTIONS);
+      this.httpClient = HttpClients.custom().setConnectionManager(connectionManager).build();
     }
   }
 
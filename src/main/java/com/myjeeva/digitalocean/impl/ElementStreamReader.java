@@ -0,0 +1,152 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.myjeeva.digitalocean.common.ApiAction;
+import com.myjeeva.digitalocean.common.Constants;
+import com.myjeeva.digitalocean.pojo.Links;
+import com.myjeeva.digitalocean.pojo.Meta;
+import com.myjeeva.digitalocean.stream.ElementVisitor;
+
+/**
+ * Reads a collection response token by token and hands over each array element to an
+ * {@link ElementVisitor} as soon as it is deserialized.
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+class ElementStreamReader {
+
+  private static final Map<ApiAction, Class<?>> ELEMENT_TYPES =
+      new ConcurrentHashMap<ApiAction, Class<?>>();
+
+  private final Gson gson;
+
+  ElementStreamReader(Gson gson) {
+    this.gson = gson;
+  }
+
+  /**
+   * Reads one page of the collection from given stream.
+   */
+  <T> Page read(InputStream in, ApiAction apiAction, ElementVisitor<T> visitor)
+      throws IOException {
+    @SuppressWarnings("unchecked")
+    Class<T> elementType = (Class<T>) elementType(apiAction);
+    Page page = new Page();
+
+    JsonReader reader = new JsonReader(new InputStreamReader(in, Constants.UTF_8));
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String name = reader.nextName();
+      if (apiAction.getElementName().equals(name) && JsonToken.BEGIN_ARRAY == reader.peek()) {
+        reader.beginArray();
+        while (reader.hasNext()) {
+          T element = gson.fromJson(reader, elementType);
+          page.count++;
+          if (!visitor.visit(element)) {
+            // the caller closes the entity stream, which reads off the rest of the page and then
+            // releases the connection for reuse
+            page.stopped = true;
+            return page;
+          }
+        }
+        reader.endArray();
+      } else if (Constants.LINKS_ELEMENT_NAME.equals(name)) {
+        page.links = gson.fromJson(reader, Links.class);
+      } else if (Constants.META_ELEMENT_NAME.equals(name)) {
+        page.meta = gson.fromJson(reader, Meta.class);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    return page;
+  }
+
+  /**
+   * Resolves the element class of collection {@link ApiAction}, i.e. <code>Droplet</code> for
+   * {@link ApiAction#AVAILABLE_DROPLETS}, from the list attribute of its POJO.
+   */
+  static Class<?> elementType(ApiAction apiAction) {
+    Class<?> type = ELEMENT_TYPES.get(apiAction);
+    if (null != type) {
+      return type;
+    }
+
+    for (Field field : apiAction.getClazz().getDeclaredFields()) {
+      SerializedName sn = field.getAnnotation(SerializedName.class);
+      String name = (null == sn) ? field.getName() : sn.value();
+      if (!List.class.equals(field.getType()) || !apiAction.getElementName().equals(name)) {
+        continue;
+      }
+
+      Type generic = field.getGenericType();
+      if (generic instanceof ParameterizedType) {
+        Type arg = ((ParameterizedType) generic).getActualTypeArguments()[0];
+        if (arg instanceof Class) {
+          type = (Class<?>) arg;
+          ELEMENT_TYPES.put(apiAction, type);
+          return type;
+        }
+      }
+    }
+
+    throw new IllegalArgumentException(
+        "ApiAction [" + apiAction + "] does not represent a collection of elements.");
+  }
+
+  /**
+   * Outcome of reading a single page
+   */
+  static class Page {
+
+    int count;
+
+    boolean stopped;
+
+    Links links;
+
+    Meta meta;
+
+    boolean hasNext() {
+      return !stopped && count > 0 && null != links && null != links.getPages()
+          && null != links.getPages().getNext();
+    }
+  }
+}
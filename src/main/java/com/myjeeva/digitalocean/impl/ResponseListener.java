@@ -0,0 +1,48 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.impl;
+
+import com.myjeeva.digitalocean.common.ApiAction;
+
+/**
+ * Observes the successful responses of a {@link DigitalOceanClient}, e.g. to fill local indexes
+ * from data the client fetches anyway. Listeners are called on the requesting thread and should
+ * return quickly.
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public interface ResponseListener {
+
+  /**
+   * Called after each successful response received from the API, and for each element visited by
+   * the streaming methods. Responses served from a client cache, including
+   * <code>304 Not Modified</code> revalidations, are not notified.
+   * 
+   * @param apiAction api action of the request
+   * @param pathParams path params of the request, can be null
+   * @param data the deserialized response, e.g. <code>Droplets</code>, <code>Droplet</code> or
+   *        <code>Delete</code>; a single element for streamed collections
+   */
+  void onResponse(ApiAction apiAction, Object[] pathParams, Object data);
+}
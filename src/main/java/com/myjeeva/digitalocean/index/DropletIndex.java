@@ -0,0 +1,328 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.myjeeva.digitalocean.common.ApiAction;
+import com.myjeeva.digitalocean.common.DropletStatus;
+import com.myjeeva.digitalocean.pojo.Droplet;
+import com.myjeeva.digitalocean.sync.InventoryDelta;
+import com.myjeeva.digitalocean.sync.InventoryListener;
+import com.myjeeva.digitalocean.sync.InventorySnapshot;
+
+/**
+ * <p>
+ * In-memory droplet store with hash indexes on tags, region slug, status, size slug and name.
+ * Queries intersect the posting lists of their predicates, smallest first, so answering them costs
+ * a few hash probes instead of a scan over all droplets.
+ * </p>
+ * 
+ * <p>
+ * The index is filled from listing responses with {@link #putAll(Collection)} and kept up to date
+ * incrementally with {@link #put(Droplet)} / {@link #remove(Integer)}, or by registering it as
+ * listener of an {@link com.myjeeva.digitalocean.sync.InventoryMirror}.
+ * </p>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class DropletIndex implements InventoryListener {
+
+  private static final Comparator<Set<Integer>> BY_SIZE = new Comparator<Set<Integer>>() {
+    @Override
+    public int compare(Set<Integer> o1, Set<Integer> o2) {
+      return Integer.compare(o1.size(), o2.size());
+    }
+  };
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Map<Integer, Droplet> droplets = new HashMap<Integer, Droplet>();
+
+  private final Map<String, Set<Integer>> byTag = new HashMap<String, Set<Integer>>();
+
+  private final Map<String, Set<Integer>> byRegion = new HashMap<String, Set<Integer>>();
+
+  private final Map<DropletStatus, Set<Integer>> byStatus =
+      new HashMap<DropletStatus, Set<Integer>>();
+
+  private final Map<String, Set<Integer>> bySize = new HashMap<String, Set<Integer>>();
+
+  private final Map<String, Set<Integer>> byName = new HashMap<String, Set<Integer>>();
+
+  /**
+   * Adds or replaces given droplet.
+   * 
+   * @param droplet a droplet with id
+   */
+  public void put(Droplet droplet) {
+    if (null == droplet || null == droplet.getId()) {
+      throw new IllegalArgumentException("Missing required parameter - droplet id.");
+    }
+
+    lock.writeLock().lock();
+    try {
+      unindex(droplets.put(droplet.getId(), droplet));
+      index(droplet);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Adds or replaces given droplets, e.g. the droplets of a listing response.
+   * 
+   * @param list droplets with id
+   */
+  public void putAll(Collection<Droplet> list) {
+    lock.writeLock().lock();
+    try {
+      for (Droplet droplet : list) {
+        put(droplet);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Replaces the whole content with given droplets, e.g. the droplets of a full listing.
+   * 
+   * @param list droplets with id
+   */
+  public void replaceAll(Collection<Droplet> list) {
+    lock.writeLock().lock();
+    try {
+      clear();
+      putAll(list);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @param dropletId a droplet id
+   * @return the removed droplet or <code>null</code>
+   */
+  public Droplet remove(Integer dropletId) {
+    lock.writeLock().lock();
+    try {
+      Droplet removed = droplets.remove(dropletId);
+      unindex(removed);
+      return removed;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes all droplets.
+   */
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      droplets.clear();
+      byTag.clear();
+      byRegion.clear();
+      byStatus.clear();
+      bySize.clear();
+      byName.clear();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @param dropletId a droplet id
+   * @return the droplet or <code>null</code>
+   */
+  public Droplet get(Integer dropletId) {
+    lock.readLock().lock();
+    try {
+      return droplets.get(dropletId);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return no. of indexed droplets
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return droplets.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @param query the predicates, all of them have to match
+   * @return matching droplets, all droplets for an empty query
+   */
+  public List<Droplet> find(DropletQuery query) {
+    lock.readLock().lock();
+    try {
+      List<Set<Integer>> postings = new ArrayList<Set<Integer>>();
+      for (String tag : query.getTags()) {
+        postings.add(posting(byTag, tag));
+      }
+      if (null != query.getRegion()) {
+        postings.add(posting(byRegion, query.getRegion()));
+      }
+      if (null != query.getStatus()) {
+        postings.add(posting(byStatus, query.getStatus()));
+      }
+      if (null != query.getSize()) {
+        postings.add(posting(bySize, query.getSize()));
+      }
+      if (null != query.getName()) {
+        postings.add(posting(byName, query.getName()));
+      }
+
+      if (postings.isEmpty()) {
+        return new ArrayList<Droplet>(droplets.values());
+      }
+
+      Collections.sort(postings, BY_SIZE);
+      List<Droplet> result = new ArrayList<Droplet>();
+      Set<Integer> smallest = postings.get(0);
+      candidates: for (Integer id : smallest) {
+        for (int i = 1; i < postings.size(); i++) {
+          if (!postings.get(i).contains(id)) {
+            continue candidates;
+          }
+        }
+        result.add(droplets.get(id));
+      }
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @param tag a tag
+   * @return no. of droplets carrying given tag
+   */
+  public int countByTag(String tag) {
+    lock.readLock().lock();
+    try {
+      return posting(byTag, tag).size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Applies the droplet changes of an inventory refresh.
+   */
+  @Override
+  public void onChange(List<InventoryDelta> deltas, InventorySnapshot snapshot) {
+    lock.writeLock().lock();
+    try {
+      for (InventoryDelta delta : deltas) {
+        if (ApiAction.AVAILABLE_DROPLETS != delta.getResourceType()) {
+          continue;
+        }
+        if (InventoryDelta.Kind.REMOVED == delta.getKind()) {
+          remove(((Droplet) delta.getPrevious()).getId());
+        } else {
+          put((Droplet) delta.getCurrent());
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void index(Droplet droplet) {
+    if (null != droplet.getTags()) {
+      for (String tag : droplet.getTags()) {
+        add(byTag, tag, droplet.getId());
+      }
+    }
+    if (null != droplet.getRegion()) {
+      add(byRegion, droplet.getRegion().getSlug(), droplet.getId());
+    }
+    add(byStatus, droplet.getStatus(), droplet.getId());
+    add(bySize, droplet.getSize(), droplet.getId());
+    add(byName, droplet.getName(), droplet.getId());
+  }
+
+  private void unindex(Droplet droplet) {
+    if (null == droplet) {
+      return;
+    }
+    if (null != droplet.getTags()) {
+      for (String tag : droplet.getTags()) {
+        delete(byTag, tag, droplet.getId());
+      }
+    }
+    if (null != droplet.getRegion()) {
+      delete(byRegion, droplet.getRegion().getSlug(), droplet.getId());
+    }
+    delete(byStatus, droplet.getStatus(), droplet.getId());
+    delete(bySize, droplet.getSize(), droplet.getId());
+    delete(byName, droplet.getName(), droplet.getId());
+  }
+
+  private static <K> void add(Map<K, Set<Integer>> index, K key, Integer id) {
+    if (null == key) {
+      return;
+    }
+    Set<Integer> ids = index.get(key);
+    if (null == ids) {
+      ids = new HashSet<Integer>();
+      index.put(key, ids);
+    }
+    ids.add(id);
+  }
+
+  private static <K> void delete(Map<K, Set<Integer>> index, K key, Integer id) {
+    if (null == key) {
+      return;
+    }
+    Set<Integer> ids = index.get(key);
+    if (null != ids && ids.remove(id) && ids.isEmpty()) {
+      index.remove(key);
+    }
+  }
+
+  private static <K> Set<Integer> posting(Map<K, Set<Integer>> index, K key) {
+    Set<Integer> ids = index.get(key);
+    return null == ids ? Collections.<Integer>emptySet() : ids;
+  }
+}
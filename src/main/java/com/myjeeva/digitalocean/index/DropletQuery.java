@@ -0,0 +1,139 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.myjeeva.digitalocean.common.DropletStatus;
+
+/**
+ * Conjunction of equality predicates over indexed droplet attributes, e.g. active droplets in
+ * <code>fra1</code> tagged <code>web</code>:
+ * 
+ * <pre>
+ * List&lt;Droplet&gt; droplets = index.find(new DropletQuery().withStatus(DropletStatus.ACTIVE)
+ *     .withRegion("fra1").withTag("web"));
+ * </pre>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class DropletQuery {
+
+  private final List<String> tags = new ArrayList<String>();
+
+  private String region;
+
+  private DropletStatus status;
+
+  private String size;
+
+  private String name;
+
+  /**
+   * @param tag a tag the droplet must carry, may be given more than once
+   * @return this query
+   */
+  public DropletQuery withTag(String tag) {
+    tags.add(tag);
+    return this;
+  }
+
+  /**
+   * @param regionSlug the region slug, e.g. <code>fra1</code>
+   * @return this query
+   */
+  public DropletQuery withRegion(String regionSlug) {
+    this.region = regionSlug;
+    return this;
+  }
+
+  /**
+   * @param status the droplet status
+   * @return this query
+   */
+  public DropletQuery withStatus(DropletStatus status) {
+    this.status = status;
+    return this;
+  }
+
+  /**
+   * @param sizeSlug the size slug, e.g. <code>s-1vcpu-1gb</code>
+   * @return this query
+   */
+  public DropletQuery withSize(String sizeSlug) {
+    this.size = sizeSlug;
+    return this;
+  }
+
+  /**
+   * @param name the exact droplet name
+   * @return this query
+   */
+  public DropletQuery withName(String name) {
+    this.name = name;
+    return this;
+  }
+
+  /**
+   * @return the tags
+   */
+  public List<String> getTags() {
+    return tags;
+  }
+
+  /**
+   * @return the region
+   */
+  public String getRegion() {
+    return region;
+  }
+
+  /**
+   * @return the status
+   */
+  public DropletStatus getStatus() {
+    return status;
+  }
+
+  /**
+   * @return the size
+   */
+  public String getSize() {
+    return size;
+  }
+
+  /**
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public String toString() {
+    return "DropletQuery [tags=" + tags + ", region=" + region + ", status=" + status + ", size="
+        + size + ", name=" + name + "]";
+  }
+}
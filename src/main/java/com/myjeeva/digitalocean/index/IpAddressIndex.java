@@ -0,0 +1,676 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.myjeeva.digitalocean.common.ApiAction;
+import com.myjeeva.digitalocean.pojo.Droplet;
+import com.myjeeva.digitalocean.pojo.FloatingIP;
+import com.myjeeva.digitalocean.pojo.Network;
+import com.myjeeva.digitalocean.sync.InventoryDelta;
+import com.myjeeva.digitalocean.sync.InventoryListener;
+import com.myjeeva.digitalocean.sync.InventorySnapshot;
+
+/**
+ * <p>
+ * Reverse index from IP address to droplet, built from the droplet <code>networks</code> and the
+ * floating IP assignments. IPv4 addresses are kept as <code>int</code> keys and IPv6 addresses as
+ * two <code>long</code> keys in primitive open-addressing tables, so lookups neither allocate nor
+ * box.
+ * </p>
+ * 
+ * <p>
+ * A lookup returns a packed <code>long</code> entry, decoded with {@link #dropletId(long)} and
+ * {@link #networkType(long)}, or {@link #NOT_FOUND}. Updates are applied in batches to a copy of
+ * the tables which is then published, so lookups never block; prefer the collection methods or
+ * the {@link InventoryListener} callback over single updates.
+ * </p>
+ * 
+ * <pre>
+ * long entry = index.lookup("203.0.113.7");
+ * if (IpAddressIndex.NOT_FOUND != entry) {
+ *   int dropletId = IpAddressIndex.dropletId(entry);
+ *   NetworkType type = IpAddressIndex.networkType(entry);
+ * }
+ * </pre>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class IpAddressIndex implements InventoryListener {
+
+  /**
+   * Lookup result of an unknown address
+   */
+  public static final long NOT_FOUND = -1L;
+
+  private static final Logger log = LoggerFactory.getLogger(IpAddressIndex.class);
+
+  private static final NetworkType[] NETWORK_TYPES = NetworkType.values();
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private volatile Ipv4Table ipv4 = new Ipv4Table(INITIAL_CAPACITY);
+
+  private volatile Ipv6Table ipv6 = new Ipv6Table(INITIAL_CAPACITY);
+
+  // writer side state, guarded by this
+  private Ipv4Table ipv4Work;
+
+  private Ipv6Table ipv6Work;
+
+  private final Map<Integer, List<String>> dropletAddresses = new HashMap<Integer, List<String>>();
+
+  private final Map<String, Integer> floatingAssignments = new HashMap<String, Integer>();
+
+  /**
+   * @param address IPv4 address as packed by {@link #parseIpv4(CharSequence)}
+   * @return the entry or {@link #NOT_FOUND}
+   */
+  public long lookupIpv4(int address) {
+    return ipv4.get(address);
+  }
+
+  /**
+   * @param high upper 64 bits of the IPv6 address
+   * @param low lower 64 bits of the IPv6 address
+   * @return the entry or {@link #NOT_FOUND}
+   */
+  public long lookupIpv6(long high, long low) {
+    return ipv6.get(high, low);
+  }
+
+  /**
+   * @param address IPv4 dotted quad or IPv6 text form
+   * @return the entry or {@link #NOT_FOUND}
+   */
+  public long lookup(CharSequence address) {
+    if (indexOf(address, ':', 0, address.length()) >= 0) {
+      return lookupIpv6(ipv6High(address), ipv6Low(address));
+    }
+    return lookupIpv4(parseIpv4(address));
+  }
+
+  /**
+   * @param entry a lookup result other than {@link #NOT_FOUND}
+   * @return the droplet id
+   */
+  public static int dropletId(long entry) {
+    return (int) entry;
+  }
+
+  /**
+   * @param entry a lookup result other than {@link #NOT_FOUND}
+   * @return how the address is attached to the droplet
+   */
+  public static NetworkType networkType(long entry) {
+    return NETWORK_TYPES[(int) (entry >>> 32)];
+  }
+
+  /**
+   * @return no. of indexed addresses
+   */
+  public int size() {
+    return ipv4.size + ipv6.size;
+  }
+
+  /**
+   * Adds or replaces the addresses of given droplets.
+   * 
+   * @param droplets droplets with id
+   */
+  public synchronized void putDroplets(Collection<Droplet> droplets) {
+    begin();
+    for (Droplet droplet : droplets) {
+      indexDroplet(droplet);
+    }
+    commit();
+  }
+
+  /**
+   * Removes the addresses of given droplets, floating IPs stay until they are reassigned.
+   * 
+   * @param dropletIds droplet ids
+   */
+  public synchronized void removeDroplets(Collection<Integer> dropletIds) {
+    begin();
+    for (Integer dropletId : dropletIds) {
+      unindexDroplet(dropletId);
+    }
+    commit();
+  }
+
+  /**
+   * Adds, replaces or (when unassigned) removes given floating IPs.
+   * 
+   * @param floatingIPs floating IPs
+   */
+  public synchronized void putFloatingIPs(Collection<FloatingIP> floatingIPs) {
+    begin();
+    for (FloatingIP floatingIP : floatingIPs) {
+      indexFloatingIP(floatingIP);
+    }
+    commit();
+  }
+
+  /**
+   * Removes given floating IPs.
+   * 
+   * @param ipAddresses floating IP addresses
+   */
+  public synchronized void removeFloatingIPs(Collection<String> ipAddresses) {
+    begin();
+    for (String ipAddress : ipAddresses) {
+      unindexFloatingIP(ipAddress);
+    }
+    commit();
+  }
+
+  /**
+   * Applies the droplet and floating IP changes of an inventory refresh as one batch.
+   */
+  @Override
+  public synchronized void onChange(List<InventoryDelta> deltas, InventorySnapshot snapshot) {
+    begin();
+    for (InventoryDelta delta : deltas) {
+      boolean removed = InventoryDelta.Kind.REMOVED == delta.getKind();
+      if (ApiAction.AVAILABLE_DROPLETS == delta.getResourceType()) {
+        if (removed) {
+          unindexDroplet(Integer.valueOf(delta.getId()));
+        } else {
+          indexDroplet((Droplet) delta.getCurrent());
+        }
+      } else if (ApiAction.FLOATING_IPS == delta.getResourceType()) {
+        if (removed) {
+          unindexFloatingIP(delta.getId());
+        } else {
+          indexFloatingIP((FloatingIP) delta.getCurrent());
+        }
+      }
+    }
+    commit();
+  }
+
+  /**
+   * Packs an IPv4 dotted quad, e.g. <code>10.0.0.1</code>, without allocating.
+   * 
+   * @param address IPv4 dotted quad
+   * @return the address as int, most significant octet first
+   */
+  public static int parseIpv4(CharSequence address) {
+    int result = 0;
+    int octet = -1;
+    int digits = 0;
+    int dots = 0;
+    for (int i = 0; i < address.length(); i++) {
+      char c = address.charAt(i);
+      if ('.' == c && octet >= 0 && dots < 3) {
+        result = (result << 8) | octet;
+        octet = -1;
+        digits = 0;
+        dots++;
+      } else if (c >= '0' && c <= '9' && digits < 3) {
+        octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+        digits++;
+        if (octet > 255) {
+          throw new IllegalArgumentException("Invalid IPv4 address: " + address);
+        }
+      } else {
+        throw new IllegalArgumentException("Invalid IPv4 address: " + address);
+      }
+    }
+
+    if (3 != dots || octet < 0) {
+      throw new IllegalArgumentException("Invalid IPv4 address: " + address);
+    }
+    return (result << 8) | octet;
+  }
+
+  /**
+   * @param address IPv6 text form, <code>::</code> compression allowed
+   * @return upper 64 bits of the address
+   */
+  public static long ipv6High(CharSequence address) {
+    return parseIpv6(address, true);
+  }
+
+  /**
+   * @param address IPv6 text form, <code>::</code> compression allowed
+   * @return lower 64 bits of the address
+   */
+  public static long ipv6Low(CharSequence address) {
+    return parseIpv6(address, false);
+  }
+
+  // parses one half of the address, twice per lookup instead of allocating a holder
+  private static long parseIpv6(CharSequence address, boolean high) {
+    int end = indexOf(address, '%', 0, address.length()); // zone id
+    if (end < 0) {
+      end = address.length();
+    }
+
+    int compressed = -1;
+    for (int i = 0; i + 1 < end; i++) {
+      if (':' == address.charAt(i) && ':' == address.charAt(i + 1)) {
+        compressed = i;
+        break;
+      }
+    }
+
+    int headEnd = compressed < 0 ? end : compressed;
+    int tailStart = compressed < 0 ? end : compressed + 2;
+    int headGroups = headEnd > 0 ? countOf(address, ':', 0, headEnd) + 1 : 0;
+    int tailGroups = tailStart < end ? countOf(address, ':', tailStart, end) + 1 : 0;
+    if (compressed < 0 ? 8 != headGroups : headGroups + tailGroups > 7) {
+      throw new IllegalArgumentException("Invalid IPv6 address: " + address);
+    }
+
+    return parseGroups(address, 0, headEnd, 0, high)
+        | parseGroups(address, tailStart, end, 8 - tailGroups, high);
+  }
+
+  private static long parseGroups(CharSequence address, int from, int to, int position,
+      boolean high) {
+    long half = 0;
+    int group = 0;
+    int digits = 0;
+    for (int i = from; i <= to; i++) {
+      if (i == to || ':' == address.charAt(i)) {
+        if (from == to) {
+          break;
+        }
+        if (0 == digits) {
+          throw new IllegalArgumentException("Invalid IPv6 address: " + address);
+        }
+        if (high == (position < 4)) {
+          half |= (long) group << (16 * (3 - (position & 3)));
+        }
+        position++;
+        group = 0;
+        digits = 0;
+      } else {
+        int digit = Character.digit(address.charAt(i), 16);
+        if (digit < 0 || ++digits > 4) {
+          throw new IllegalArgumentException("Invalid IPv6 address: " + address);
+        }
+        group = (group << 4) | digit;
+      }
+    }
+    return half;
+  }
+
+  private static int indexOf(CharSequence s, char c, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (c == s.charAt(i)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int countOf(CharSequence s, char c, int from, int to) {
+    int count = 0;
+    for (int i = from; i < to; i++) {
+      if (c == s.charAt(i)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static long pack(int dropletId, NetworkType type) {
+    return ((long) type.ordinal() << 32) | (dropletId & 0xffffffffL);
+  }
+
+  private void begin() {
+    ipv4Work = ipv4.copy();
+    ipv6Work = ipv6.copy();
+  }
+
+  private void commit() {
+    ipv4 = ipv4Work;
+    ipv6 = ipv6Work;
+    ipv4Work = null;
+    ipv6Work = null;
+  }
+
+  private void indexDroplet(Droplet droplet) {
+    if (null == droplet || null == droplet.getId()) {
+      throw new IllegalArgumentException("Missing required parameter - droplet id.");
+    }
+    unindexDroplet(droplet.getId());
+
+    List<String> addresses = new ArrayList<String>();
+    if (null != droplet.getNetworks()) {
+      indexNetworks(droplet.getId(), droplet.getNetworks().getVersion4Networks(), addresses);
+      indexNetworks(droplet.getId(), droplet.getNetworks().getVersion6Networks(), addresses);
+    }
+    dropletAddresses.put(droplet.getId(), addresses);
+  }
+
+  private void indexNetworks(int dropletId, List<Network> networks, List<String> addresses) {
+    if (null == networks) {
+      return;
+    }
+    for (Network network : networks) {
+      String address = network.getIpAddress();
+      if (null == address || !isValid(address)) {
+        log.warn("Skipping invalid address {} of droplet {}", address, dropletId);
+        continue;
+      }
+      long current = get(address);
+      // an assigned floating IP wins over a network entry of the same address
+      if (NOT_FOUND == current || NetworkType.FLOATING != networkType(current)) {
+        put(address, pack(dropletId, NetworkType.fromNetwork(network.getType())));
+        addresses.add(address);
+      }
+    }
+  }
+
+  private void unindexDroplet(Integer dropletId) {
+    List<String> addresses = dropletAddresses.remove(dropletId);
+    if (null == addresses) {
+      return;
+    }
+    for (String address : addresses) {
+      long current = get(address);
+      if (NOT_FOUND != current && dropletId == dropletId(current)
+          && NetworkType.FLOATING != networkType(current)) {
+        remove(address);
+      }
+    }
+  }
+
+  private void indexFloatingIP(FloatingIP floatingIP) {
+    unindexFloatingIP(floatingIP.getIp());
+    Droplet droplet = floatingIP.getDroplet();
+    if (null != droplet && null != droplet.getId() && isValid(floatingIP.getIp())) {
+      put(floatingIP.getIp(), pack(droplet.getId(), NetworkType.FLOATING));
+      floatingAssignments.put(floatingIP.getIp(), droplet.getId());
+    }
+  }
+
+  private void unindexFloatingIP(String ipAddress) {
+    Integer dropletId = floatingAssignments.remove(ipAddress);
+    if (null != dropletId && pack(dropletId, NetworkType.FLOATING) == get(ipAddress)) {
+      remove(ipAddress);
+    }
+  }
+
+  private static boolean isValid(String address) {
+    try {
+      if (address.indexOf(':') >= 0) {
+        parseIpv6(address, true);
+      } else {
+        parseIpv4(address);
+      }
+      return true;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  private long get(String address) {
+    if (address.indexOf(':') >= 0) {
+      return ipv6Work.get(ipv6High(address), ipv6Low(address));
+    }
+    return ipv4Work.get(parseIpv4(address));
+  }
+
+  private void put(String address, long entry) {
+    if (address.indexOf(':') >= 0) {
+      ipv6Work = ipv6Work.put(ipv6High(address), ipv6Low(address), entry);
+    } else {
+      ipv4Work = ipv4Work.put(parseIpv4(address), entry);
+    }
+  }
+
+  private void remove(String address) {
+    if (address.indexOf(':') >= 0) {
+      ipv6Work.remove(ipv6High(address), ipv6Low(address));
+    } else {
+      ipv4Work.remove(parseIpv4(address));
+    }
+  }
+
+  private static int mix(int h) {
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    return h ^ (h >>> 16);
+  }
+
+  private static int mix(long high, long low) {
+    long h = high ^ Long.rotateLeft(low, 32) * 0x9e3779b97f4a7c15L;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    return (int) h;
+  }
+
+  // Both tables use linear probing with backward shift deletion; key zero (0.0.0.0 / ::) marks a
+  // free slot. Load factor stays at or below one half, so probes always reach a free slot.
+
+  private static final class Ipv4Table {
+
+    private final int[] keys;
+
+    private final long[] values;
+
+    private final int mask;
+
+    private int size;
+
+    Ipv4Table(int capacity) {
+      this.keys = new int[capacity];
+      this.values = new long[capacity];
+      this.mask = capacity - 1;
+    }
+
+    private Ipv4Table(Ipv4Table other) {
+      this.keys = other.keys.clone();
+      this.values = other.values.clone();
+      this.mask = other.mask;
+      this.size = other.size;
+    }
+
+    Ipv4Table copy() {
+      return new Ipv4Table(this);
+    }
+
+    long get(int key) {
+      if (0 == key) {
+        return NOT_FOUND;
+      }
+      for (int i = mix(key) & mask;; i = (i + 1) & mask) {
+        int k = keys[i];
+        if (key == k) {
+          return values[i];
+        }
+        if (0 == k) {
+          return NOT_FOUND;
+        }
+      }
+    }
+
+    Ipv4Table put(int key, long value) {
+      if (0 == key) {
+        return this;
+      }
+      Ipv4Table table = (size + 1) * 2 > keys.length ? grow() : this;
+      int i = mix(key) & table.mask;
+      while (0 != table.keys[i] && key != table.keys[i]) {
+        i = (i + 1) & table.mask;
+      }
+      if (0 == table.keys[i]) {
+        table.keys[i] = key;
+        table.size++;
+      }
+      table.values[i] = value;
+      return table;
+    }
+
+    void remove(int key) {
+      int i = mix(key) & mask;
+      while (key != keys[i]) {
+        if (0 == keys[i]) {
+          return;
+        }
+        i = (i + 1) & mask;
+      }
+
+      for (int j = (i + 1) & mask; 0 != keys[j]; j = (j + 1) & mask) {
+        int home = mix(keys[j]) & mask;
+        if (((j - home) & mask) >= ((j - i) & mask)) {
+          keys[i] = keys[j];
+          values[i] = values[j];
+          i = j;
+        }
+      }
+      keys[i] = 0;
+      values[i] = 0;
+      size--;
+    }
+
+    private Ipv4Table grow() {
+      Ipv4Table table = new Ipv4Table(keys.length * 2);
+      for (int i = 0; i < keys.length; i++) {
+        if (0 != keys[i]) {
+          table.put(keys[i], values[i]);
+        }
+      }
+      return table;
+    }
+  }
+
+  private static final class Ipv6Table {
+
+    private final long[] highKeys;
+
+    private final long[] lowKeys;
+
+    private final long[] values;
+
+    private final int mask;
+
+    private int size;
+
+    Ipv6Table(int capacity) {
+      this.highKeys = new long[capacity];
+      this.lowKeys = new long[capacity];
+      this.values = new long[capacity];
+      this.mask = capacity - 1;
+    }
+
+    private Ipv6Table(Ipv6Table other) {
+      this.highKeys = other.highKeys.clone();
+      this.lowKeys = other.lowKeys.clone();
+      this.values = other.values.clone();
+      this.mask = other.mask;
+      this.size = other.size;
+    }
+
+    Ipv6Table copy() {
+      return new Ipv6Table(this);
+    }
+
+    private boolean isFree(int i) {
+      return 0 == highKeys[i] && 0 == lowKeys[i];
+    }
+
+    long get(long high, long low) {
+      if (0 == high && 0 == low) {
+        return NOT_FOUND;
+      }
+      for (int i = mix(high, low) & mask;; i = (i + 1) & mask) {
+        if (high == highKeys[i] && low == lowKeys[i]) {
+          return values[i];
+        }
+        if (isFree(i)) {
+          return NOT_FOUND;
+        }
+      }
+    }
+
+    Ipv6Table put(long high, long low, long value) {
+      if (0 == high && 0 == low) {
+        return this;
+      }
+      Ipv6Table table = (size + 1) * 2 > values.length ? grow() : this;
+      int i = mix(high, low) & table.mask;
+      while (!table.isFree(i) && (high != table.highKeys[i] || low != table.lowKeys[i])) {
+        i = (i + 1) & table.mask;
+      }
+      if (table.isFree(i)) {
+        table.highKeys[i] = high;
+        table.lowKeys[i] = low;
+        table.size++;
+      }
+      table.values[i] = value;
+      return table;
+    }
+
+    void remove(long high, long low) {
+      int i = mix(high, low) & mask;
+      while (high != highKeys[i] || low != lowKeys[i]) {
+        if (isFree(i)) {
+          return;
+        }
+        i = (i + 1) & mask;
+      }
+
+      for (int j = (i + 1) & mask; !isFree(j); j = (j + 1) & mask) {
+        int home = mix(highKeys[j], lowKeys[j]) & mask;
+        if (((j - home) & mask) >= ((j - i) & mask)) {
+          highKeys[i] = highKeys[j];
+          lowKeys[i] = lowKeys[j];
+          values[i] = values[j];
+          i = j;
+        }
+      }
+      highKeys[i] = 0;
+      lowKeys[i] = 0;
+      values[i] = 0;
+      size--;
+    }
+
+    private Ipv6Table grow() {
+      Ipv6Table table = new Ipv6Table(values.length * 2);
+      for (int i = 0; i < values.length; i++) {
+        if (!isFree(i)) {
+          table.put(highKeys[i], lowKeys[i], values[i]);
+        }
+      }
+      return table;
+    }
+  }
+}
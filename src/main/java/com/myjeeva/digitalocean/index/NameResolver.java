@@ -0,0 +1,521 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.index;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.myjeeva.digitalocean.DigitalOcean;
+import com.myjeeva.digitalocean.common.ApiAction;
+import com.myjeeva.digitalocean.exception.DigitalOceanException;
+import com.myjeeva.digitalocean.exception.RequestUnsuccessfulException;
+import com.myjeeva.digitalocean.impl.ResponseListener;
+import com.myjeeva.digitalocean.pojo.Domain;
+import com.myjeeva.digitalocean.pojo.Domains;
+import com.myjeeva.digitalocean.pojo.Droplet;
+import com.myjeeva.digitalocean.pojo.Droplets;
+import com.myjeeva.digitalocean.pojo.Tag;
+import com.myjeeva.digitalocean.pojo.Tags;
+import com.myjeeva.digitalocean.pojo.Volume;
+import com.myjeeva.digitalocean.pojo.Volumes;
+import com.myjeeva.digitalocean.serializer.FieldProjection;
+import com.myjeeva.digitalocean.stream.ElementVisitor;
+
+/**
+ * <p>
+ * Resolves droplet and volume names to ids and back, and tells whether a domain or tag exists,
+ * without a listing scan per lookup. Domains and tags are addressed by name, so for them the name
+ * is the id.
+ * </p>
+ * 
+ * <p>
+ * The name/id maps are filled opportunistically: register the resolver with
+ * {@link com.myjeeva.digitalocean.impl.DigitalOceanClient#addResponseListener(ResponseListener)}
+ * and every listing, get and create response the client sees is recorded, while deletes evict
+ * their entries. A name which is not known yet falls back to one paginated scan of its resource
+ * type, which also replaces all entries of that type. A name the scan did not find is remembered
+ * as missing for {@link #MISS_TTL_MILLIS}, so repeated lookups of an absent name do not rescan;
+ * any recorded response of that type, or {@link #clear()}, ends that early.
+ * </p>
+ * 
+ * <p>
+ * Droplet and volume names are not unique; resolving a name held by several resources throws
+ * {@link IllegalArgumentException} listing the candidates.
+ * </p>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class NameResolver implements ResponseListener {
+
+  private static final Logger log = LoggerFactory.getLogger(NameResolver.class);
+
+  /**
+   * How long a name not found by a scan resolves as missing without another scan.
+   */
+  public static final long MISS_TTL_MILLIS = 10000L;
+
+  private static final FieldProjection DROPLET_NAMES = FieldProjection.of("id", "name");
+
+  private static final FieldProjection VOLUME_NAMES =
+      FieldProjection.of("id", "name", "region.slug");
+
+  private static final FieldProjection DOMAIN_NAMES = FieldProjection.of("name");
+
+  private static final FieldProjection TAG_NAMES = FieldProjection.of("name");
+
+  private final DigitalOcean apiClient;
+
+  private final NameTable<Integer> droplets = new NameTable<Integer>();
+
+  private final NameTable<String> volumes = new NameTable<String>();
+
+  private final Map<String, String> volumeRegions = new ConcurrentHashMap<String, String>();
+
+  private final NameTable<String> domains = new NameTable<String>();
+
+  private final NameTable<String> tags = new NameTable<String>();
+
+  /**
+   * @param apiClient client used for the fallback scans
+   */
+  public NameResolver(DigitalOcean apiClient) {
+    if (null == apiClient) {
+      throw new IllegalArgumentException("Missing required parameter - apiClient.");
+    }
+    this.apiClient = apiClient;
+  }
+
+  /**
+   * @param name droplet name
+   * @return the droplet id, or <code>null</code> when no droplet has given name
+   * @throws IllegalArgumentException when several droplets have given name
+   */
+  public Integer getDropletId(String name)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    checkName(name);
+    if (!droplets.contains(name) && !droplets.missed(name)) {
+      scanDroplets(name);
+    }
+    return single("droplet", name, droplets.ids(name));
+  }
+
+  /**
+   * @param dropletId droplet id
+   * @return the droplet name, fetched with one get request when not known yet
+   */
+  public String getDropletName(Integer dropletId)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    if (null == dropletId) {
+      throw new IllegalArgumentException("Missing required parameter - dropletId.");
+    }
+    String name = droplets.name(dropletId);
+    if (null == name) {
+      Droplet droplet = apiClient.getDropletInfo(dropletId);
+      put(droplet);
+      name = droplet.getName();
+    }
+    return name;
+  }
+
+  /**
+   * @param name volume name
+   * @return the volume id, or <code>null</code> when no volume has given name
+   * @throws IllegalArgumentException when volumes in several regions have given name
+   */
+  public String getVolumeId(String name)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    return getVolumeId(name, null);
+  }
+
+  /**
+   * @param name volume name
+   * @param regionSlug region of the volume, <code>null</code> for any region
+   * @return the volume id, or <code>null</code> when no volume has given name in given region
+   */
+  public String getVolumeId(String name, String regionSlug)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    checkName(name);
+    // a known name may still lack the wanted region, which then rescans as well
+    Set<String> ids = volumeIds(name, regionSlug);
+    if (ids.isEmpty() && !volumes.missed(volumeKey(name, regionSlug))) {
+      scanVolumes(name, regionSlug);
+      ids = volumeIds(name, regionSlug);
+    }
+    return single("volume", name, ids);
+  }
+
+  /**
+   * @param volumeId volume id
+   * @return the volume name, fetched with one get request when not known yet
+   */
+  public String getVolumeName(String volumeId)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    if (null == volumeId) {
+      throw new IllegalArgumentException("Missing required parameter - volumeId.");
+    }
+    String name = volumes.name(volumeId);
+    if (null == name) {
+      Volume volume = apiClient.getVolumeInfo(volumeId);
+      put(volume);
+      name = volume.getName();
+    }
+    return name;
+  }
+
+  /**
+   * @param name domain name
+   * @return <code>true</code> if the domain exists
+   */
+  public boolean hasDomain(String name)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    checkName(name);
+    if (!domains.contains(name) && !domains.missed(name)) {
+      scanDomains(name);
+    }
+    return domains.contains(name);
+  }
+
+  /**
+   * @param name tag name
+   * @return <code>true</code> if the tag exists
+   */
+  public boolean hasTag(String name) throws DigitalOceanException, RequestUnsuccessfulException {
+    checkName(name);
+    if (!tags.contains(name) && !tags.missed(name)) {
+      scanTags(name);
+    }
+    return tags.contains(name);
+  }
+
+  /**
+   * Forgets all names, e.g. after resources were changed outside of this client.
+   */
+  public void clear() {
+    droplets.clear();
+    volumes.clear();
+    volumeRegions.clear();
+    domains.clear();
+    tags.clear();
+  }
+
+  @Override
+  public void onResponse(ApiAction apiAction, Object[] pathParams, Object data) {
+    if (data instanceof Droplet) {
+      put((Droplet) data);
+    } else if (data instanceof Droplets && null != ((Droplets) data).getDroplets()) {
+      for (Droplet droplet : ((Droplets) data).getDroplets()) {
+        put(droplet);
+      }
+    } else if (data instanceof Volume) {
+      put((Volume) data);
+    } else if (data instanceof Volumes && null != ((Volumes) data).getVolumes()) {
+      for (Volume volume : ((Volumes) data).getVolumes()) {
+        put(volume);
+      }
+    } else if (data instanceof Domain) {
+      put((Domain) data);
+    } else if (data instanceof Domains && null != ((Domains) data).getDomains()) {
+      for (Domain domain : ((Domains) data).getDomains()) {
+        put(domain);
+      }
+    } else if (data instanceof Tag) {
+      put((Tag) data);
+    } else if (data instanceof Tags && null != ((Tags) data).getTags()) {
+      for (Tag tag : ((Tags) data).getTags()) {
+        put(tag);
+      }
+    }
+
+    evict(apiAction, pathParams);
+  }
+
+  private void evict(ApiAction apiAction, Object[] pathParams) {
+    Object key = (null == pathParams || 0 == pathParams.length) ? null : pathParams[0];
+    switch (apiAction) {
+      case DELETE_DROPLET:
+      case RENAME_DROPLET:
+        droplets.remove(Integer.valueOf(String.valueOf(key)));
+        break;
+      case DELETE_DROPLET_BY_TAG_NAME:
+        droplets.clear();
+        break;
+      case DELETE_VOLUME:
+        volumes.remove(String.valueOf(key));
+        volumeRegions.remove(String.valueOf(key));
+        break;
+      case DELETE_VOLUME_BY_NAME:
+        volumes.clear();
+        volumeRegions.clear();
+        break;
+      case DELETE_DOMAIN:
+        domains.remove(String.valueOf(key));
+        break;
+      case DELETE_TAG:
+        tags.remove(String.valueOf(key));
+        break;
+      default:
+        break;
+    }
+  }
+
+  private void put(Droplet droplet) {
+    if (null != droplet && null != droplet.getId() && null != droplet.getName()) {
+      droplets.put(droplet.getId(), droplet.getName());
+    }
+  }
+
+  private void put(Volume volume) {
+    if (null != volume && null != volume.getId() && null != volume.getName()) {
+      volumes.put(volume.getId(), volume.getName());
+      if (null != volume.getRegion() && null != volume.getRegion().getSlug()) {
+        volumeRegions.put(volume.getId(), volume.getRegion().getSlug());
+      }
+    }
+  }
+
+  private void put(Domain domain) {
+    if (null != domain && null != domain.getName()) {
+      domains.put(domain.getName(), domain.getName());
+    }
+  }
+
+  private void put(Tag tag) {
+    if (null != tag && null != tag.getName()) {
+      tags.put(tag.getName(), tag.getName());
+    }
+  }
+
+  private void scanDroplets(String name)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    synchronized (droplets.scanLock) {
+      if (droplets.contains(name)) {
+        return;
+      }
+      final Map<Integer, String> names = new HashMap<Integer, String>();
+      apiClient.forEachDroplet(DROPLET_NAMES, new ElementVisitor<Droplet>() {
+        @Override
+        public boolean visit(Droplet droplet) {
+          names.put(droplet.getId(), droplet.getName());
+          return true;
+        }
+      });
+      droplets.replaceAll(names);
+      droplets.missing(name);
+      log.debug("Resolved {} droplet name(s) by scan for '{}'", names.size(), name);
+    }
+  }
+
+  private Set<String> volumeIds(String name, String regionSlug) {
+    Set<String> ids = volumes.ids(name);
+    if (null != regionSlug) {
+      Set<String> inRegion = new HashSet<String>();
+      for (String id : ids) {
+        if (regionSlug.equals(volumeRegions.get(id))) {
+          inRegion.add(id);
+        }
+      }
+      ids = inRegion;
+    }
+    return ids;
+  }
+
+  private static String volumeKey(String name, String regionSlug) {
+    return null == regionSlug ? name : name + '@' + regionSlug;
+  }
+
+  private void scanVolumes(String name, String regionSlug)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    synchronized (volumes.scanLock) {
+      if (!volumeIds(name, regionSlug).isEmpty()) {
+        return;
+      }
+      final Map<String, String> names = new HashMap<String, String>();
+      final Map<String, String> regions = new HashMap<String, String>();
+      apiClient.forEachElement(ApiAction.AVAILABLE_VOLUMES, null, null, VOLUME_NAMES,
+          new ElementVisitor<Volume>() {
+            @Override
+            public boolean visit(Volume volume) {
+              names.put(volume.getId(), volume.getName());
+              if (null != volume.getRegion()) {
+                regions.put(volume.getId(), volume.getRegion().getSlug());
+              }
+              return true;
+            }
+          });
+      volumes.replaceAll(names);
+      volumeRegions.clear();
+      volumeRegions.putAll(regions);
+      if (volumeIds(name, regionSlug).isEmpty()) {
+        volumes.missing(volumeKey(name, regionSlug));
+      }
+      log.debug("Resolved {} volume name(s) by scan for '{}'", names.size(), name);
+    }
+  }
+
+  private void scanDomains(String name)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    synchronized (domains.scanLock) {
+      if (domains.contains(name)) {
+        return;
+      }
+      final Map<String, String> names = new HashMap<String, String>();
+      apiClient.forEachElement(ApiAction.AVAILABLE_DOMAINS, null, null, DOMAIN_NAMES,
+          new ElementVisitor<Domain>() {
+            @Override
+            public boolean visit(Domain domain) {
+              names.put(domain.getName(), domain.getName());
+              return true;
+            }
+          });
+      domains.replaceAll(names);
+      domains.missing(name);
+      log.debug("Resolved {} domain name(s) by scan for '{}'", names.size(), name);
+    }
+  }
+
+  private void scanTags(String name) throws DigitalOceanException, RequestUnsuccessfulException {
+    synchronized (tags.scanLock) {
+      if (tags.contains(name)) {
+        return;
+      }
+      final Map<String, String> names = new HashMap<String, String>();
+      apiClient.forEachElement(ApiAction.AVAILABLE_TAGS, null, null, TAG_NAMES,
+          new ElementVisitor<Tag>() {
+            @Override
+            public boolean visit(Tag tag) {
+              names.put(tag.getName(), tag.getName());
+              return true;
+            }
+          });
+      tags.replaceAll(names);
+      tags.missing(name);
+      log.debug("Resolved {} tag name(s) by scan for '{}'", names.size(), name);
+    }
+  }
+
+  private static void checkName(String name) {
+    if (null == name || name.isEmpty()) {
+      throw new IllegalArgumentException("Missing required parameter - name.");
+    }
+  }
+
+  private static <I> I single(String resourceType, String name, Set<I> ids) {
+    if (ids.isEmpty()) {
+      return null;
+    }
+    if (ids.size() > 1) {
+      throw new IllegalArgumentException(
+          "Ambiguous " + resourceType + " name '" + name + "', matches ids " + ids);
+    }
+    return ids.iterator().next();
+  }
+
+  /**
+   * Bidirectional name/id map of one resource type.
+   */
+  private static final class NameTable<I> {
+
+    final Object scanLock = new Object();
+
+    private final Map<I, String> names = new HashMap<I, String>();
+
+    private final Map<String, Set<I>> ids = new HashMap<String, Set<I>>();
+
+    private final Map<String, Long> misses = new HashMap<String, Long>();
+
+    synchronized void put(I id, String name) {
+      remove(id);
+      misses.clear();
+      names.put(id, name);
+      Set<I> set = ids.get(name);
+      if (null == set) {
+        set = new HashSet<I>(2);
+        ids.put(name, set);
+      }
+      set.add(id);
+    }
+
+    synchronized void remove(I id) {
+      String name = names.remove(id);
+      if (null != name) {
+        Set<I> set = ids.get(name);
+        set.remove(id);
+        if (set.isEmpty()) {
+          ids.remove(name);
+        }
+      }
+    }
+
+    synchronized void replaceAll(Map<I, String> entries) {
+      clear();
+      for (Map.Entry<I, String> entry : entries.entrySet()) {
+        put(entry.getKey(), entry.getValue());
+      }
+    }
+
+    synchronized void clear() {
+      names.clear();
+      ids.clear();
+      misses.clear();
+    }
+
+    /**
+     * Remembers given name, or volume name@region, as not found unless the name is known.
+     */
+    synchronized void missing(String key) {
+      if (!ids.containsKey(key)) {
+        misses.put(key, System.currentTimeMillis() + MISS_TTL_MILLIS);
+      }
+    }
+
+    synchronized boolean missed(String key) {
+      Long until = misses.get(key);
+      if (null != until && until <= System.currentTimeMillis()) {
+        misses.remove(key);
+        return false;
+      }
+      return null != until;
+    }
+
+    synchronized boolean contains(String name) {
+      return ids.containsKey(name);
+    }
+
+    synchronized Set<I> ids(String name) {
+      Set<I> set = ids.get(name);
+      return null == set ? Collections.<I>emptySet() : new HashSet<I>(set);
+    }
+
+    synchronized String name(I id) {
+      return names.get(id);
+    }
+  }
+}
@@ -0,0 +1,156 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.journal;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonParser;
+import com.myjeeva.digitalocean.common.ApiAction;
+
+/**
+ * One mutating call recorded in a {@link MutationJournal}: its intent, i.e. api action, path and
+ * query params and request body, plus its latest outcome.
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class JournalEntry {
+
+  private final long sequence;
+
+  private final ApiAction apiAction;
+
+  private final List<String> pathParams;
+
+  private final Map<String, String> queryParams;
+
+  private final String body;
+
+  private final Date createdAt;
+
+  private EntryStatus status = EntryStatus.PENDING;
+
+  private String result;
+
+  private String error;
+
+  JournalEntry(long sequence, ApiAction apiAction, List<String> pathParams,
+      Map<String, String> queryParams, String body, Date createdAt) {
+    this.sequence = sequence;
+    this.apiAction = apiAction;
+    this.pathParams = null == pathParams ? Collections.<String>emptyList()
+        : Collections.unmodifiableList(pathParams);
+    this.queryParams = null == queryParams ? Collections.<String, String>emptyMap()
+        : Collections.unmodifiableMap(queryParams);
+    this.body = body;
+    this.createdAt = createdAt;
+  }
+
+  void setOutcome(EntryStatus status, String result, String error) {
+    this.status = status;
+    this.result = result;
+    this.error = error;
+  }
+
+  @Override
+  public String toString() {
+    return ReflectionToStringBuilder.toString(this);
+  }
+
+  /**
+   * @return the sequence no. of the entry in its journal
+   */
+  public long getSequence() {
+    return sequence;
+  }
+
+  /**
+   * @return the apiAction
+   */
+  public ApiAction getApiAction() {
+    return apiAction;
+  }
+
+  /**
+   * @return the path params, as strings
+   */
+  public List<String> getPathParams() {
+    return pathParams;
+  }
+
+  /**
+   * @return the query params
+   */
+  public Map<String, String> getQueryParams() {
+    return queryParams;
+  }
+
+  /**
+   * @return the request body as sent, JSON, can be null
+   */
+  public String getBody() {
+    return body;
+  }
+
+  /**
+   * @return the request body parsed, {@link JsonNull} if there was none
+   */
+  public JsonElement getBodyAsJson() {
+    return null == body ? JsonNull.INSTANCE : new JsonParser().parse(body);
+  }
+
+  /**
+   * @return when the intent was written
+   */
+  public Date getCreatedAt() {
+    return createdAt;
+  }
+
+  /**
+   * @return the status
+   */
+  public EntryStatus getStatus() {
+    return status;
+  }
+
+  /**
+   * @return the response data as JSON for a succeeded call, can be null
+   */
+  public String getResult() {
+    return result;
+  }
+
+  /**
+   * @return the error message for a failed call, can be null
+   */
+  public String getError() {
+    return error;
+  }
+}
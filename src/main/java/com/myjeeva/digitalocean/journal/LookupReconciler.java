@@ -0,0 +1,255 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.journal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpStatus;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.myjeeva.digitalocean.DigitalOcean;
+import com.myjeeva.digitalocean.exception.DigitalOceanException;
+import com.myjeeva.digitalocean.exception.RequestUnsuccessfulException;
+import com.myjeeva.digitalocean.index.NameResolver;
+import com.myjeeva.digitalocean.pojo.Droplet;
+import com.myjeeva.digitalocean.pojo.FloatingIP;
+import com.myjeeva.digitalocean.pojo.Volume;
+
+/**
+ * <p>
+ * Default {@link Reconciler}, deciding pending entries by looking up the resources they touch:
+ * deletes by a 404 on the deleted resource, volume attach/detach/resize and floating IP
+ * assign/unassign by the current state.
+ * </p>
+ * 
+ * <p>
+ * Droplet and volume creates are applied only if a resource with the requested name was created
+ * after the entry was written, so a resource which existed before the call does not count. A
+ * droplet batch of which only some droplets exist, and names shared by several resources, stay
+ * pending. Tags and domains have no creation time; an existing one counts as applied, as the
+ * call would not change anything. Other entries stay pending.
+ * </p>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class LookupReconciler implements Reconciler {
+
+  /**
+   * Default tolerance between the local clock and the API clock, one minute
+   */
+  public static final long DEFAULT_CLOCK_SKEW_MILLIS = 60 * 1000L;
+
+  private final DigitalOcean apiClient;
+
+  private final NameResolver names;
+
+  private long clockSkewMillis = DEFAULT_CLOCK_SKEW_MILLIS;
+
+  /**
+   * @param apiClient client used for the lookups
+   */
+  public LookupReconciler(DigitalOcean apiClient) {
+    if (null == apiClient) {
+      throw new IllegalArgumentException("Missing required parameter - apiClient.");
+    }
+    this.apiClient = apiClient;
+    this.names = new NameResolver(apiClient);
+  }
+
+  /**
+   * @param clockSkew how far the API clock may lag behind the local clock
+   * @param unit unit of clockSkew
+   */
+  public void setClockSkew(long clockSkew, TimeUnit unit) {
+    if (clockSkew < 0 || null == unit) {
+      throw new IllegalArgumentException("Missing or invalid parameters [clockSkew, unit].");
+    }
+    this.clockSkewMillis = unit.toMillis(clockSkew);
+  }
+
+  @Override
+  public EntryStatus reconcile(JournalEntry entry)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    JsonObject body = null;
+    JsonElement json = entry.getBodyAsJson();
+    if (null != json && json.isJsonObject()) {
+      body = json.getAsJsonObject();
+    }
+    List<String> pathParams = entry.getPathParams();
+    String id = null == pathParams || pathParams.isEmpty() ? null : pathParams.get(0);
+
+    switch (entry.getApiAction()) {
+      case CREATE_DROPLET:
+        String dropletName = string(body, "name");
+        return reconcileDroplets(entry,
+            null == dropletName ? null : Collections.singletonList(dropletName));
+      case CREATE_DROPLETS:
+        JsonElement dropletNames = null == body ? null : body.get("names");
+        if (null == dropletNames || !dropletNames.isJsonArray()) {
+          return EntryStatus.PENDING;
+        }
+        List<String> requested = new ArrayList<String>();
+        for (JsonElement name : dropletNames.getAsJsonArray()) {
+          requested.add(name.getAsString());
+        }
+        return reconcileDroplets(entry, requested);
+      case CREATE_VOLUME:
+        return reconcileVolume(entry, string(body, "name"), string(body, "region"));
+      case CREATE_TAG:
+        return decide(names.hasTag(string(body, "name")));
+      case CREATE_DOMAIN:
+        return decide(names.hasDomain(string(body, "name")));
+      case ACTIONS_VOLUME:
+        return reconcileVolumeAction(apiClient.getVolumeInfo(id), body);
+      case ASSIGN_FLOATING_IP:
+        Droplet assigned = apiClient.getFloatingIPInfo(id).getDroplet();
+        return decide(null != assigned && assigned.getId().equals(integer(body, "droplet_id")));
+      case UNASSIGN_FLOATING_IP:
+        FloatingIP floatingIP = apiClient.getFloatingIPInfo(id);
+        return decide(null == floatingIP.getDroplet());
+      case DELETE_DROPLET:
+      case DELETE_VOLUME:
+      case DELETE_TAG:
+      case DELETE_DOMAIN:
+      case DELETE_FLOATING_IP:
+        return reconcileDelete(entry, id);
+      default:
+        return EntryStatus.PENDING;
+    }
+  }
+
+  private EntryStatus reconcileDroplets(JournalEntry entry, List<String> dropletNames)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    if (null == dropletNames || dropletNames.isEmpty()) {
+      return EntryStatus.PENDING;
+    }
+
+    int created = 0;
+    for (String name : dropletNames) {
+      Integer dropletId;
+      try {
+        dropletId = names.getDropletId(name);
+      } catch (IllegalArgumentException e) {
+        // several droplets share the name, cannot tell which one the call created
+        return EntryStatus.PENDING;
+      }
+      if (null != dropletId
+          && createdSince(apiClient.getDropletInfo(dropletId).getCreatedDate(), entry)) {
+        created++;
+      }
+    }
+
+    if (created == dropletNames.size()) {
+      return EntryStatus.APPLIED;
+    }
+    // some of the droplets exist: issuing the call again would duplicate them
+    return 0 == created ? EntryStatus.ABANDONED : EntryStatus.PENDING;
+  }
+
+  private EntryStatus reconcileVolume(JournalEntry entry, String name, String regionSlug)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    if (null == name) {
+      return EntryStatus.PENDING;
+    }
+
+    String volumeId;
+    try {
+      volumeId = names.getVolumeId(name, regionSlug);
+    } catch (IllegalArgumentException e) {
+      return EntryStatus.PENDING;
+    }
+    return decide(null != volumeId
+        && createdSince(apiClient.getVolumeInfo(volumeId).getCreatedDate(), entry));
+  }
+
+  private boolean createdSince(Date createdDate, JournalEntry entry) {
+    return null != createdDate
+        && createdDate.getTime() >= entry.getCreatedAt().getTime() - clockSkewMillis;
+  }
+
+  private EntryStatus reconcileVolumeAction(Volume volume, JsonObject body) {
+    String type = string(body, "type");
+    Set<Integer> dropletIds =
+        null == volume.getDropletIds() ? Collections.<Integer>emptySet() : volume.getDropletIds();
+    if ("attach".equals(type)) {
+      return decide(dropletIds.contains(integer(body, "droplet_id")));
+    }
+    if ("detach".equals(type)) {
+      return decide(!dropletIds.contains(integer(body, "droplet_id")));
+    }
+    if ("resize".equals(type)) {
+      return decide(volume.getSize() >= body.get("size_gigabytes").getAsDouble());
+    }
+    return EntryStatus.PENDING;
+  }
+
+  private EntryStatus reconcileDelete(JournalEntry entry, String id)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    try {
+      switch (entry.getApiAction()) {
+        case DELETE_DROPLET:
+          apiClient.getDropletInfo(Integer.valueOf(id));
+          break;
+        case DELETE_VOLUME:
+          apiClient.getVolumeInfo(id);
+          break;
+        case DELETE_TAG:
+          apiClient.getTag(id);
+          break;
+        case DELETE_DOMAIN:
+          apiClient.getDomainInfo(id);
+          break;
+        default:
+          apiClient.getFloatingIPInfo(id);
+          break;
+      }
+    } catch (DigitalOceanException e) {
+      if (HttpStatus.SC_NOT_FOUND == e.getHttpStatusCode()) {
+        return EntryStatus.APPLIED;
+      }
+      throw e;
+    }
+    return EntryStatus.ABANDONED;
+  }
+
+  private static EntryStatus decide(boolean applied) {
+    return applied ? EntryStatus.APPLIED : EntryStatus.ABANDONED;
+  }
+
+  private static String string(JsonObject body, String member) {
+    JsonElement value = null == body ? null : body.get(member);
+    return null == value || value.isJsonNull() ? null : value.getAsString();
+  }
+
+  private static Integer integer(JsonObject body, String member) {
+    JsonElement value = null == body ? null : body.get(member);
+    return null == value || value.isJsonNull() ? null : value.getAsInt();
+  }
+}
@@ -0,0 +1,610 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.journal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.myjeeva.digitalocean.common.ApiAction;
+import com.myjeeva.digitalocean.exception.DigitalOceanException;
+import com.myjeeva.digitalocean.exception.RequestUnsuccessfulException;
+
+/**
+ * <p>
+ * Append-only write-ahead journal of mutating API calls. Before a call is sent its intent is
+ * appended and made durable; once the API answered, its outcome is appended without waiting. After
+ * a crash, the entries still {@link EntryStatus#PENDING} are exactly the calls whose fate is
+ * unknown, and {@link #replay(Reconciler)} decides them by looking at the current state instead of
+ * re-executing everything.
+ * </p>
+ * 
+ * <p>
+ * Writes use group commit: records are appended to an in-memory buffer and a single writer thread
+ * writes and <code>fsync</code>s whatever accumulated while the previous sync was in progress, so
+ * concurrent callers share one sync instead of paying one each. Each record is framed with its
+ * length and CRC-32; a corrupt record is skipped on read, and a torn record at the end of the file
+ * is dropped on open. Decided entries are removed with {@link #compact(EntryStatus...)}.
+ * </p>
+ * 
+ * <pre>
+ * MutationJournal journal = MutationJournal.open(Paths.get("/var/lib/orchestrator/do.journal"));
+ * ReplayReport report = journal.replay(new LookupReconciler(apiClient));
+ * journal.compact(EntryStatus.APPLIED, EntryStatus.ABANDONED);
+ * apiClient.setMutationJournal(journal);
+ * </pre>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class MutationJournal implements Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(MutationJournal.class);
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final int HEADER_SIZE = 8;
+
+  private static final String INTENT = "intent";
+
+  private static final String OUTCOME = "outcome";
+
+  private final Gson gson = new Gson();
+
+  private final Path file;
+
+  private FileChannel channel;
+
+  private final Object lock = new Object();
+
+  private final Thread writer;
+
+  private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+  private long nextSequence;
+
+  private long appended;
+
+  private long durable;
+
+  private long syncs;
+
+  private IOException failure;
+
+  private boolean closed;
+
+  private MutationJournal(Path file, FileChannel channel, long nextSequence) {
+    this.file = file;
+    this.channel = channel;
+    this.nextSequence = nextSequence;
+    this.writer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        writeLoop();
+      }
+    }, "mutation-journal");
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  /**
+   * Opens or creates the journal at given path, dropping a torn record at its end.
+   * 
+   * @param file journal file
+   * @return the journal, ready for appends
+   * @throws IOException if the file cannot be read or opened
+   */
+  public static MutationJournal open(Path file) throws IOException {
+    if (null == file) {
+      throw new IllegalArgumentException("Missing required parameter - file.");
+    }
+
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      List<Record> records = new ArrayList<Record>();
+      long end = read(channel, records);
+      if (end < channel.size()) {
+        log.warn("Dropping {} byte(s) of torn journal records in {}", channel.size() - end, file);
+        channel.truncate(end);
+        channel.force(true);
+      }
+      channel.position(end);
+
+      long last = 0;
+      for (Record record : records) {
+        last = Math.max(last, record.seq);
+      }
+      return new MutationJournal(file, channel, last + 1);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Appends the intent of a call and waits until it is durable.
+   * 
+   * @param apiAction api action of the call
+   * @param pathParams path params of the call, can be null
+   * @param queryParams query params of the call, can be null
+   * @param body request body as JSON, can be null
+   * @return sequence no. of the entry, for its outcome
+   * @throws IOException if the journal cannot be written
+   */
+  public long intent(ApiAction apiAction, Object[] pathParams, Map<String, String> queryParams,
+      String body) throws IOException {
+    Record record = new Record();
+    record.type = INTENT;
+    record.action = apiAction.name();
+    record.time = System.currentTimeMillis();
+    if (null != pathParams) {
+      record.pathParams = new ArrayList<String>();
+      for (Object param : pathParams) {
+        record.pathParams.add(String.valueOf(param));
+      }
+    }
+    record.queryParams = queryParams;
+    record.body = body;
+
+    long ticket;
+    synchronized (lock) {
+      record.seq = nextSequence++;
+      ticket = append(record);
+    }
+    await(ticket);
+    return record.seq;
+  }
+
+  /**
+   * Records that the API accepted the call of given entry; does not wait for durability.
+   * 
+   * @param sequence sequence no. of the entry
+   * @param result response data as JSON, can be null
+   * @throws IOException if the journal failed earlier
+   */
+  public void succeeded(long sequence, String result) throws IOException {
+    outcome(sequence, EntryStatus.SUCCEEDED, result, null);
+  }
+
+  /**
+   * Records that the API rejected the call of given entry, i.e. answered with a 4xx status; does
+   * not wait for durability. Calls answered with a 5xx status may have been applied and stay
+   * pending.
+   * 
+   * @param sequence sequence no. of the entry
+   * @param error the error message
+   * @throws IOException if the journal failed earlier
+   */
+  public void failed(long sequence, String error) throws IOException {
+    outcome(sequence, EntryStatus.FAILED, null, error);
+  }
+
+  /**
+   * Waits until every record appended so far is durable.
+   * 
+   * @throws IOException if the journal cannot be written
+   */
+  public void sync() throws IOException {
+    long ticket;
+    synchronized (lock) {
+      ticket = appended;
+    }
+    await(ticket);
+  }
+
+  /**
+   * Reads all entries of the journal, each with its latest outcome.
+   * 
+   * @return entries in sequence order
+   * @throws IOException if the journal cannot be read
+   */
+  public List<JournalEntry> getEntries() throws IOException {
+    sync();
+    List<Record> records = new ArrayList<Record>();
+    FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      read(in, records);
+    } finally {
+      in.close();
+    }
+
+    return new ArrayList<JournalEntry>(fold(records).values());
+  }
+
+  /**
+   * @return entries without outcome, i.e. whose call may or may not have reached the API
+   * @throws IOException if the journal cannot be read
+   */
+  public List<JournalEntry> getPending() throws IOException {
+    List<JournalEntry> pending = new ArrayList<JournalEntry>();
+    for (JournalEntry entry : getEntries()) {
+      if (EntryStatus.PENDING == entry.getStatus()) {
+        pending.add(entry);
+      }
+    }
+    return pending;
+  }
+
+  /**
+   * Decides every pending entry with given reconciler, typically on restart before new calls, and
+   * records the decisions durably. Entries the reconciler cannot decide, or fails on with any
+   * exception, stay pending.
+   * 
+   * @param reconciler the reconciler
+   * @return pending entries grouped by decision
+   * @throws IOException if the journal cannot be read or written
+   */
+  public ReplayReport replay(Reconciler reconciler) throws IOException {
+    if (null == reconciler) {
+      throw new IllegalArgumentException("Missing required parameter - reconciler.");
+    }
+
+    ReplayReport report = new ReplayReport();
+    for (JournalEntry entry : getPending()) {
+      EntryStatus status = EntryStatus.PENDING;
+      try {
+        status = reconciler.reconcile(entry);
+      } catch (DigitalOceanException | RequestUnsuccessfulException | RuntimeException e) {
+        log.warn("Reconciling journal entry {} failed: {}", entry.getSequence(), e.getMessage());
+        status = EntryStatus.PENDING;
+      }
+      if (EntryStatus.APPLIED == status || EntryStatus.ABANDONED == status) {
+        outcome(entry.getSequence(), status, null, null);
+        entry.setOutcome(status, null, null);
+      }
+      report.add(entry);
+    }
+    sync();
+    return report;
+  }
+
+  /**
+   * @return no. of <code>fsync</code> calls made so far
+   */
+  public long getSyncCount() {
+    synchronized (lock) {
+      return syncs;
+    }
+  }
+
+  /**
+   * @return no. of records appended since open
+   */
+  public long getRecordCount() {
+    synchronized (lock) {
+      return appended;
+    }
+  }
+
+  /**
+   * Makes all appended records durable and closes the file.
+   * 
+   * @throws IOException if the last records cannot be written
+   */
+  @Override
+  public void close() throws IOException {
+    synchronized (lock) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      lock.notifyAll();
+    }
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    channel.close();
+    synchronized (lock) {
+      if (null != failure) {
+        throw failure;
+      }
+    }
+  }
+
+  /**
+   * Rewrites the journal without the entries in given states, e.g. after a replay
+   * <code>compact(EntryStatus.APPLIED, EntryStatus.ABANDONED)</code>. Appends wait while the
+   * journal is rewritten; the new file replaces the old one atomically.
+   * 
+   * @param statuses states of the entries to drop; {@link EntryStatus#PENDING} is not allowed
+   * @return no. of entries dropped
+   * @throws IOException if the journal cannot be rewritten
+   */
+  public int compact(EntryStatus... statuses) throws IOException {
+    Set<EntryStatus> dropped = EnumSet.noneOf(EntryStatus.class);
+    if (null != statuses) {
+      dropped.addAll(Arrays.asList(statuses));
+    }
+    if (dropped.isEmpty() || dropped.contains(EntryStatus.PENDING)) {
+      throw new IllegalArgumentException("Missing or invalid parameter - statuses.");
+    }
+
+    synchronized (lock) {
+      // wait until the writer is idle; appends block on the lock from then on
+      while (null == failure && !closed && (0 != buffer.size() || durable < appended)) {
+        try {
+          lock.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Interrupted while waiting for the journal.", e);
+        }
+      }
+      if (null != failure) {
+        throw failure;
+      }
+      if (closed) {
+        throw new IOException("Journal " + file + " is closed.");
+      }
+
+      List<Record> records = new ArrayList<Record>();
+      read(channel, records);
+      Set<Long> drop = new HashSet<Long>();
+      for (JournalEntry entry : fold(records).values()) {
+        if (dropped.contains(entry.getStatus())) {
+          drop.add(entry.getSequence());
+        }
+      }
+      if (drop.isEmpty()) {
+        return 0;
+      }
+
+      Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+      FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+          StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+      try {
+        ByteArrayOutputStream kept = new ByteArrayOutputStream();
+        for (Record record : records) {
+          if (!drop.contains(record.seq)) {
+            frame(record, kept);
+          }
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(kept.toByteArray());
+        while (bytes.hasRemaining()) {
+          out.write(bytes);
+        }
+        out.force(true);
+      } finally {
+        out.close();
+      }
+
+      Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      channel.close();
+      channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      channel.position(channel.size());
+      log.debug("Compacted journal {}, dropped {} entries", file, drop.size());
+      return drop.size();
+    }
+  }
+
+  private void outcome(long sequence, EntryStatus status, String result, String error)
+      throws IOException {
+    Record record = new Record();
+    record.type = OUTCOME;
+    record.seq = sequence;
+    record.time = System.currentTimeMillis();
+    record.status = status.name();
+    record.result = result;
+    record.error = error;
+    synchronized (lock) {
+      append(record);
+    }
+  }
+
+  private long append(Record record) throws IOException {
+    if (null != failure) {
+      throw failure;
+    }
+    if (closed) {
+      throw new IOException("Journal " + file + " is closed.");
+    }
+
+    frame(record, buffer);
+    lock.notifyAll();
+    return ++appended;
+  }
+
+  private void frame(Record record, ByteArrayOutputStream out) throws IOException {
+    byte[] json = gson.toJson(record).getBytes(UTF_8);
+    CRC32 crc = new CRC32();
+    crc.update(json);
+    DataOutputStream data = new DataOutputStream(out);
+    data.writeInt(json.length);
+    data.writeInt((int) crc.getValue());
+    data.write(json);
+  }
+
+  private void await(long ticket) throws IOException {
+    synchronized (lock) {
+      while (durable < ticket && null == failure) {
+        try {
+          lock.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Interrupted while waiting for the journal.", e);
+        }
+      }
+      if (durable < ticket) {
+        throw failure;
+      }
+    }
+  }
+
+  private void writeLoop() {
+    while (true) {
+      byte[] batch;
+      long target;
+      FileChannel out;
+      synchronized (lock) {
+        while (0 == buffer.size() && !closed) {
+          try {
+            lock.wait();
+          } catch (InterruptedException e) {
+            return;
+          }
+        }
+        if (0 == buffer.size()) {
+          return;
+        }
+        batch = buffer.toByteArray();
+        buffer = new ByteArrayOutputStream(batch.length);
+        target = appended;
+        out = channel;
+      }
+
+      try {
+        ByteBuffer bytes = ByteBuffer.wrap(batch);
+        while (bytes.hasRemaining()) {
+          out.write(bytes);
+        }
+        out.force(false);
+      } catch (IOException e) {
+        log.error("Writing journal " + file + " failed", e);
+        synchronized (lock) {
+          failure = e;
+          lock.notifyAll();
+        }
+        return;
+      }
+
+      synchronized (lock) {
+        durable = target;
+        syncs++;
+        lock.notifyAll();
+      }
+    }
+  }
+
+  private static Map<Long, JournalEntry> fold(List<Record> records) {
+    Map<Long, JournalEntry> entries = new LinkedHashMap<Long, JournalEntry>();
+    for (Record record : records) {
+      if (INTENT.equals(record.type)) {
+        entries.put(record.seq, new JournalEntry(record.seq, ApiAction.valueOf(record.action),
+            record.pathParams, record.queryParams, record.body, new Date(record.time)));
+      } else {
+        JournalEntry entry = entries.get(record.seq);
+        if (null != entry) {
+          entry.setOutcome(EntryStatus.valueOf(record.status), record.result, record.error);
+        }
+      }
+    }
+    return entries;
+  }
+
+  private static long read(FileChannel channel, List<Record> records) throws IOException {
+    Gson gson = new Gson();
+    long size = channel.size();
+    long position = 0;
+    long end = 0;
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    while (position + HEADER_SIZE <= size) {
+      header.clear();
+      readFully(channel, header, position);
+      header.flip();
+      int length = header.getInt();
+      int checksum = header.getInt();
+      if (length < 0 || position + HEADER_SIZE + length > size) {
+        break;
+      }
+
+      ByteBuffer json = ByteBuffer.allocate(length);
+      readFully(channel, json, position + HEADER_SIZE);
+      position += HEADER_SIZE + length;
+      CRC32 crc = new CRC32();
+      crc.update(json.array());
+      if ((int) crc.getValue() == checksum) {
+        try {
+          records.add(gson.fromJson(new String(json.array(), UTF_8), Record.class));
+          end = position;
+          continue;
+        } catch (JsonParseException e) {
+          // handled below, like a checksum mismatch
+        }
+      }
+      // a corrupt record ends the scan only at the tail; valid records after it are kept
+      log.warn("Skipping corrupt journal record ending at offset {}", position);
+    }
+    return end;
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer target, long position)
+      throws IOException {
+    while (target.hasRemaining()) {
+      if (channel.read(target, position + target.position()) < 0) {
+        throw new IOException("Unexpected end of journal.");
+      }
+    }
+  }
+
+  /**
+   * Serialized form of an intent or outcome record.
+   */
+  private static class Record {
+
+    private String type;
+
+    private long seq;
+
+    private long time;
+
+    private String action;
+
+    private List<String> pathParams;
+
+    private Map<String, String> queryParams;
+
+    private String body;
+
+    private String status;
+
+    private String result;
+
+    private String error;
+  }
+}
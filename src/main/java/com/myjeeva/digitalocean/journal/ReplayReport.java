@@ -0,0 +1,84 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.journal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+/**
+ * Outcome of {@link MutationJournal#replay(Reconciler)}, the pending entries grouped by decision.
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class ReplayReport {
+
+  private final List<JournalEntry> applied = new ArrayList<JournalEntry>();
+
+  private final List<JournalEntry> abandoned = new ArrayList<JournalEntry>();
+
+  private final List<JournalEntry> pending = new ArrayList<JournalEntry>();
+
+  void add(JournalEntry entry) {
+    switch (entry.getStatus()) {
+      case APPLIED:
+        applied.add(entry);
+        break;
+      case ABANDONED:
+        abandoned.add(entry);
+        break;
+      default:
+        pending.add(entry);
+        break;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return ReflectionToStringBuilder.toString(this);
+  }
+
+  /**
+   * @return entries which went through before the crash; nothing to do
+   */
+  public List<JournalEntry> getApplied() {
+    return Collections.unmodifiableList(applied);
+  }
+
+  /**
+   * @return entries which did not go through; to be issued again by the caller
+   */
+  public List<JournalEntry> getAbandoned() {
+    return Collections.unmodifiableList(abandoned);
+  }
+
+  /**
+   * @return entries the reconciler could not decide, still pending in the journal
+   */
+  public List<JournalEntry> getPending() {
+    return Collections.unmodifiableList(pending);
+  }
+}
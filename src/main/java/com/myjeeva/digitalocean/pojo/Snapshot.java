@@ -21,6 +21,9 @@
 
 package com.myjeeva.digitalocean.pojo;
 
+import com.google.gson.annotations.SerializedName;
+import com.myjeeva.digitalocean.common.ResourceType;
+
 /**
  * Represents Snapshot attributes
  * 
@@ -32,4 +35,60 @@ public class Snapshot extends Image {
 
   private static final long serialVersionUID = 5713559939273842460L;
 
+  /**
+   * Bound by {@link com.myjeeva.digitalocean.serializer.SnapshotTypeAdapterFactory}
+   */
+  private transient String snapshotId;
+
+  @SerializedName("resource_id")
+  private String resourceId;
+
+  @SerializedName("resource_type")
+  private ResourceType resourceType;
+
+  /**
+   * @return id of the snapshot; numeric for droplet snapshots, a UUID for volume snapshots
+   */
+  public String getSnapshotId() {
+    if (null == snapshotId && null != getId()) {
+      return String.valueOf(getId());
+    }
+    return snapshotId;
+  }
+
+  /**
+   * @param snapshotId the snapshotId to set
+   */
+  public void setSnapshotId(String snapshotId) {
+    this.snapshotId = snapshotId;
+  }
+
+  /**
+   * @return id of the droplet or volume the snapshot was taken from
+   */
+  public String getResourceId() {
+    return resourceId;
+  }
+
+  /**
+   * @param resourceId the resourceId to set
+   */
+  public void setResourceId(String resourceId) {
+    this.resourceId = resourceId;
+  }
+
+  /**
+   * @return the resourceType
+   */
+  public ResourceType getResourceType() {
+    return resourceType;
+  }
+
+  /**
+   * @param resourceType the resourceType to set
+   */
+  public void setResourceType(ResourceType resourceType) {
+    this.resourceType = resourceType;
+  }
+
 }
@@ -0,0 +1,147 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.serializer;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * <p>
+ * Set of JSON attributes to bind when deserializing listing responses. Attributes which are not
+ * part of the projection are skipped at token level and never turned into objects.
+ * </p>
+ * 
+ * <p>
+ * Attributes are given by their JSON name, nested attributes in dotted notation, e.g.
+ * </p>
+ * 
+ * <pre>
+ * FieldProjection projection =
+ *     FieldProjection.of("id", "name", "status", "tags", "networks", "region.slug");
+ * </pre>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public final class FieldProjection {
+
+  private static final String PATH_SEPARATOR = ".";
+
+  private final Map<String, FieldProjection> children = new TreeMap<String, FieldProjection>();
+
+  private boolean whole;
+
+  private FieldProjection() {
+    // use FieldProjection.of
+  }
+
+  /**
+   * Creates the projection of given attribute paths.
+   * 
+   * @param paths JSON attribute names, nested ones in dotted notation
+   * @return the projection
+   */
+  public static FieldProjection of(String... paths) {
+    if (null == paths || 0 == paths.length) {
+      throw new IllegalArgumentException("Missing required parameter - paths.");
+    }
+
+    FieldProjection root = new FieldProjection();
+    for (String path : paths) {
+      if (StringUtils.isBlank(path)) {
+        throw new IllegalArgumentException("Blank attribute path in projection.");
+      }
+      root.add(StringUtils.split(path.trim(), PATH_SEPARATOR), 0);
+    }
+    return root;
+  }
+
+  private void add(String[] names, int index) {
+    FieldProjection child = children.get(names[index]);
+    if (null == child) {
+      child = new FieldProjection();
+      children.put(names[index], child);
+    }
+
+    if (index == names.length - 1) {
+      // the whole attribute wins over any of its nested attributes
+      child.whole = true;
+      child.children.clear();
+    } else if (!child.whole) {
+      child.add(names, index + 1);
+    }
+  }
+
+  /**
+   * @param name JSON attribute name
+   * @return <code>true</code> if given attribute is part of the projection
+   */
+  public boolean contains(String name) {
+    return children.containsKey(name);
+  }
+
+  /**
+   * @param name JSON attribute name
+   * @return the projection of given nested attribute, <code>null</code> if the attribute is bound
+   *         as a whole or not part of the projection
+   */
+  public FieldProjection get(String name) {
+    FieldProjection child = children.get(name);
+    return (null == child || child.whole) ? null : child;
+  }
+
+  /**
+   * @return attribute names of this level
+   */
+  public Map<String, FieldProjection> getChildren() {
+    return Collections.unmodifiableMap(children);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    for (Map.Entry<String, FieldProjection> entry : children.entrySet()) {
+      if (sb.length() > 1) {
+        sb.append(',');
+      }
+      sb.append(entry.getKey());
+      if (!entry.getValue().whole) {
+        sb.append(entry.getValue().toString());
+      }
+    }
+    return sb.append('}').toString();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return (obj instanceof FieldProjection) && toString().equals(obj.toString());
+  }
+
+  @Override
+  public int hashCode() {
+    return toString().hashCode();
+  }
+}
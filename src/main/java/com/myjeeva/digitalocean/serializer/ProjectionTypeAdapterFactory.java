@@ -0,0 +1,245 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.serializer;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Deserializes the given root type according to a {@link FieldProjection}. Attributes outside of
+ * the projection are skipped with {@link JsonReader#skipValue()}; nested projections are applied to
+ * object and collection attributes. Serialization is delegated to the adapters the
+ * <code>Gson</code> instance would use without this factory.
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class ProjectionTypeAdapterFactory implements TypeAdapterFactory {
+
+  private final Class<?> rootType;
+
+  private final FieldProjection projection;
+
+  /**
+   * Constructor
+   * 
+   * @param rootType the type to project, e.g. <code>Droplet.class</code>
+   * @param projection the attributes to bind
+   */
+  public ProjectionTypeAdapterFactory(Class<?> rootType, FieldProjection projection) {
+    this.rootType = rootType;
+    this.projection = projection;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+    if (rootType != type.getRawType()) {
+      return null;
+    }
+    return (TypeAdapter<T>) new ProjectingAdapter<Object>(gson, rootType, projection,
+        (TypeAdapter<Object>) gson.getDelegateAdapter(this, type));
+  }
+
+  private static class ProjectingAdapter<T> extends TypeAdapter<T> {
+
+    private final Constructor<T> constructor;
+
+    private final Map<String, BoundField> fields = new HashMap<String, BoundField>();
+
+    private final TypeAdapter<T> delegate;
+
+    @SuppressWarnings("unchecked")
+    ProjectingAdapter(Gson gson, Class<?> type, FieldProjection projection,
+        TypeAdapter<T> delegate) {
+      this.delegate = delegate;
+      try {
+        this.constructor = (Constructor<T>) type.getDeclaredConstructor();
+        this.constructor.setAccessible(true);
+      } catch (NoSuchMethodException e) {
+        throw new IllegalArgumentException(type + " has no default constructor for projection.");
+      }
+
+      for (Class<?> c = type; null != c && Object.class != c; c = c.getSuperclass()) {
+        for (Field field : c.getDeclaredFields()) {
+          if (Modifier.isStatic(field.getModifiers())
+              || Modifier.isTransient(field.getModifiers())) {
+            continue;
+          }
+          for (String name : jsonNames(field)) {
+            if (projection.contains(name) && !fields.containsKey(name)) {
+              field.setAccessible(true);
+              fields.put(name, new BoundField(gson, field, projection.get(name)));
+            }
+          }
+        }
+      }
+    }
+
+    @Override
+    public T read(JsonReader in) throws IOException {
+      if (JsonToken.NULL == in.peek()) {
+        in.nextNull();
+        return null;
+      }
+
+      T instance;
+      try {
+        instance = constructor.newInstance();
+      } catch (Exception e) {
+        throw new JsonParseException("Unable to create " + constructor.getDeclaringClass(), e);
+      }
+
+      in.beginObject();
+      while (in.hasNext()) {
+        BoundField field = fields.get(in.nextName());
+        if (null == field) {
+          in.skipValue();
+        } else {
+          field.read(in, instance);
+        }
+      }
+      in.endObject();
+
+      return instance;
+    }
+
+    @Override
+    public void write(JsonWriter out, T value) throws IOException {
+      delegate.write(out, value);
+    }
+
+    private static String[] jsonNames(Field field) {
+      SerializedName sn = field.getAnnotation(SerializedName.class);
+      if (null == sn) {
+        return new String[] {field.getName()};
+      }
+
+      String[] names = new String[sn.alternate().length + 1];
+      names[0] = sn.value();
+      System.arraycopy(sn.alternate(), 0, names, 1, sn.alternate().length);
+      return names;
+    }
+  }
+
+  private static class BoundField {
+
+    private final Field field;
+
+    private final TypeAdapter<?> adapter;
+
+    @SuppressWarnings("unchecked")
+    BoundField(Gson gson, Field field, FieldProjection nested) {
+      this.field = field;
+
+      Type type = field.getGenericType();
+      if (null == nested) {
+        this.adapter = gson.getAdapter(TypeToken.get(type));
+      } else if (Collection.class.isAssignableFrom(field.getType())
+          && type instanceof ParameterizedType
+          && ((ParameterizedType) type).getActualTypeArguments()[0] instanceof Class) {
+        Class<?> elementType = (Class<?>) ((ParameterizedType) type).getActualTypeArguments()[0];
+        this.adapter = new CollectionAdapter<Object>(
+            new ProjectingAdapter<Object>(gson, elementType, nested,
+                (TypeAdapter<Object>) gson.getAdapter(elementType)),
+            Set.class.isAssignableFrom(field.getType()));
+      } else {
+        this.adapter = new ProjectingAdapter<Object>(gson, field.getType(), nested,
+            (TypeAdapter<Object>) gson.getAdapter(field.getType()));
+      }
+    }
+
+    void read(JsonReader in, Object instance) throws IOException {
+      Object value = adapter.read(in);
+      if (null != value || !field.getType().isPrimitive()) {
+        try {
+          field.set(instance, value);
+        } catch (IllegalAccessException e) {
+          throw new JsonParseException("Unable to set " + field, e);
+        }
+      }
+    }
+  }
+
+  private static class CollectionAdapter<E> extends TypeAdapter<Collection<E>> {
+
+    private final TypeAdapter<E> elementAdapter;
+
+    private final boolean set;
+
+    CollectionAdapter(TypeAdapter<E> elementAdapter, boolean set) {
+      this.elementAdapter = elementAdapter;
+      this.set = set;
+    }
+
+    @Override
+    public Collection<E> read(JsonReader in) throws IOException {
+      if (JsonToken.NULL == in.peek()) {
+        in.nextNull();
+        return null;
+      }
+
+      Collection<E> collection = set ? new LinkedHashSet<E>() : new ArrayList<E>();
+      in.beginArray();
+      while (in.hasNext()) {
+        collection.add(elementAdapter.read(in));
+      }
+      in.endArray();
+      return collection;
+    }
+
+    @Override
+    public void write(JsonWriter out, Collection<E> value) throws IOException {
+      if (null == value) {
+        out.nullValue();
+        return;
+      }
+
+      out.beginArray();
+      for (E element : value) {
+        elementAdapter.write(out, element);
+      }
+      out.endArray();
+    }
+  }
+}
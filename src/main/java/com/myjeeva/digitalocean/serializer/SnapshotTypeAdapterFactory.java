@@ -0,0 +1,99 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.serializer;
+
+import java.io.IOException;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.myjeeva.digitalocean.pojo.Snapshot;
+
+/**
+ * Binds the <code>id</code> of a {@link Snapshot} to {@link Snapshot#getSnapshotId()}. Droplet
+ * snapshots have numeric ids, which are bound to {@link Snapshot#getId()} too; volume snapshots
+ * have UUIDs, which do not fit the numeric id inherited from the image. Register it after any
+ * other factory of snapshots, e.g. a {@link ProjectionTypeAdapterFactory}, as it delegates to
+ * them.
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class SnapshotTypeAdapterFactory implements TypeAdapterFactory {
+
+  private static final String ID = "id";
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+    if (Snapshot.class != type.getRawType()) {
+      return null;
+    }
+
+    final TypeAdapter<Snapshot> delegate =
+        gson.getDelegateAdapter(this, TypeToken.get(Snapshot.class));
+    final TypeAdapter<JsonElement> elements = gson.getAdapter(JsonElement.class);
+    return (TypeAdapter<T>) new TypeAdapter<Snapshot>() {
+      @Override
+      public Snapshot read(JsonReader in) throws IOException {
+        JsonElement tree = elements.read(in);
+        if (null == tree || !tree.isJsonObject()) {
+          return null;
+        }
+
+        JsonObject object = tree.getAsJsonObject();
+        JsonElement id = object.get(ID);
+        String snapshotId = null;
+        if (null != id && id.isJsonPrimitive()) {
+          snapshotId = id.getAsString();
+          if (!id.getAsJsonPrimitive().isNumber()) {
+            object.remove(ID);
+          }
+        }
+
+        Snapshot snapshot = delegate.fromJsonTree(object);
+        snapshot.setSnapshotId(snapshotId);
+        return snapshot;
+      }
+
+      @Override
+      public void write(JsonWriter out, Snapshot value) throws IOException {
+        if (null == value) {
+          out.nullValue();
+          return;
+        }
+
+        JsonElement tree = delegate.toJsonTree(value);
+        if (null == value.getId() && null != value.getSnapshotId() && tree.isJsonObject()) {
+          tree.getAsJsonObject().addProperty(ID, value.getSnapshotId());
+        }
+        elements.write(out, tree);
+      }
+    };
+  }
+}
@@ -0,0 +1,125 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.stream;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live progress and throughput of one resource type during an inventory export. Counters are
+ * updated by the exporting thread and can be read from any thread while the export runs.
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class ExportStats {
+
+  private final String type;
+
+  private final AtomicLong elements = new AtomicLong();
+
+  private final AtomicLong bytes = new AtomicLong();
+
+  private volatile long startedAt;
+
+  private volatile long finishedAt;
+
+  private volatile Throwable error;
+
+  ExportStats(String type) {
+    this.type = type;
+  }
+
+  void started() {
+    startedAt = System.currentTimeMillis();
+  }
+
+  void element(long size) {
+    elements.incrementAndGet();
+    bytes.addAndGet(size);
+  }
+
+  void finished(Throwable t) {
+    error = t;
+    finishedAt = System.currentTimeMillis();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: %d element(s), %d byte(s) in %d ms (%.1f elements/s)%s", type,
+        getElements(), getBytes(), getElapsedMillis(), getElementsPerSecond(),
+        null == error ? "" : " FAILED: " + error.getMessage());
+  }
+
+  /**
+   * @return the resource type, also used as file name
+   */
+  public String getType() {
+    return type;
+  }
+
+  /**
+   * @return no. of elements written so far
+   */
+  public long getElements() {
+    return elements.get();
+  }
+
+  /**
+   * @return no. of bytes written so far
+   */
+  public long getBytes() {
+    return bytes.get();
+  }
+
+  /**
+   * @return elapsed time in milliseconds, up to now while still running
+   */
+  public long getElapsedMillis() {
+    if (0 == startedAt) {
+      return 0;
+    }
+    return (0 == finishedAt ? System.currentTimeMillis() : finishedAt) - startedAt;
+  }
+
+  /**
+   * @return throughput in elements per second
+   */
+  public double getElementsPerSecond() {
+    long elapsed = getElapsedMillis();
+    return 0 == elapsed ? 0 : getElements() * 1000d / elapsed;
+  }
+
+  /**
+   * @return <code>true</code> once this type is exported or failed
+   */
+  public boolean isDone() {
+    return 0 != finishedAt;
+  }
+
+  /**
+   * @return the failure cause, <code>null</code> if export succeeded or still running
+   */
+  public Throwable getError() {
+    return error;
+  }
+}
@@ -0,0 +1,318 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.stream;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.myjeeva.digitalocean.DigitalOcean;
+import com.myjeeva.digitalocean.common.ApiAction;
+import com.myjeeva.digitalocean.common.Constants;
+import com.myjeeva.digitalocean.pojo.Domain;
+import com.myjeeva.digitalocean.pojo.DomainRecord;
+import com.myjeeva.digitalocean.serializer.SnapshotTypeAdapterFactory;
+
+/**
+ * <p>
+ * Exports the full account inventory as newline-delimited JSON, one file per resource type
+ * (<code>droplets.ndjson</code>, <code>volumes.ndjson</code>, ...). All resource types are swept
+ * concurrently through the streaming API, and every element is written through a fixed size buffer
+ * into a file channel as soon as it is read. Memory stays bounded by parallelism x buffer size.
+ * </p>
+ * 
+ * <p>
+ * Each file is written as <code>&lt;type&gt;.ndjson.part</code> and renamed once the type is
+ * complete; a failed type leaves no file behind. Domain records are written to
+ * <code>domain_records.ndjson</code> with an additional <code>domain</code> attribute. Progress
+ * per type is available through {@link #getStats()} while the export runs.
+ * </p>
+ * 
+ * <p>
+ * <strong>Note:</strong> the default <code>HttpClient</code> of <code>DigitalOceanClient</code>
+ * pools {@link com.myjeeva.digitalocean.impl.DigitalOceanClient#DEFAULT_MAX_CONNECTIONS}
+ * connections; pass a client with a larger pool for a higher parallelism.
+ * </p>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class InventoryExporter {
+
+  private static final Logger log = LoggerFactory.getLogger(InventoryExporter.class);
+
+  private static final String FILE_EXTENSION = ".ndjson";
+
+  private static final String PART_EXTENSION = ".part";
+
+  private static final String DOMAIN_RECORDS = "domain_records";
+
+  private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  private static final int PROGRESS_LOG_INTERVAL = 1000;
+
+  private static final ApiAction[] COLLECTIONS = {ApiAction.AVAILABLE_DROPLETS,
+      ApiAction.AVAILABLE_VOLUMES, ApiAction.AVAILABLE_SNAPSHOTS, ApiAction.AVAILABLE_IMAGES,
+      ApiAction.AVAILABLE_DOMAINS, ApiAction.AVAILABLE_FIREWALLS,
+      ApiAction.AVAILABLE_LOAD_BALANCERS, ApiAction.FLOATING_IPS, ApiAction.AVAILABLE_TAGS,
+      ApiAction.AVAILABLE_KEYS, ApiAction.AVAILABLE_CERTIFICATES};
+
+  private final DigitalOcean apiClient;
+
+  private final Path outputDir;
+
+  private final int parallelism;
+
+  private final int bufferSize;
+
+  private final Gson gson = new GsonBuilder().setDateFormat(Constants.DATE_FORMAT)
+      .registerTypeAdapterFactory(new SnapshotTypeAdapterFactory()).create();
+
+  private final Map<String, ExportStats> stats = new LinkedHashMap<String, ExportStats>();
+
+  /**
+   * Constructor
+   * 
+   * @param apiClient a DigitalOcean client
+   * @param outputDir directory to write the files into, created if missing
+   */
+  public InventoryExporter(DigitalOcean apiClient, Path outputDir) {
+    this(apiClient, outputDir, 4, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Constructor
+   * 
+   * @param apiClient a DigitalOcean client
+   * @param outputDir directory to write the files into, created if missing
+   * @param parallelism no. of resource types exported at the same time
+   * @param bufferSize write buffer size in bytes per resource type
+   */
+  public InventoryExporter(DigitalOcean apiClient, Path outputDir, int parallelism,
+      int bufferSize) {
+    if (null == apiClient || null == outputDir || parallelism < 1 || bufferSize < 1) {
+      throw new IllegalArgumentException(
+          "Missing or invalid parameters [apiClient, outputDir, parallelism, bufferSize].");
+    }
+
+    this.apiClient = apiClient;
+    this.outputDir = outputDir;
+    this.parallelism = parallelism;
+    this.bufferSize = bufferSize;
+
+    for (ApiAction action : COLLECTIONS) {
+      stats.put(action.getElementName(), new ExportStats(action.getElementName()));
+    }
+    stats.put(DOMAIN_RECORDS, new ExportStats(DOMAIN_RECORDS));
+  }
+
+  /**
+   * Runs the export and blocks until every resource type is either written or failed. A failure of
+   * one type does not abort the others; inspect {@link ExportStats#getError()}.
+   * 
+   * @return stats per resource type
+   * @throws IOException if output directory could not be created
+   * @throws InterruptedException if interrupted while waiting for the export
+   */
+  public List<ExportStats> export() throws IOException, InterruptedException {
+    Files.createDirectories(outputDir);
+
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    List<Future<?>> futures = new ArrayList<Future<?>>();
+    try {
+      for (final ApiAction action : COLLECTIONS) {
+        futures.add(executor.submit(new Runnable() {
+          @Override
+          public void run() {
+            exportType(action);
+          }
+        }));
+      }
+
+      for (Future<?> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException ee) {
+          log.error("Unexpected export failure", ee.getCause());
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    for (ExportStats s : stats.values()) {
+      log.info("Export {}", s);
+    }
+    return getStats();
+  }
+
+  /**
+   * @return live stats per resource type
+   */
+  public List<ExportStats> getStats() {
+    return Collections.unmodifiableList(new ArrayList<ExportStats>(stats.values()));
+  }
+
+  private void exportType(ApiAction action) {
+    final ExportStats typeStats = stats.get(action.getElementName());
+    final List<String> domainNames = new ArrayList<String>();
+
+    Map<String, String> queryParams = null;
+    if (ApiAction.AVAILABLE_IMAGES == action) {
+      // public distribution/application images are not part of the account inventory
+      queryParams = new HashMap<String, String>();
+      queryParams.put("private", "true");
+    }
+
+    Throwable error = null;
+    typeStats.started();
+    try {
+      final NdjsonChannelWriter writer = open(action.getElementName());
+      try {
+        apiClient.forEachElement(action, null, queryParams, new ElementVisitor<Object>() {
+          @Override
+          public boolean visit(Object element) {
+            if (element instanceof Domain) {
+              domainNames.add(((Domain) element).getName());
+            }
+            write(writer, typeStats, gson.toJson(element));
+            return true;
+          }
+        });
+      } finally {
+        writer.close();
+      }
+      commit(action.getElementName());
+    } catch (Exception e) {
+      error = unwrap(e);
+      log.error("Export of {} failed", action.getElementName(), error);
+      discard(action.getElementName());
+    } finally {
+      typeStats.finished(error);
+    }
+
+    if (ApiAction.AVAILABLE_DOMAINS == action && null == error) {
+      exportDomainRecords(domainNames);
+    }
+  }
+
+  private void exportDomainRecords(List<String> domainNames) {
+    final ExportStats typeStats = stats.get(DOMAIN_RECORDS);
+
+    Throwable error = null;
+    typeStats.started();
+    try {
+      final NdjsonChannelWriter writer = open(DOMAIN_RECORDS);
+      try {
+        for (final String domainName : domainNames) {
+          Object[] params = {domainName};
+          apiClient.forEachElement(ApiAction.GET_DOMAIN_RECORDS, params, null,
+              new ElementVisitor<DomainRecord>() {
+                @Override
+                public boolean visit(DomainRecord record) {
+                  JsonObject json = gson.toJsonTree(record).getAsJsonObject();
+                  json.addProperty("domain", domainName);
+                  write(writer, typeStats, gson.toJson(json));
+                  return true;
+                }
+              });
+        }
+      } finally {
+        writer.close();
+      }
+      commit(DOMAIN_RECORDS);
+    } catch (Exception e) {
+      error = unwrap(e);
+      log.error("Export of {} failed", DOMAIN_RECORDS, error);
+      discard(DOMAIN_RECORDS);
+    } finally {
+      typeStats.finished(error);
+    }
+  }
+
+  private void write(NdjsonChannelWriter writer, ExportStats typeStats, String json) {
+    try {
+      long before = writer.getBytesWritten();
+      writer.write(json);
+      typeStats.element(writer.getBytesWritten() - before);
+    } catch (IOException ioe) {
+      throw new ExportIOException(ioe);
+    }
+
+    if (0 == typeStats.getElements() % PROGRESS_LOG_INTERVAL) {
+      log.info("Export {}", typeStats);
+    }
+  }
+
+  private NdjsonChannelWriter open(String type) throws IOException {
+    return new NdjsonChannelWriter(outputDir.resolve(type + FILE_EXTENSION + PART_EXTENSION),
+        bufferSize);
+  }
+
+  private void commit(String type) throws IOException {
+    Files.move(outputDir.resolve(type + FILE_EXTENSION + PART_EXTENSION),
+        outputDir.resolve(type + FILE_EXTENSION), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private void discard(String type) {
+    try {
+      Files.deleteIfExists(outputDir.resolve(type + FILE_EXTENSION + PART_EXTENSION));
+    } catch (IOException ioe) {
+      log.warn("Unable to remove partial export of {}", type, ioe);
+    }
+  }
+
+  private Throwable unwrap(Exception e) {
+    return (e instanceof ExportIOException) ? e.getCause() : e;
+  }
+
+  /**
+   * Carries an {@link IOException} out of an {@link ElementVisitor}
+   */
+  private static class ExportIOException extends RuntimeException {
+
+    private static final long serialVersionUID = -3512064170337398157L;
+
+    ExportIOException(IOException cause) {
+      super(cause);
+    }
+  }
+}
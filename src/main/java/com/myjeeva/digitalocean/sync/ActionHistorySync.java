@@ -0,0 +1,213 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.sync;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.myjeeva.digitalocean.DigitalOcean;
+import com.myjeeva.digitalocean.common.ActionStatus;
+import com.myjeeva.digitalocean.exception.DigitalOceanException;
+import com.myjeeva.digitalocean.exception.RequestUnsuccessfulException;
+import com.myjeeva.digitalocean.pojo.Action;
+import com.myjeeva.digitalocean.stream.ElementVisitor;
+
+/**
+ * <p>
+ * Incremental synchronization of the account action history.
+ * </p>
+ * 
+ * <p>
+ * Each {@link #sync()} walks <code>/actions</code> newest-first and stops as soon as it reaches
+ * the highest action id seen by previous run (the watermark). Actions that were
+ * <code>in-progress</code> on previous run are tracked as well and reported again once their
+ * status changes. Watermark and the in-progress ids are persisted into a local properties file, so
+ * a restarted process resumes where it left off.
+ * </p>
+ * 
+ * <pre>
+ * ActionHistorySync sync = new ActionHistorySync(apiClient, new File("actions.state"));
+ * for (Action action : sync.sync()) {
+ *   auditLog.append(action);
+ * }
+ * </pre>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class ActionHistorySync {
+
+  private static final Logger log = LoggerFactory.getLogger(ActionHistorySync.class);
+
+  private static final String KEY_WATERMARK = "watermark";
+
+  private static final String KEY_IN_PROGRESS = "in_progress";
+
+  private final DigitalOcean apiClient;
+
+  private final File stateFile;
+
+  private long watermark;
+
+  private TreeSet<Integer> inProgress = new TreeSet<Integer>();
+
+  private boolean loaded;
+
+  /**
+   * Constructor
+   * 
+   * @param apiClient a DigitalOcean client
+   * @param stateFile a file to persist the watermark, created on first sync
+   */
+  public ActionHistorySync(DigitalOcean apiClient, File stateFile) {
+    if (null == apiClient || null == stateFile) {
+      throw new IllegalArgumentException("Missing required parameters [apiClient, stateFile].");
+    }
+
+    this.apiClient = apiClient;
+    this.stateFile = stateFile;
+  }
+
+  /**
+   * Fetches the actions created since previous sync, plus previously in-progress actions whose
+   * status has changed, and persists the new watermark.
+   * 
+   * @return new and changed actions, oldest first
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   * @throws IOException if state file could not be read or written
+   */
+  public synchronized List<Action> sync()
+      throws DigitalOceanException, RequestUnsuccessfulException, IOException {
+    if (!loaded) {
+      load();
+    }
+
+    final List<Action> result = new ArrayList<Action>();
+    final TreeSet<Integer> pending = new TreeSet<Integer>(inProgress);
+    final TreeSet<Integer> nextInProgress = new TreeSet<Integer>();
+    final long[] highest = {watermark};
+
+    int scanned = apiClient.forEachAction(new ElementVisitor<Action>() {
+      @Override
+      public boolean visit(Action action) {
+        int id = action.getId();
+        if (id <= watermark && (pending.isEmpty() || id < pending.first())) {
+          return false;
+        }
+
+        if (id > watermark) {
+          highest[0] = Math.max(highest[0], id);
+          result.add(action);
+          if (ActionStatus.IN_PROGRESS == action.getStatus()) {
+            nextInProgress.add(id);
+          }
+        } else if (pending.remove(id)) {
+          if (ActionStatus.IN_PROGRESS == action.getStatus()) {
+            nextInProgress.add(id);
+          } else {
+            result.add(action);
+          }
+        }
+        return true;
+      }
+    });
+
+    // ids no longer listed by the API can never change again
+    if (!pending.isEmpty()) {
+      log.debug("Dropping {} in-progress action(s) no longer listed", pending.size());
+    }
+
+    watermark = highest[0];
+    inProgress = nextInProgress;
+    store();
+
+    log.debug("Action sync scanned {} action(s), emitted {}, watermark {}", scanned,
+        result.size(), watermark);
+
+    Collections.reverse(result);
+    return result;
+  }
+
+  /**
+   * @return the highest action id seen so far
+   * @throws IOException if state file could not be read
+   */
+  public synchronized long getWatermark() throws IOException {
+    if (!loaded) {
+      load();
+    }
+    return watermark;
+  }
+
+  private void load() throws IOException {
+    if (stateFile.exists()) {
+      Properties props = new Properties();
+      InputStream in = new FileInputStream(stateFile);
+      try {
+        props.load(in);
+      } finally {
+        in.close();
+      }
+
+      watermark = Long.parseLong(props.getProperty(KEY_WATERMARK, "0"));
+      for (String id : StringUtils.split(props.getProperty(KEY_IN_PROGRESS, ""), ',')) {
+        inProgress.add(Integer.valueOf(id.trim()));
+      }
+    }
+    loaded = true;
+  }
+
+  private void store() throws IOException {
+    Properties props = new Properties();
+    props.setProperty(KEY_WATERMARK, String.valueOf(watermark));
+    props.setProperty(KEY_IN_PROGRESS, StringUtils.join(inProgress, ','));
+
+    // write aside and swap, so a crash never leaves a half written state file
+    File tmp = new File(stateFile.getAbsoluteFile().getParentFile(), stateFile.getName() + ".tmp");
+    OutputStream out = new FileOutputStream(tmp);
+    try {
+      props.store(out, "DigitalOcean action history sync state");
+    } finally {
+      out.close();
+    }
+    Files.move(tmp.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+}
@@ -0,0 +1,99 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.sync;
+
+import com.myjeeva.digitalocean.common.ApiAction;
+
+/**
+ * A single resource change between two {@link InventorySnapshot}s.
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class InventoryDelta {
+
+  /**
+   * Kind of change
+   */
+  public enum Kind {
+    ADDED, REMOVED, MODIFIED
+  }
+
+  private final Kind kind;
+
+  private final ApiAction resourceType;
+
+  private final String id;
+
+  private final Object previous;
+
+  private final Object current;
+
+  InventoryDelta(Kind kind, ApiAction resourceType, String id, Object previous, Object current) {
+    this.kind = kind;
+    this.resourceType = resourceType;
+    this.id = id;
+    this.previous = previous;
+    this.current = current;
+  }
+
+  /**
+   * @return the kind
+   */
+  public Kind getKind() {
+    return kind;
+  }
+
+  /**
+   * @return listing api action of the resource, e.g. <code>AVAILABLE_DROPLETS</code>
+   */
+  public ApiAction getResourceType() {
+    return resourceType;
+  }
+
+  /**
+   * @return the resource id, the address for floating IPs
+   */
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * @return the resource before the change, <code>null</code> when added
+   */
+  public Object getPrevious() {
+    return previous;
+  }
+
+  /**
+   * @return the resource after the change, <code>null</code> when removed
+   */
+  public Object getCurrent() {
+    return current;
+  }
+
+  @Override
+  public String toString() {
+    return "InventoryDelta [kind=" + kind + ", resourceType=" + resourceType + ", id=" + id + "]";
+  }
+}
@@ -0,0 +1,269 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.sync;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.myjeeva.digitalocean.DigitalOcean;
+import com.myjeeva.digitalocean.common.ApiAction;
+import com.myjeeva.digitalocean.common.Constants;
+import com.myjeeva.digitalocean.exception.DigitalOceanException;
+import com.myjeeva.digitalocean.exception.RequestUnsuccessfulException;
+import com.myjeeva.digitalocean.pojo.Droplet;
+import com.myjeeva.digitalocean.pojo.Firewall;
+import com.myjeeva.digitalocean.pojo.FloatingIP;
+import com.myjeeva.digitalocean.pojo.LoadBalancer;
+import com.myjeeva.digitalocean.pojo.Volume;
+import com.myjeeva.digitalocean.stream.ElementVisitor;
+
+/**
+ * <p>
+ * In-process mirror of the droplets, volumes, floating IPs, load balancers and firewalls of the
+ * account.
+ * </p>
+ * 
+ * <p>
+ * Each {@link #refresh()} streams the listing endpoints, compares every resource with the previous
+ * snapshot by id and content hash, publishes a new immutable {@link InventorySnapshot} and hands
+ * the added, removed and modified resources to the listeners. Unchanged resources keep their
+ * previous instance. A refresh either completes for all resource types or leaves the current
+ * snapshot in place.
+ * </p>
+ * 
+ * <pre>
+ * InventoryMirror mirror = new InventoryMirror(apiClient);
+ * mirror.addListener(listener);
+ * mirror.start(scheduler, 1, TimeUnit.MINUTES);
+ * Droplet droplet = mirror.getSnapshot().getDroplet(dropletId);
+ * </pre>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class InventoryMirror {
+
+  private static final Logger log = LoggerFactory.getLogger(InventoryMirror.class);
+
+  private static final ApiAction[] RESOURCE_TYPES = {ApiAction.AVAILABLE_DROPLETS,
+      ApiAction.AVAILABLE_VOLUMES, ApiAction.FLOATING_IPS, ApiAction.AVAILABLE_LOAD_BALANCERS,
+      ApiAction.AVAILABLE_FIREWALLS};
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private final DigitalOcean apiClient;
+
+  private final Gson gson = new GsonBuilder().setDateFormat(Constants.DATE_FORMAT).create();
+
+  private final List<InventoryListener> listeners = new CopyOnWriteArrayList<InventoryListener>();
+
+  private volatile InventorySnapshot snapshot = InventorySnapshot.EMPTY;
+
+  /**
+   * Constructor
+   * 
+   * @param apiClient a DigitalOcean client
+   */
+  public InventoryMirror(DigitalOcean apiClient) {
+    if (null == apiClient) {
+      throw new IllegalArgumentException("Missing required parameter - apiClient.");
+    }
+    this.apiClient = apiClient;
+  }
+
+  /**
+   * @return the latest published snapshot, empty before the first refresh
+   */
+  public InventorySnapshot getSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * @param listener receives the changes of each refresh
+   */
+  public void addListener(InventoryListener listener) {
+    if (null == listener) {
+      throw new IllegalArgumentException("Missing required parameter - listener.");
+    }
+    listeners.add(listener);
+  }
+
+  /**
+   * @param listener a registered listener
+   */
+  public void removeListener(InventoryListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Schedules periodic refreshes, the first one right away. Failed refreshes are logged and retried
+   * on the next run.
+   * 
+   * @param scheduler runs the refreshes
+   * @param period delay between the end of a refresh and the start of the next one
+   * @param unit unit of period
+   * @return handle to cancel the refreshes
+   */
+  public ScheduledFuture<?> start(ScheduledExecutorService scheduler, long period,
+      TimeUnit unit) {
+    return scheduler.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          refresh();
+        } catch (Exception e) {
+          log.error("Inventory refresh failed, keeping snapshot " + snapshot.getVersion(), e);
+        }
+      }
+    }, 0, period, unit);
+  }
+
+  /**
+   * Fetches all resources, publishes the new snapshot and notifies the listeners.
+   * 
+   * @return the changes against the previous snapshot
+   * @throws DigitalOceanException if request had interruption [
+   *         <code>HTTP status code &gt;= 400 &amp;&amp; &lt; 510</code>]
+   * @throws RequestUnsuccessfulException if any RESTful request unsuccessful from wrapper method
+   */
+  public synchronized List<InventoryDelta> refresh()
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    InventorySnapshot previous = snapshot;
+    Map<ApiAction, Map<String, Object>> elements =
+        new EnumMap<ApiAction, Map<String, Object>>(ApiAction.class);
+    Map<ApiAction, Map<String, Long>> hashes =
+        new EnumMap<ApiAction, Map<String, Long>>(ApiAction.class);
+    List<InventoryDelta> deltas = new ArrayList<InventoryDelta>();
+
+    for (ApiAction resourceType : RESOURCE_TYPES) {
+      Map<String, Object> currentElements = new LinkedHashMap<String, Object>();
+      Map<String, Long> currentHashes = new LinkedHashMap<String, Long>();
+      fetch(resourceType, currentElements, currentHashes);
+
+      diff(resourceType, previous, currentElements, currentHashes, deltas);
+      elements.put(resourceType, Collections.unmodifiableMap(currentElements));
+      hashes.put(resourceType, Collections.unmodifiableMap(currentHashes));
+    }
+
+    InventorySnapshot next =
+        new InventorySnapshot(elements, hashes, previous.getVersion() + 1, new Date());
+    snapshot = next;
+    log.debug("Published {} with {} change(s)", next, deltas.size());
+
+    if (!deltas.isEmpty()) {
+      List<InventoryDelta> published = Collections.unmodifiableList(deltas);
+      for (InventoryListener listener : listeners) {
+        try {
+          listener.onChange(published, next);
+        } catch (RuntimeException e) {
+          log.error("Inventory listener failed", e);
+        }
+      }
+    }
+    return deltas;
+  }
+
+  private void fetch(final ApiAction resourceType, final Map<String, Object> currentElements,
+      final Map<String, Long> currentHashes)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    apiClient.forEachElement(resourceType, null, null, new ElementVisitor<Object>() {
+      @Override
+      public boolean visit(Object element) {
+        String id = idOf(element);
+        currentElements.put(id, element);
+        currentHashes.put(id, hash(gson.toJson(element)));
+        return true;
+      }
+    });
+  }
+
+  private static void diff(ApiAction resourceType, InventorySnapshot previous,
+      Map<String, Object> currentElements, Map<String, Long> currentHashes,
+      List<InventoryDelta> deltas) {
+    Map<String, Object> previousElements = previous.elements(resourceType);
+    Map<String, Long> previousHashes = previous.hashes(resourceType);
+
+    for (Map.Entry<String, Object> entry : currentElements.entrySet()) {
+      String id = entry.getKey();
+      Long previousHash = previousHashes.get(id);
+      if (null == previousHash) {
+        deltas.add(new InventoryDelta(InventoryDelta.Kind.ADDED, resourceType, id, null,
+            entry.getValue()));
+      } else if (!previousHash.equals(currentHashes.get(id))) {
+        deltas.add(new InventoryDelta(InventoryDelta.Kind.MODIFIED, resourceType, id,
+            previousElements.get(id), entry.getValue()));
+      } else {
+        // unchanged, readers keep seeing the same instance
+        entry.setValue(previousElements.get(id));
+      }
+    }
+
+    for (Map.Entry<String, Object> entry : previousElements.entrySet()) {
+      if (!currentElements.containsKey(entry.getKey())) {
+        deltas.add(new InventoryDelta(InventoryDelta.Kind.REMOVED, resourceType, entry.getKey(),
+            entry.getValue(), null));
+      }
+    }
+  }
+
+  private static String idOf(Object element) {
+    if (element instanceof Droplet) {
+      return String.valueOf(((Droplet) element).getId());
+    } else if (element instanceof Volume) {
+      return ((Volume) element).getId();
+    } else if (element instanceof FloatingIP) {
+      return ((FloatingIP) element).getIp();
+    } else if (element instanceof LoadBalancer) {
+      return ((LoadBalancer) element).getId();
+    } else if (element instanceof Firewall) {
+      return ((Firewall) element).getId();
+    }
+    throw new IllegalStateException("Unsupported inventory element " + element.getClass());
+  }
+
+  // 64-bit FNV-1a over the JSON form, cheap and stable across runs
+  private static long hash(String json) {
+    long hash = FNV_OFFSET_BASIS;
+    for (int i = 0; i < json.length(); i++) {
+      hash ^= json.charAt(i);
+      hash *= FNV_PRIME;
+    }
+    return hash;
+  }
+}
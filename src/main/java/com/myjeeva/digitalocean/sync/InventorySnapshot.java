@@ -0,0 +1,184 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.sync;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.myjeeva.digitalocean.common.ApiAction;
+import com.myjeeva.digitalocean.pojo.Droplet;
+import com.myjeeva.digitalocean.pojo.Firewall;
+import com.myjeeva.digitalocean.pojo.FloatingIP;
+import com.myjeeva.digitalocean.pojo.LoadBalancer;
+import com.myjeeva.digitalocean.pojo.Volume;
+
+/**
+ * Immutable point-in-time view of the mirrored inventory. A snapshot never changes once
+ * published, so it can be read from any thread without locking.
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class InventorySnapshot {
+
+  static final InventorySnapshot EMPTY = new InventorySnapshot(
+      new EnumMap<ApiAction, Map<String, Object>>(ApiAction.class),
+      new EnumMap<ApiAction, Map<String, Long>>(ApiAction.class), 0, null);
+
+  private final Map<ApiAction, Map<String, Object>> elements;
+
+  private final Map<ApiAction, Map<String, Long>> hashes;
+
+  private final long version;
+
+  private final Date refreshedAt;
+
+  InventorySnapshot(Map<ApiAction, Map<String, Object>> elements,
+      Map<ApiAction, Map<String, Long>> hashes, long version, Date refreshedAt) {
+    this.elements = elements;
+    this.hashes = hashes;
+    this.version = version;
+    this.refreshedAt = refreshedAt;
+  }
+
+  /**
+   * @return all droplets
+   */
+  public Collection<Droplet> getDroplets() {
+    return values(ApiAction.AVAILABLE_DROPLETS);
+  }
+
+  /**
+   * @param dropletId a droplet id
+   * @return the droplet or <code>null</code>
+   */
+  public Droplet getDroplet(Integer dropletId) {
+    return get(ApiAction.AVAILABLE_DROPLETS, String.valueOf(dropletId));
+  }
+
+  /**
+   * @return all volumes
+   */
+  public Collection<Volume> getVolumes() {
+    return values(ApiAction.AVAILABLE_VOLUMES);
+  }
+
+  /**
+   * @param volumeId a volume id
+   * @return the volume or <code>null</code>
+   */
+  public Volume getVolume(String volumeId) {
+    return get(ApiAction.AVAILABLE_VOLUMES, volumeId);
+  }
+
+  /**
+   * @return all floating IPs
+   */
+  public Collection<FloatingIP> getFloatingIPs() {
+    return values(ApiAction.FLOATING_IPS);
+  }
+
+  /**
+   * @param ipAddress a floating IP address
+   * @return the floating IP or <code>null</code>
+   */
+  public FloatingIP getFloatingIP(String ipAddress) {
+    return get(ApiAction.FLOATING_IPS, ipAddress);
+  }
+
+  /**
+   * @return all load balancers
+   */
+  public Collection<LoadBalancer> getLoadBalancers() {
+    return values(ApiAction.AVAILABLE_LOAD_BALANCERS);
+  }
+
+  /**
+   * @param loadBalancerId a load balancer id
+   * @return the load balancer or <code>null</code>
+   */
+  public LoadBalancer getLoadBalancer(String loadBalancerId) {
+    return get(ApiAction.AVAILABLE_LOAD_BALANCERS, loadBalancerId);
+  }
+
+  /**
+   * @return all firewalls
+   */
+  public Collection<Firewall> getFirewalls() {
+    return values(ApiAction.AVAILABLE_FIREWALLS);
+  }
+
+  /**
+   * @param firewallId a firewall id
+   * @return the firewall or <code>null</code>
+   */
+  public Firewall getFirewall(String firewallId) {
+    return get(ApiAction.AVAILABLE_FIREWALLS, firewallId);
+  }
+
+  /**
+   * @return no. of refreshes which produced this snapshot, <code>0</code> before the first one
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * @return completion time of the refresh, <code>null</code> before the first one
+   */
+  public Date getRefreshedAt() {
+    return null == refreshedAt ? null : new Date(refreshedAt.getTime());
+  }
+
+  Map<String, Object> elements(ApiAction resourceType) {
+    Map<String, Object> map = elements.get(resourceType);
+    return null == map ? Collections.<String, Object>emptyMap() : map;
+  }
+
+  Map<String, Long> hashes(ApiAction resourceType) {
+    Map<String, Long> map = hashes.get(resourceType);
+    return null == map ? Collections.<String, Long>emptyMap() : map;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> Collection<T> values(ApiAction resourceType) {
+    return (Collection<T>) Collections.unmodifiableCollection(elements(resourceType).values());
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T get(ApiAction resourceType, String id) {
+    return (T) elements(resourceType).get(id);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("InventorySnapshot [version=").append(version);
+    for (Map.Entry<ApiAction, Map<String, Object>> entry : elements.entrySet()) {
+      sb.append(", ").append(entry.getKey()).append('=').append(entry.getValue().size());
+    }
+    return sb.append(']').toString();
+  }
+}
@@ -0,0 +1,138 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.workflow;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+/**
+ * Outcome and timings of one {@link Workflow} step.
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class StepResult {
+
+  private final String name;
+
+  private final List<String> dependencies;
+
+  private StepStatus status = StepStatus.SKIPPED;
+
+  private Object value;
+
+  private Exception error;
+
+  private long startedAt;
+
+  private long finishedAt;
+
+  StepResult(String name, List<String> dependencies) {
+    this.name = name;
+    this.dependencies = Collections.unmodifiableList(dependencies);
+  }
+
+  void started(long time) {
+    this.startedAt = time;
+  }
+
+  void succeeded(Object result, long time) {
+    this.status = StepStatus.SUCCEEDED;
+    this.value = result;
+    this.finishedAt = time;
+  }
+
+  void failed(Exception e, long time) {
+    this.status = StepStatus.FAILED;
+    this.error = e;
+    this.finishedAt = time;
+  }
+
+  void skipped(Exception cause) {
+    this.status = StepStatus.SKIPPED;
+    this.error = cause;
+  }
+
+  @Override
+  public String toString() {
+    return ReflectionToStringBuilder.toString(this);
+  }
+
+  /**
+   * @return the step name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return names of the steps this step waited for
+   */
+  public List<String> getDependencies() {
+    return dependencies;
+  }
+
+  /**
+   * @return the status
+   */
+  public StepStatus getStatus() {
+    return status;
+  }
+
+  /**
+   * @return the result of the task; the final action for a task returning an action
+   */
+  public Object getValue() {
+    return value;
+  }
+
+  /**
+   * @return why the step failed or was skipped, <code>null</code> on success
+   */
+  public Exception getError() {
+    return error;
+  }
+
+  /**
+   * @return start time in milliseconds since epoch, 0 if the step never ran
+   */
+  public long getStartedAt() {
+    return startedAt;
+  }
+
+  /**
+   * @return finish time in milliseconds since epoch, 0 if the step never ran
+   */
+  public long getFinishedAt() {
+    return finishedAt;
+  }
+
+  /**
+   * @return time from start of the task until completion of its action, in milliseconds
+   */
+  public long getDurationMillis() {
+    return 0 == startedAt || 0 == finishedAt ? 0 : finishedAt - startedAt;
+  }
+}
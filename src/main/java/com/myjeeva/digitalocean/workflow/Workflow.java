@@ -0,0 +1,394 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.workflow;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.myjeeva.digitalocean.action.ActionCallback;
+import com.myjeeva.digitalocean.action.ActionFuture;
+import com.myjeeva.digitalocean.action.ActionTracker;
+import com.myjeeva.digitalocean.batch.RateBudget;
+import com.myjeeva.digitalocean.common.ActionStatus;
+import com.myjeeva.digitalocean.exception.RequestUnsuccessfulException;
+import com.myjeeva.digitalocean.pojo.Action;
+
+/**
+ * <p>
+ * Runs dependent API operations as a directed acyclic graph of named steps. A step starts once all
+ * the steps it depends on succeeded, so independent branches run concurrently on a bounded pool,
+ * each task taking a permit from an optional {@link RateBudget}. A task returning an in-progress
+ * {@link Action} is followed on an {@link ActionTracker} and the step is done once the action
+ * completed.
+ * </p>
+ * 
+ * <p>
+ * A failing step does not stop independent branches; every step depending on it, directly or not,
+ * is skipped. {@link WorkflowResult} reports status, result and timings of every step.
+ * </p>
+ * 
+ * <pre>
+ * WorkflowResult result = new Workflow(tracker, 4, budget)
+ *     .step("volume", createVolume)
+ *     .step("droplet", createDroplet)
+ *     .step("attach", attachVolume, "volume", "droplet")
+ *     .step("floating-ip", assignFloatingIP, "droplet")
+ *     .step("load-balancer", addToLoadBalancer, "attach")
+ *     .step("firewall", addToFirewall, "droplet")
+ *     .run(20, TimeUnit.MINUTES);
+ * </pre>
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class Workflow {
+
+  private static final Logger log = LoggerFactory.getLogger(Workflow.class);
+
+  private final ActionTracker tracker;
+
+  private final int parallelism;
+
+  private final RateBudget budget;
+
+  private final Map<String, Step> steps = new LinkedHashMap<String, Step>();
+
+  /**
+   * Constructor
+   * 
+   * @param tracker tracker following the actions returned by tasks
+   * @param parallelism max. no. of tasks running at the same time
+   * @param budget rate budget every task takes a permit from, can be null
+   */
+  public Workflow(ActionTracker tracker, int parallelism, RateBudget budget) {
+    if (null == tracker || parallelism < 1) {
+      throw new IllegalArgumentException("Missing or invalid parameters [tracker, parallelism].");
+    }
+
+    this.tracker = tracker;
+    this.parallelism = parallelism;
+    this.budget = budget;
+  }
+
+  /**
+   * Adds a step.
+   * 
+   * @param name unique step name
+   * @param task work of the step
+   * @param dependsOn names of the steps which must succeed first, declared before or after
+   * @return this workflow
+   */
+  public Workflow step(String name, StepTask<?> task, String... dependsOn) {
+    if (StringUtils.isBlank(name) || null == task) {
+      throw new IllegalArgumentException("Missing required parameters [name, task].");
+    }
+    if (steps.containsKey(name)) {
+      throw new IllegalArgumentException("Duplicate step name - " + name + ".");
+    }
+    steps.put(name, new Step(name, task, Arrays.asList(dependsOn)));
+    return this;
+  }
+
+  /**
+   * Runs all steps, each at most once.
+   * 
+   * @param timeout maximum time for the whole run; steps still running then fail
+   * @param unit unit of timeout
+   * @return status, result and timings per step
+   * @throws IllegalArgumentException if a dependency is unknown or the steps form a cycle
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public WorkflowResult run(long timeout, TimeUnit unit) throws InterruptedException {
+    if (timeout < 1 || null == unit) {
+      throw new IllegalArgumentException("timeout must be greater than zero.");
+    }
+    Map<String, List<String>> dependants = validate();
+
+    long begin = System.currentTimeMillis();
+    long deadline = begin + unit.toMillis(timeout);
+    WorkflowContext context = new WorkflowContext();
+    BlockingQueue<Completion> completions = new LinkedBlockingQueue<Completion>();
+    List<ActionFuture> futures = Collections.synchronizedList(new ArrayList<ActionFuture>());
+    Map<String, StepResult> results = new LinkedHashMap<String, StepResult>();
+    Map<String, Integer> waitingFor = new HashMap<String, Integer>();
+    for (Step step : steps.values()) {
+      results.put(step.name, new StepResult(step.name, step.dependsOn));
+      waitingFor.put(step.name, step.dependsOn.size());
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    int running = 0;
+    try {
+      for (Step step : steps.values()) {
+        if (step.dependsOn.isEmpty()) {
+          executor.execute(new Execution(step, context, deadline, completions, futures));
+          running++;
+        }
+      }
+
+      while (running > 0) {
+        long remaining = deadline - System.currentTimeMillis();
+        Completion completion =
+            remaining > 0 ? completions.poll(remaining, TimeUnit.MILLISECONDS) : null;
+        if (null == completion) {
+          break;
+        }
+        running--;
+
+        StepResult result = results.get(completion.step);
+        result.started(completion.startedAt);
+        Exception error = completion.resolve();
+        if (null != error) {
+          log.warn("Workflow step {} failed: {}", completion.step, error.getMessage());
+          result.failed(error, completion.finishedAt);
+          continue;
+        }
+
+        result.succeeded(completion.value, completion.finishedAt);
+        context.put(completion.step, completion.value);
+        for (String dependant : dependants.get(completion.step)) {
+          int left = waitingFor.get(dependant) - 1;
+          waitingFor.put(dependant, left);
+          if (0 == left) {
+            executor.execute(
+                new Execution(steps.get(dependant), context, deadline, completions, futures));
+            running++;
+          }
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+      synchronized (futures) {
+        for (ActionFuture future : futures) {
+          future.cancel(false);
+        }
+      }
+    }
+
+    finish(results, waitingFor);
+    return new WorkflowResult(results, System.currentTimeMillis() - begin);
+  }
+
+  private void finish(Map<String, StepResult> results, Map<String, Integer> waitingFor) {
+    long now = System.currentTimeMillis();
+    for (StepResult result : results.values()) {
+      if (StepStatus.SKIPPED != result.getStatus()) {
+        continue;
+      }
+      if (0 == waitingFor.get(result.getName())) {
+        result.failed(new TimeoutException("Step " + result.getName() + " not finished in time."),
+            now);
+        continue;
+      }
+      for (String dependency : result.getDependencies()) {
+        StepStatus status = results.get(dependency).getStatus();
+        if (StepStatus.SUCCEEDED != status) {
+          result.skipped(new CancellationException(
+              "Dependency " + dependency + " " + status.name().toLowerCase() + "."));
+          break;
+        }
+      }
+    }
+  }
+
+  private Map<String, List<String>> validate() {
+    Map<String, List<String>> dependants = new HashMap<String, List<String>>();
+    Map<String, Integer> inDegree = new HashMap<String, Integer>();
+    for (Step step : steps.values()) {
+      dependants.put(step.name, new ArrayList<String>());
+      inDegree.put(step.name, step.dependsOn.size());
+    }
+    for (Step step : steps.values()) {
+      for (String dependency : step.dependsOn) {
+        if (!steps.containsKey(dependency)) {
+          throw new IllegalArgumentException(
+              "Step " + step.name + " depends on unknown step " + dependency + ".");
+        }
+        dependants.get(dependency).add(step.name);
+      }
+    }
+
+    Deque<String> ready = new ArrayDeque<String>();
+    for (Map.Entry<String, Integer> entry : inDegree.entrySet()) {
+      if (0 == entry.getValue()) {
+        ready.add(entry.getKey());
+      }
+    }
+    int ordered = 0;
+    while (!ready.isEmpty()) {
+      ordered++;
+      for (String dependant : dependants.get(ready.poll())) {
+        int left = inDegree.get(dependant) - 1;
+        inDegree.put(dependant, left);
+        if (0 == left) {
+          ready.add(dependant);
+        }
+      }
+    }
+    if (ordered < steps.size()) {
+      List<String> cyclic = new ArrayList<String>();
+      for (Map.Entry<String, Integer> entry : inDegree.entrySet()) {
+        if (entry.getValue() > 0) {
+          cyclic.add(entry.getKey());
+        }
+      }
+      throw new IllegalArgumentException("Steps " + cyclic + " form a dependency cycle.");
+    }
+    return dependants;
+  }
+
+  private static class Step {
+
+    private final String name;
+
+    private final StepTask<?> task;
+
+    private final List<String> dependsOn;
+
+    Step(String name, StepTask<?> task, List<String> dependsOn) {
+      this.name = name;
+      this.task = task;
+      this.dependsOn = dependsOn;
+    }
+  }
+
+  /**
+   * Runs one step task on the pool and reports its completion, after its action if any.
+   */
+  private class Execution implements Runnable {
+
+    private final Step step;
+
+    private final WorkflowContext context;
+
+    private final long deadline;
+
+    private final BlockingQueue<Completion> completions;
+
+    private final List<ActionFuture> futures;
+
+    Execution(Step step, WorkflowContext context, long deadline,
+        BlockingQueue<Completion> completions, List<ActionFuture> futures) {
+      this.step = step;
+      this.context = context;
+      this.deadline = deadline;
+      this.completions = completions;
+      this.futures = futures;
+    }
+
+    @Override
+    public void run() {
+      final long startedAt = System.currentTimeMillis();
+      try {
+        if (null != budget) {
+          budget.acquire();
+        }
+        Object value = step.task.execute(context);
+        if (value instanceof Action && ActionStatus.IN_PROGRESS == ((Action) value).getStatus()) {
+          ActionFuture future = tracker.track((Action) value,
+              Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+          futures.add(future);
+          future.addCallback(new ActionCallback() {
+            @Override
+            public void onDone(ActionFuture done) {
+              completions.add(new Completion(step.name, startedAt, null, done, null));
+            }
+          });
+          return;
+        }
+        completions.add(new Completion(step.name, startedAt, value, null, null));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        completions.add(new Completion(step.name, startedAt, null, null, e));
+      } catch (Exception e) {
+        completions.add(new Completion(step.name, startedAt, null, null, e));
+      }
+    }
+  }
+
+  private static class Completion {
+
+    private final String step;
+
+    private final long startedAt;
+
+    private final long finishedAt = System.currentTimeMillis();
+
+    private Object value;
+
+    private final ActionFuture future;
+
+    private final Exception error;
+
+    Completion(String step, long startedAt, Object value, ActionFuture future, Exception error) {
+      this.step = step;
+      this.startedAt = startedAt;
+      this.value = value;
+      this.future = future;
+      this.error = error;
+    }
+
+    Exception resolve() {
+      if (null != error) {
+        return error;
+      }
+      if (null != future) {
+        try {
+          value = future.get();
+        } catch (ExecutionException e) {
+          return e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (CancellationException e) {
+          return e;
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return e;
+        }
+      }
+      if (value instanceof Action && ActionStatus.ERRORED == ((Action) value).getStatus()) {
+        Action action = (Action) value;
+        return new RequestUnsuccessfulException(
+            "Action " + action.getId() + " (" + action.getType() + ") errored.");
+      }
+      return null;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.workflow;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+/**
+ * Outcome of a {@link Workflow} run, with the result and timings of every step.
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * @since v2.18
+ */
+public class WorkflowResult {
+
+  private final Map<String, StepResult> steps;
+
+  private final long elapsedMillis;
+
+  WorkflowResult(Map<String, StepResult> steps, long elapsedMillis) {
+    this.steps = Collections.unmodifiableMap(new LinkedHashMap<String, StepResult>(steps));
+    this.elapsedMillis = elapsedMillis;
+  }
+
+  @Override
+  public String toString() {
+    return ReflectionToStringBuilder.toString(this);
+  }
+
+  /**
+   * @return result per step name, in declaration order
+   */
+  public Map<String, StepResult> getSteps() {
+    return steps;
+  }
+
+  /**
+   * @param stepName the step name
+   * @return result of given step
+   */
+  public StepResult getStep(String stepName) {
+    return steps.get(stepName);
+  }
+
+  /**
+   * @return wall-clock time of the run in milliseconds, i.e. its critical path
+   */
+  public long getElapsedMillis() {
+    return elapsedMillis;
+  }
+
+  /**
+   * @return sum of the step durations in milliseconds, i.e. the time of a sequential run
+   */
+  public long getTotalStepMillis() {
+    long total = 0;
+    for (StepResult step : steps.values()) {
+      total += step.getDurationMillis();
+    }
+    return total;
+  }
+
+  /**
+   * @return <code>true</code> if every step succeeded
+   */
+  public boolean isSuccessful() {
+    for (StepResult step : steps.values()) {
+      if (StepStatus.SUCCEEDED != step.getStatus()) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -23,6 +23,7 @@ package com.myjeeva.digitalocean;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -37,6 +38,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.myjeeva.digitalocean.common.ActionType;
+import com.myjeeva.digitalocean.common.ApiAction;
 import com.myjeeva.digitalocean.common.LoadBalancingAlgorithm;
 import com.myjeeva.digitalocean.common.Protocol;
 import com.myjeeva.digitalocean.common.ResourceType;
@@ -90,6 +92,8 @@ import com.myjeeva.digitalocean.pojo.Tag;
 import com.myjeeva.digitalocean.pojo.Tags;
 import com.myjeeva.digitalocean.pojo.Volume;
 import com.myjeeva.digitalocean.pojo.Volumes;
+import com.myjeeva.digitalocean.serializer.FieldProjection;
+import com.myjeeva.digitalocean.stream.ElementVisitor;
 
 /**
  * <p>
@@ -487,6 +491,30 @@ public class DigitalOceanIntegrationTest {
     log.info(action.toString());
   }
 
+  @Test
+  public void testPowerCycleDropletsByTagName() throws DigitalOceanException,
+      RequestUnsuccessfulException {
+
+    Actions actions = apiClient.powerCycleDropletsByTagName("mytagtest1");
+
+    assertNotNull(actions);
+    for (Action a : actions.getActions()) {
+      log.info(a.toString());
+    }
+  }
+
+  @Test
+  public void testTakeDropletSnapshotByTagName() throws DigitalOceanException,
+      RequestUnsuccessfulException {
+
+    Actions actions = apiClient.takeDropletSnapshotByTagName("mytagtest1", "tagged-snapshot");
+
+    assertNotNull(actions);
+    for (Action a : actions.getActions()) {
+      log.info(a.toString());
+    }
+  }
+
   // Account Test cases
 
   @Test
@@ -1552,4 +1580,52 @@ public class DigitalOceanIntegrationTest {
     }
   }
 
+  // Streaming test cases
+
+  @Test
+  public void testForEachDroplet() throws DigitalOceanException, RequestUnsuccessfulException {
+    int count = apiClient.forEachDroplet(new ElementVisitor<Droplet>() {
+      private int i = 1;
+
+      @Override
+      public boolean visit(Droplet droplet) {
+        assertNotNull(droplet.getId());
+        log.info(i++ + " -> " + droplet.toString());
+        return true;
+      }
+    });
+
+    assertTrue(count > 0);
+  }
+
+  @Test
+  public void testGetAvailableDropletsWithProjection() throws DigitalOceanException,
+      RequestUnsuccessfulException {
+    FieldProjection projection = FieldProjection.of("id", "name", "networks.v4");
+    Droplets droplets = apiClient.getAvailableDroplets(1, null, projection);
+
+    assertNotNull(droplets);
+    for (Droplet droplet : droplets.getDroplets()) {
+      assertNotNull(droplet.getId());
+      assertNull(droplet.getImage());
+      log.info(droplet.toString());
+    }
+  }
+
+  @Test
+  public void testForEachDomainRecord() throws DigitalOceanException,
+      RequestUnsuccessfulException {
+    Object[] params = {domainName};
+    int count = apiClient.forEachElement(ApiAction.GET_DOMAIN_RECORDS, params, null,
+        new ElementVisitor<DomainRecord>() {
+          @Override
+          public boolean visit(DomainRecord record) {
+            log.info(record.toString());
+            return true;
+          }
+        });
+
+    assertTrue(count > 0);
+  }
+
 }
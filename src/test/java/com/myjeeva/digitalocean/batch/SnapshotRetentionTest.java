@@ -0,0 +1,195 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.impl.execchain.StubHttpClient;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.myjeeva.digitalocean.impl.DigitalOceanClient;
+import com.myjeeva.digitalocean.pojo.Snapshot;
+
+/**
+ * Unit tests of {@link RetentionPolicy} and {@link SnapshotRetention}
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ */
+@RunWith(JUnit4.class)
+public class SnapshotRetentionTest {
+
+  private static final String VOLUME = "82a48a18-873f-11e6-96bf-000f53315a41";
+
+  private SnapshotApi httpClient;
+
+  private SnapshotRetention retention;
+
+  @Before
+  public void setUp() {
+    httpClient = new SnapshotApi();
+    retention = new SnapshotRetention(new DigitalOceanClient("v2", "token", httpClient), 2, null);
+  }
+
+  private static String snapshot(String id, String resourceId, int ageDays, String... tags) {
+    SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+    format.setTimeZone(TimeZone.getTimeZone("UTC"));
+    String createdAt =
+        format.format(new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(ageDays)));
+
+    StringBuilder sb = new StringBuilder("{\"id\":").append(id).append(",\"name\":\"s-")
+        .append(ageDays).append("\",\"created_at\":\"").append(createdAt)
+        .append("\",\"resource_id\":\"").append(resourceId).append("\",\"resource_type\":\"")
+        .append(resourceId.length() > 10 ? "volume" : "droplet").append("\",\"tags\":[");
+    for (int i = 0; i < tags.length; i++) {
+      sb.append(i > 0 ? "," : "").append('"').append(tags[i]).append('"');
+    }
+    return sb.append("]}").toString();
+  }
+
+  private static List<String> ids(List<Snapshot> snapshots) {
+    List<String> ids = new ArrayList<String>();
+    for (Snapshot snapshot : snapshots) {
+      ids.add(snapshot.getSnapshotId());
+    }
+    Collections.sort(ids);
+    return ids;
+  }
+
+  @Test
+  public void testMinMaxAndAge() throws Exception {
+    httpClient.snapshots = Arrays.asList(snapshot("5", "1", 5), snapshot("1", "1", 1),
+        snapshot("40", "1", 40), snapshot("3", "1", 3), snapshot("100", "1", 100, "keep"),
+        snapshot("2", "1", 2), snapshot("4", "1", 4), snapshot("\"v-60\"", VOLUME, 60),
+        snapshot("\"v-50\"", VOLUME, 50));
+
+    RetentionPolicy policy = new RetentionPolicy();
+    policy.setMaxAge(30, TimeUnit.DAYS);
+    policy.setMaxPerResource(3);
+    policy.setMinPerResource(2);
+    policy.setProtectedTags(Arrays.asList("keep"));
+    retention.setDryRun(true);
+    RetentionResult result = retention.run(policy);
+
+    // 1, 2 and 3 are the newest, the min. count protects both old volume snapshots
+    assertEquals(Arrays.asList("4", "40", "5"), ids(result.getExpired()));
+    assertEquals(9, result.getEvaluatedCount());
+    assertTrue(result.getDeleted().isEmpty());
+    assertEquals(0, httpClient.deletes().size());
+  }
+
+  @Test
+  public void testAgeOnlyKeepsMinCount() throws Exception {
+    httpClient.snapshots = Arrays.asList(snapshot("10", "1", 10), snapshot("40", "1", 40),
+        snapshot("50", "1", 50), snapshot("\"v-60\"", VOLUME, 60),
+        snapshot("\"v-70\"", VOLUME, 70));
+
+    RetentionPolicy policy = new RetentionPolicy();
+    policy.setMaxAge(30, TimeUnit.DAYS);
+    policy.setMinPerResource(1);
+    RetentionResult result = retention.run(policy);
+
+    assertEquals(Arrays.asList("40", "50", "v-70"), ids(result.getExpired()));
+    assertEquals(ids(result.getExpired()), ids(result.getDeleted()));
+    assertEquals(Arrays.asList("DELETE /v2/snapshots/40", "DELETE /v2/snapshots/50",
+        "DELETE /v2/snapshots/v-70"), httpClient.deletes());
+  }
+
+  @Test
+  public void testAgeWithoutRanking() throws Exception {
+    httpClient.snapshots = Arrays.asList(snapshot("10", "1", 10), snapshot("40", "1", 40),
+        snapshot("\"v-60\"", VOLUME, 60, "keep"));
+
+    RetentionPolicy policy = new RetentionPolicy();
+    policy.setMaxAge(30, TimeUnit.DAYS);
+    policy.setProtectedTags(Arrays.asList("keep"));
+    retention.setDryRun(true);
+
+    assertEquals(Arrays.asList("40"), ids(retention.run(policy).getExpired()));
+  }
+
+  @Test
+  public void testFailedDeleteIsReported() throws Exception {
+    httpClient.snapshots = Arrays.asList(snapshot("1", "1", 1), snapshot("2", "1", 2));
+    httpClient.deleteStatus = HttpStatus.SC_NOT_FOUND;
+
+    RetentionPolicy policy = new RetentionPolicy();
+    policy.setMaxPerResource(1);
+    RetentionResult result = retention.run(policy);
+
+    assertEquals(Arrays.asList("2"), ids(result.getExpired()));
+    assertTrue(result.getDeleted().isEmpty());
+    assertEquals(1, result.getFailures().size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeMaxAge() {
+    new RetentionPolicy().setMaxAge(-1, TimeUnit.DAYS);
+  }
+
+  private static class SnapshotApi extends StubHttpClient {
+
+    private List<String> snapshots = Collections.emptyList();
+
+    private int deleteStatus = HttpStatus.SC_NO_CONTENT;
+
+    List<String> deletes() {
+      List<String> deletes = new ArrayList<String>();
+      for (String request : getRequests()) {
+        if (request.startsWith("DELETE ")) {
+          deletes.add(request);
+        }
+      }
+      Collections.sort(deletes);
+      return deletes;
+    }
+
+    @Override
+    protected HttpResponse respond(String method, String path) {
+      if ("DELETE".equals(method)) {
+        return response(deleteStatus,
+            HttpStatus.SC_NO_CONTENT == deleteStatus ? null : "{\"id\":\"not_found\"}");
+      }
+
+      StringBuilder body = new StringBuilder("{\"snapshots\":[");
+      for (int i = 0; i < snapshots.size(); i++) {
+        body.append(i > 0 ? "," : "").append(snapshots.get(i));
+      }
+      body.append("],\"meta\":{\"total\":").append(snapshots.size()).append("}}");
+      return response(HttpStatus.SC_OK, body.toString());
+    }
+  }
+}
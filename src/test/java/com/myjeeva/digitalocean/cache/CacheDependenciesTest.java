@@ -0,0 +1,158 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.impl.execchain.StubHttpClient;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.myjeeva.digitalocean.common.ApiAction;
+import com.myjeeva.digitalocean.impl.DigitalOceanClient;
+
+/**
+ * Unit tests of {@link CacheDependencies} and the cache invalidation of the client
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ */
+@RunWith(JUnit4.class)
+public class CacheDependenciesTest {
+
+  private DropletApi httpClient;
+
+  private DigitalOceanClient apiClient;
+
+  @Before
+  public void setUp() {
+    ReadThroughCache cache = new ReadThroughCache(100);
+    cache.setTimeToLive(ApiAction.GET_DROPLET_INFO, 1, TimeUnit.HOURS);
+    cache.setTimeToLive(ApiAction.AVAILABLE_DROPLETS, 1, TimeUnit.HOURS);
+
+    httpClient = new DropletApi();
+    apiClient = new DigitalOceanClient("v2", "token", httpClient);
+    apiClient.setReadThroughCache(cache);
+  }
+
+  @Test
+  public void testDefaults() {
+    CacheDependencies dependencies = CacheDependencies.defaults();
+    List<CacheDependencies.Dependency> deleteDroplet =
+        dependencies.get(ApiAction.DELETE_DROPLET);
+    assertTrue(deleteDroplet.contains(new CacheDependencies.Dependency(
+        ApiAction.GET_DROPLET_INFO, true)));
+    assertTrue(deleteDroplet.contains(new CacheDependencies.Dependency(
+        ApiAction.AVAILABLE_DROPLETS, false)));
+    assertTrue(dependencies.get(ApiAction.AVAILABLE_DROPLETS).isEmpty());
+  }
+
+  @Test
+  public void testAddIgnoresDuplicates() {
+    CacheDependencies dependencies = new CacheDependencies();
+    dependencies.add(ApiAction.CREATE_TAG, ApiAction.AVAILABLE_TAGS, false);
+    dependencies.add(ApiAction.CREATE_TAG, ApiAction.AVAILABLE_TAGS, false);
+    dependencies.add(ApiAction.CREATE_TAG, ApiAction.AVAILABLE_TAGS, true);
+    assertEquals(2, dependencies.get(ApiAction.CREATE_TAG).size());
+    assertEquals("AVAILABLE_TAGS/{id}",
+        dependencies.get(ApiAction.CREATE_TAG).get(1).toString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddRejectsReadAsMutation() {
+    new CacheDependencies().add(ApiAction.AVAILABLE_TAGS, ApiAction.GET_TAG, false);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddRejectsMutationAsRead() {
+    new CacheDependencies().add(ApiAction.CREATE_TAG, ApiAction.DELETE_TAG, false);
+  }
+
+  @Test
+  public void testKeyedDependencyDropsSameResourceOnly() throws Exception {
+    apiClient.getDropletInfo(42);
+    apiClient.getDropletInfo(420);
+    apiClient.getDropletInfo(42);
+    assertEquals(2, httpClient.getRequests().size());
+
+    apiClient.deleteDroplet(42);
+    apiClient.getDropletInfo(42);
+    apiClient.getDropletInfo(420);
+
+    assertEquals(4, httpClient.getRequests().size());
+    assertTrue(httpClient.getRequests().get(3).endsWith("GET /v2/droplets/42"));
+  }
+
+  @Test
+  public void testUnkeyedDependencyDropsEveryPage() throws Exception {
+    apiClient.getAvailableDroplets(1, 10);
+    apiClient.getAvailableDroplets(2, 10);
+    apiClient.getAvailableDroplets(1, 10);
+    assertEquals(2, httpClient.getRequests().size());
+
+    apiClient.deleteDroplet(7);
+    apiClient.getAvailableDroplets(1, 10);
+    apiClient.getAvailableDroplets(2, 10);
+    assertEquals(5, httpClient.getRequests().size());
+  }
+
+  @Test
+  public void testFailedMutationKeepsCachedResponses() throws Exception {
+    apiClient.getDropletInfo(42);
+    httpClient.deleteStatus = HttpStatus.SC_UNPROCESSABLE_ENTITY;
+    try {
+      apiClient.deleteDroplet(42);
+    } catch (Exception e) {
+      // expected
+    }
+    apiClient.getDropletInfo(42);
+
+    assertEquals(2, httpClient.getRequests().size());
+    assertFalse(httpClient.getRequests().get(1).startsWith("GET"));
+  }
+
+  private static class DropletApi extends StubHttpClient {
+
+    private int deleteStatus = HttpStatus.SC_NO_CONTENT;
+
+    @Override
+    protected HttpResponse respond(String method, String path) {
+      if ("DELETE".equals(method)) {
+        return response(deleteStatus,
+            HttpStatus.SC_NO_CONTENT == deleteStatus ? null : "{\"id\":\"unprocessable_entity\"}");
+      }
+      if (path.endsWith("/droplets")) {
+        return response(HttpStatus.SC_OK, "{\"droplets\":[{\"id\":7}],\"meta\":{\"total\":1}}");
+      }
+      return response(HttpStatus.SC_OK,
+          "{\"droplet\":{\"id\":" + path.substring(path.lastIndexOf('/') + 1) + "}}");
+    }
+  }
+}
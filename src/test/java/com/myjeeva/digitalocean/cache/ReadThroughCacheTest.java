@@ -0,0 +1,223 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.myjeeva.digitalocean.common.ApiAction;
+import com.myjeeva.digitalocean.exception.DigitalOceanException;
+import com.myjeeva.digitalocean.exception.RequestUnsuccessfulException;
+
+/**
+ * Unit tests of {@link ReadThroughCache} and {@link FrequencySketch}
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ */
+@RunWith(JUnit4.class)
+public class ReadThroughCacheTest {
+
+  private static final ApiAction ACTION = ApiAction.AVAILABLE_REGIONS;
+
+  private static String key(String name) {
+    return ACTION + " " + name;
+  }
+
+  private static final class CountingLoader implements CacheLoader<String> {
+
+    private final String value;
+
+    int loads;
+
+    CountingLoader(String value) {
+      this.value = value;
+    }
+
+    @Override
+    public String load() {
+      loads++;
+      return value;
+    }
+  }
+
+  private static ReadThroughCache cache(int maximumSize) {
+    ReadThroughCache cache = new ReadThroughCache(maximumSize);
+    cache.setTimeToLive(ACTION, 1, TimeUnit.HOURS);
+    return cache;
+  }
+
+  private static Object load(ReadThroughCache cache, String name)
+      throws DigitalOceanException, RequestUnsuccessfulException {
+    return cache.get(ACTION, key(name), new CountingLoader(name));
+  }
+
+  @Test
+  public void testSketchCountsAndSaturates() {
+    FrequencySketch sketch = new FrequencySketch(64);
+    assertEquals(0, sketch.frequency("a"));
+    for (int i = 0; i < 3; i++) {
+      sketch.increment("a");
+    }
+    assertEquals(3, sketch.frequency("a"));
+
+    for (int i = 0; i < 20; i++) {
+      sketch.increment("a");
+    }
+    assertEquals(15, sketch.frequency("a"));
+  }
+
+  @Test
+  public void testSketchAgesCounters() {
+    FrequencySketch sketch = new FrequencySketch(8);
+    for (int i = 0; i < 8; i++) {
+      sketch.increment("a");
+    }
+    assertEquals(8, sketch.frequency("a"));
+
+    // the sample size is ten times the capacity, reaching it halves every counter
+    for (int i = 0; i < 80; i++) {
+      sketch.increment("key-" + i);
+    }
+    assertTrue(sketch.frequency("a") <= 4);
+  }
+
+  @Test
+  public void testHitAfterLoad() throws Exception {
+    ReadThroughCache cache = cache(10);
+    CountingLoader loader = new CountingLoader("regions");
+    assertEquals("regions", cache.get(ACTION, key("/v2/regions"), loader));
+    assertEquals("regions", cache.get(ACTION, key("/v2/regions"), loader));
+
+    assertEquals(1, loader.loads);
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.getLoadCount());
+  }
+
+  @Test
+  public void testUncachedActionAndNullValueGoToLoader() throws Exception {
+    ReadThroughCache cache = cache(10);
+    CountingLoader loader = new CountingLoader("sizes");
+    cache.get(ApiAction.AVAILABLE_SIZES, "sizes", loader);
+    cache.get(ApiAction.AVAILABLE_SIZES, "sizes", loader);
+    assertEquals(2, loader.loads);
+
+    CountingLoader nothing = new CountingLoader(null);
+    cache.get(ACTION, key("/v2/regions"), nothing);
+    cache.get(ACTION, key("/v2/regions"), nothing);
+    assertEquals(2, nothing.loads);
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testExpiredValueIsReloaded() throws Exception {
+    ReadThroughCache cache = new ReadThroughCache(10);
+    cache.setTimeToLive(ACTION, 1, TimeUnit.NANOSECONDS);
+    CountingLoader loader = new CountingLoader("regions");
+    cache.get(ACTION, key("/v2/regions"), loader);
+    Thread.sleep(1);
+    cache.get(ACTION, key("/v2/regions"), loader);
+    assertEquals(2, loader.loads);
+  }
+
+  @Test
+  public void testScanDoesNotEvictPopularValue() throws Exception {
+    ReadThroughCache cache = cache(10);
+    load(cache, "hot");
+    load(cache, "warm");
+    for (int i = 0; i < 5; i++) {
+      assertNotNull(cache.getIfPresent(key("hot")));
+    }
+
+    for (int i = 0; i < 100; i++) {
+      load(cache, "scan-" + i);
+    }
+
+    assertEquals(10, cache.size());
+    assertEquals(92, cache.getEvictionCount());
+    assertNotNull(cache.getIfPresent(key("hot")));
+  }
+
+  @Test
+  public void testFrequentCandidateIsAdmitted() throws Exception {
+    ReadThroughCache cache = cache(10);
+    for (int i = 0; i < 10; i++) {
+      load(cache, "old-" + i);
+    }
+
+    load(cache, "new");
+    for (int i = 0; i < 3; i++) {
+      assertNotNull(cache.getIfPresent(key("new")));
+    }
+    // pushes the candidate out of the window, it wins over the oldest probation entry
+    load(cache, "next");
+
+    assertEquals(10, cache.size());
+    assertNotNull(cache.getIfPresent(key("new")));
+    assertNull(cache.getIfPresent(key("old-0")));
+  }
+
+  @Test
+  public void testInvalidateByPrefix() throws Exception {
+    ReadThroughCache cache = cache(10);
+    cache.setTimeToLive(ApiAction.AVAILABLE_SIZES, 1, TimeUnit.HOURS);
+    load(cache, "/v2/regions?page=1");
+    load(cache, "/v2/regions?page=2");
+    cache.get(ApiAction.AVAILABLE_SIZES, ApiAction.AVAILABLE_SIZES + " /v2/sizes",
+        new CountingLoader("sizes"));
+
+    cache.invalidateAll(ACTION);
+    assertEquals(1, cache.size());
+    assertNull(cache.getIfPresent(key("/v2/regions?page=1")));
+    assertNotNull(cache.getIfPresent(ApiAction.AVAILABLE_SIZES + " /v2/sizes"));
+  }
+
+  @Test
+  public void testLoadRacingInvalidationIsNotCached() throws Exception {
+    final ReadThroughCache cache = cache(10);
+    Object value = cache.get(ACTION, key("/v2/regions"), new CacheLoader<String>() {
+      @Override
+      public String load() {
+        cache.invalidate(key("/v2/regions"));
+        return "stale";
+      }
+    });
+
+    assertEquals("stale", value);
+    assertEquals(0, cache.size());
+    assertFalse(cache.isCached(ApiAction.AVAILABLE_SIZES));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonGetActionCannotBeCached() {
+    cache(10).setTimeToLive(ApiAction.CREATE_DROPLET, 1, TimeUnit.MINUTES);
+  }
+}
@@ -0,0 +1,136 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.myjeeva.digitalocean.common.DropletStatus;
+import com.myjeeva.digitalocean.pojo.Droplet;
+import com.myjeeva.digitalocean.pojo.Region;
+
+/**
+ * Unit tests of {@link DropletIndex}
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ */
+@RunWith(JUnit4.class)
+public class DropletIndexTest {
+
+  private DropletIndex index;
+
+  private static Droplet droplet(int id, String name, String region, DropletStatus status,
+      String size, String... tags) {
+    Droplet droplet = new Droplet();
+    droplet.setId(id);
+    droplet.setName(name);
+    droplet.setRegion(new Region(region));
+    droplet.setStatus(status);
+    droplet.setSize(size);
+    droplet.setTags(new ArrayList<String>(Arrays.asList(tags)));
+    return droplet;
+  }
+
+  private static List<Integer> ids(List<Droplet> droplets) {
+    List<Integer> ids = new ArrayList<Integer>();
+    for (Droplet droplet : droplets) {
+      ids.add(droplet.getId());
+    }
+    Collections.sort(ids);
+    return ids;
+  }
+
+  @Before
+  public void setUp() {
+    index = new DropletIndex();
+    index.putAll(Arrays.asList(
+        droplet(1, "web-1", "fra1", DropletStatus.ACTIVE, "s-1vcpu-1gb", "web", "prod"),
+        droplet(2, "web-2", "fra1", DropletStatus.OFF, "s-1vcpu-1gb", "web"),
+        droplet(3, "web-3", "nyc3", DropletStatus.ACTIVE, "s-2vcpu-2gb", "web", "prod"),
+        droplet(4, "db-1", "fra1", DropletStatus.ACTIVE, "s-2vcpu-2gb", "db", "prod")));
+  }
+
+  @Test
+  public void testConjunction() {
+    assertEquals(Arrays.asList(1), ids(index.find(new DropletQuery()
+        .withStatus(DropletStatus.ACTIVE).withRegion("fra1").withTag("web"))));
+    assertEquals(Arrays.asList(1, 3),
+        ids(index.find(new DropletQuery().withTag("web").withTag("prod"))));
+    assertEquals(Arrays.asList(3, 4), ids(index.find(new DropletQuery().withSize("s-2vcpu-2gb"))));
+    assertEquals(Arrays.asList(4), ids(index.find(new DropletQuery().withName("db-1"))));
+  }
+
+  @Test
+  public void testEmptyQueryAndNoMatch() {
+    assertEquals(Arrays.asList(1, 2, 3, 4), ids(index.find(new DropletQuery())));
+    assertTrue(index.find(new DropletQuery().withTag("web").withRegion("sgp1")).isEmpty());
+    assertTrue(index.find(new DropletQuery().withTag("missing")).isEmpty());
+  }
+
+  @Test
+  public void testReplaceReindexes() {
+    index.put(droplet(2, "web-2", "fra1", DropletStatus.ACTIVE, "s-1vcpu-1gb", "web", "prod"));
+
+    assertEquals(4, index.size());
+    assertTrue(index.find(new DropletQuery().withStatus(DropletStatus.OFF)).isEmpty());
+    assertEquals(Arrays.asList(1, 2), ids(index.find(new DropletQuery()
+        .withStatus(DropletStatus.ACTIVE).withRegion("fra1").withTag("web"))));
+    assertEquals(4, index.countByTag("prod"));
+  }
+
+  @Test
+  public void testRemove() {
+    assertEquals("db-1", index.remove(4).getName());
+    assertNull(index.remove(4));
+    assertNull(index.get(4));
+    assertEquals(0, index.countByTag("db"));
+    assertEquals(2, index.countByTag("prod"));
+    assertEquals(Arrays.asList(1, 2),
+        ids(index.find(new DropletQuery().withRegion("fra1"))));
+  }
+
+  @Test
+  public void testReplaceAll() {
+    index.replaceAll(Arrays.asList(droplet(9, "cache-1", "ams3", DropletStatus.NEW, "s-1vcpu-1gb",
+        "cache")));
+
+    assertEquals(1, index.size());
+    assertEquals(0, index.countByTag("web"));
+    assertEquals(Arrays.asList(9), ids(index.find(new DropletQuery().withSize("s-1vcpu-1gb"))));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPutRequiresId() {
+    index.put(new Droplet());
+  }
+}
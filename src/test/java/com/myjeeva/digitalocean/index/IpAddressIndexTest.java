@@ -0,0 +1,207 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.index;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.myjeeva.digitalocean.pojo.Droplet;
+import com.myjeeva.digitalocean.pojo.FloatingIP;
+import com.myjeeva.digitalocean.pojo.Network;
+import com.myjeeva.digitalocean.pojo.Networks;
+
+/**
+ * Unit tests of {@link IpAddressIndex}
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ */
+@RunWith(JUnit4.class)
+public class IpAddressIndexTest {
+
+  private static Network network(String address, String type) {
+    Network network = new Network();
+    network.setIpAddress(address);
+    network.setType(type);
+    return network;
+  }
+
+  private static Droplet droplet(int id, String... addresses) {
+    List<Network> v4 = new ArrayList<Network>();
+    List<Network> v6 = new ArrayList<Network>();
+    for (String address : addresses) {
+      boolean internal = address.startsWith("10.");
+      (address.indexOf(':') >= 0 ? v6 : v4)
+          .add(network(address, internal ? "private" : "public"));
+    }
+    Networks networks = new Networks();
+    networks.setVersion4Networks(v4);
+    networks.setVersion6Networks(v6);
+
+    Droplet droplet = new Droplet();
+    droplet.setId(id);
+    droplet.setNetworks(networks);
+    return droplet;
+  }
+
+  private static FloatingIP floatingIP(String address, Integer dropletId) {
+    FloatingIP floatingIP = new FloatingIP();
+    floatingIP.setIp(address);
+    if (null != dropletId) {
+      Droplet droplet = new Droplet();
+      droplet.setId(dropletId);
+      floatingIP.setDroplet(droplet);
+    }
+    return floatingIP;
+  }
+
+  @Test
+  public void testParseIpv4() {
+    assertEquals(0x0a000001, IpAddressIndex.parseIpv4("10.0.0.1"));
+    assertEquals(0xcb007107, IpAddressIndex.parseIpv4("203.0.113.7"));
+    assertEquals(-1, IpAddressIndex.parseIpv4("255.255.255.255"));
+  }
+
+  @Test
+  public void testParseIpv4RejectsInvalid() {
+    for (String address : new String[] {"256.0.0.1", "1.2.3", "1.2.3.4.5", "1..2.3", "1.2.3.",
+        ".1.2.3", "1.2.3.4a", "1.2.3.1000", "10.0.0.0255", ""}) {
+      try {
+        IpAddressIndex.parseIpv4(address);
+        throw new AssertionError("Accepted " + address);
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testParseIpv6() {
+    assertEquals(0x20010db800000000L, IpAddressIndex.ipv6High("2001:db8::1"));
+    assertEquals(1L, IpAddressIndex.ipv6Low("2001:db8::1"));
+    assertEquals(0x20010db800000000L, IpAddressIndex.ipv6High("2001:0DB8:0:0:0:0:0:1"));
+    assertEquals(1L, IpAddressIndex.ipv6Low("2001:0db8:0:0:0:0:0:1"));
+    assertEquals(0L, IpAddressIndex.ipv6High("::1"));
+    assertEquals(1L, IpAddressIndex.ipv6Low("::1"));
+    assertEquals(0xfe80000000000000L, IpAddressIndex.ipv6High("fe80::"));
+    assertEquals(0L, IpAddressIndex.ipv6Low("fe80::"));
+    assertEquals(0L, IpAddressIndex.ipv6High("::"));
+    assertEquals(0x0001000200030004L, IpAddressIndex.ipv6Low("1:2:3:4:1:2:3:4"));
+    assertEquals(0x00000000000a000bL, IpAddressIndex.ipv6Low("1:2::a:b"));
+  }
+
+  @Test
+  public void testParseIpv6ZoneId() {
+    assertEquals(0xfe80000000000000L, IpAddressIndex.ipv6High("fe80::1%eth0"));
+    assertEquals(1L, IpAddressIndex.ipv6Low("fe80::1%eth0"));
+  }
+
+  @Test
+  public void testParseIpv6RejectsInvalid() {
+    for (String address : new String[] {"1:2:3:4:5:6:7", "1:2:3:4:5:6:7:8:9", "1::2::3", ":::",
+        "1:2:3:4:5:6:7:", "12345::1", "g::1", "1::2:3:4:5:6:7:8", "::ffff:1.2.3.4"}) {
+      try {
+        IpAddressIndex.ipv6High(address);
+        throw new AssertionError("Accepted " + address);
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testLookup() {
+    IpAddressIndex index = new IpAddressIndex();
+    index.putDroplets(Arrays.asList(droplet(1, "203.0.113.7", "10.0.0.1", "2001:db8::7"),
+        droplet(2, "203.0.113.8", "not-an-address")));
+
+    assertEquals(4, index.size());
+    long entry = index.lookup("10.0.0.1");
+    assertEquals(1, IpAddressIndex.dropletId(entry));
+    assertEquals(NetworkType.PRIVATE, IpAddressIndex.networkType(entry));
+    assertEquals(NetworkType.PUBLIC, IpAddressIndex.networkType(index.lookup("2001:db8::7")));
+    assertEquals(1, IpAddressIndex.dropletId(index.lookup("2001:DB8:0::7")));
+    assertEquals(2, IpAddressIndex.dropletId(index.lookup("203.0.113.8")));
+    assertEquals(IpAddressIndex.NOT_FOUND, index.lookup("203.0.113.9"));
+  }
+
+  @Test
+  public void testFloatingIpWinsUntilUnassigned() {
+    IpAddressIndex index = new IpAddressIndex();
+    index.putFloatingIPs(Collections.singletonList(floatingIP("198.51.100.1", 1)));
+    index.putDroplets(Collections.singletonList(droplet(1, "198.51.100.1", "203.0.113.7")));
+
+    long entry = index.lookup("198.51.100.1");
+    assertEquals(NetworkType.FLOATING, IpAddressIndex.networkType(entry));
+
+    index.removeDroplets(Collections.singletonList(1));
+    assertEquals(1, IpAddressIndex.dropletId(index.lookup("198.51.100.1")));
+    assertEquals(IpAddressIndex.NOT_FOUND, index.lookup("203.0.113.7"));
+
+    index.putFloatingIPs(Collections.singletonList(floatingIP("198.51.100.1", null)));
+    assertEquals(IpAddressIndex.NOT_FOUND, index.lookup("198.51.100.1"));
+    assertEquals(0, index.size());
+  }
+
+  @Test
+  public void testRemoveKeepsProbeChains() {
+    Random random = new Random(42);
+    List<Droplet> droplets = new ArrayList<Droplet>();
+    for (int id = 1; id <= 2000; id++) {
+      droplets.add(droplet(id, "10." + random.nextInt(256) + "." + (id >> 8) + "." + (id & 255),
+          "2001:db8::" + Integer.toHexString(id)));
+    }
+    IpAddressIndex index = new IpAddressIndex();
+    index.putDroplets(droplets);
+    assertEquals(4000, index.size());
+
+    List<Integer> removed = new ArrayList<Integer>();
+    for (int id = 1; id <= 2000; id += 3) {
+      removed.add(id);
+    }
+    index.removeDroplets(removed);
+    assertEquals(4000 - 2 * removed.size(), index.size());
+
+    for (Droplet droplet : droplets) {
+      long expected = removed.contains(droplet.getId()) ? IpAddressIndex.NOT_FOUND
+          : droplet.getId();
+      for (Network network : droplet.getNetworks().getVersion4Networks()) {
+        long entry = index.lookup(network.getIpAddress());
+        assertEquals(expected, IpAddressIndex.NOT_FOUND == entry ? entry
+            : IpAddressIndex.dropletId(entry));
+      }
+      for (Network network : droplet.getNetworks().getVersion6Networks()) {
+        long entry = index.lookup(network.getIpAddress());
+        assertEquals(expected, IpAddressIndex.NOT_FOUND == entry ? entry
+            : IpAddressIndex.dropletId(entry));
+      }
+    }
+  }
+}
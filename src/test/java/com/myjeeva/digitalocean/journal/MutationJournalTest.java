@@ -0,0 +1,239 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.journal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.apache.http.impl.execchain.StubHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.myjeeva.digitalocean.common.ApiAction;
+import com.myjeeva.digitalocean.exception.DigitalOceanException;
+import com.myjeeva.digitalocean.impl.DigitalOceanClient;
+import com.myjeeva.digitalocean.pojo.Droplet;
+import com.myjeeva.digitalocean.pojo.Image;
+import com.myjeeva.digitalocean.pojo.Region;
+
+/**
+ * Unit tests of {@link MutationJournal}
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ */
+@RunWith(JUnit4.class)
+public class MutationJournalTest {
+
+  private Path file;
+
+  @Before
+  public void setUp() throws IOException {
+    file = File.createTempFile("mutation", ".journal").toPath();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  public void testOutcomeOfClientCallIsReadBack() throws Exception {
+    DigitalOceanClient apiClient = new DigitalOceanClient("v2", "token", StubHttpClient.of(201,
+        "{\"droplet\":{\"id\":3164494,\"name\":\"example.com\",\"status\":\"new\"}}"));
+    MutationJournal journal = MutationJournal.open(file);
+    apiClient.setMutationJournal(journal);
+
+    Droplet droplet = new Droplet();
+    droplet.setName("example.com");
+    droplet.setRegion(new Region("nyc3"));
+    droplet.setSize("s-1vcpu-1gb");
+    droplet.setImage(new Image("ubuntu-16-04-x64"));
+    apiClient.createDroplet(droplet);
+    journal.close();
+
+    journal = MutationJournal.open(file);
+    List<JournalEntry> entries = journal.getEntries();
+    journal.close();
+
+    assertEquals(1, entries.size());
+    JournalEntry entry = entries.get(0);
+    assertEquals(ApiAction.CREATE_DROPLET, entry.getApiAction());
+    assertEquals(EntryStatus.SUCCEEDED, entry.getStatus());
+    JsonObject result = new JsonParser().parse(entry.getResult()).getAsJsonObject();
+    assertEquals(3164494, result.get("id").getAsInt());
+    assertEquals("example.com", result.get("name").getAsString());
+    assertTrue(entry.getBody().contains("\"name\":\"example.com\""));
+  }
+
+  @Test
+  public void testOnlyRejectedCallsFail() throws Exception {
+    MutationJournal journal = MutationJournal.open(file);
+    for (int statusCode : new int[] {422, 502, 504}) {
+      DigitalOceanClient apiClient = new DigitalOceanClient("v2", "token",
+          StubHttpClient.of(statusCode, "{\"id\":\"error\",\"message\":\"failed\"}"));
+      apiClient.setMutationJournal(journal);
+      try {
+        apiClient.deleteTag("web");
+        fail("No error for status " + statusCode);
+      } catch (DigitalOceanException e) {
+        assertEquals(statusCode, e.getHttpStatusCode());
+      }
+    }
+    journal.sync();
+
+    List<JournalEntry> entries = journal.getEntries();
+    journal.close();
+    assertEquals(EntryStatus.FAILED, entries.get(0).getStatus());
+    // a gateway error may come after the call was applied
+    assertEquals(EntryStatus.PENDING, entries.get(1).getStatus());
+    assertEquals(EntryStatus.PENDING, entries.get(2).getStatus());
+  }
+
+  @Test
+  public void testTornTailIsDropped() throws Exception {
+    MutationJournal journal = MutationJournal.open(file);
+    journal.intent(ApiAction.CREATE_TAG, null, null, "{\"name\":\"web\"}");
+    journal.close();
+    long size = Files.size(file);
+
+    // length header promising more bytes than were written
+    Files.write(file, new byte[] {0, 0, 0, 50, 1, 2, 3}, StandardOpenOption.APPEND);
+
+    journal = MutationJournal.open(file);
+    assertEquals(size, Files.size(file));
+    assertEquals(2, journal.intent(ApiAction.CREATE_TAG, null, null, "{\"name\":\"db\"}"));
+    assertEquals(2, journal.getPending().size());
+    journal.close();
+  }
+
+  @Test
+  public void testCorruptRecordKeepsLaterRecords() throws Exception {
+    MutationJournal journal = MutationJournal.open(file);
+    for (String name : new String[] {"a", "b", "c"}) {
+      journal.intent(ApiAction.CREATE_TAG, null, null, "{\"name\":\"" + name + "\"}");
+    }
+    journal.close();
+
+    RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw");
+    try {
+      int first = raf.readInt();
+      long second = 8 + first;
+      raf.seek(second + 8 + 1);
+      int b = raf.read();
+      raf.seek(second + 8 + 1);
+      raf.write(b ^ 0xff);
+    } finally {
+      raf.close();
+    }
+
+    journal = MutationJournal.open(file);
+    List<JournalEntry> entries = journal.getEntries();
+    assertEquals(2, entries.size());
+    assertEquals(1, entries.get(0).getSequence());
+    assertEquals(3, entries.get(1).getSequence());
+    assertEquals(4, journal.intent(ApiAction.CREATE_TAG, null, null, "{\"name\":\"d\"}"));
+    journal.close();
+  }
+
+  @Test
+  public void testReplayKeepsEntryPendingOnReconcilerFailure() throws Exception {
+    MutationJournal journal = MutationJournal.open(file);
+    journal.intent(ApiAction.CREATE_TAG, null, null, "{\"name\":\"a\"}");
+    journal.intent(ApiAction.CREATE_TAG, null, null, "{\"name\":\"b\"}");
+    journal.intent(ApiAction.CREATE_TAG, null, null, "{\"name\":\"c\"}");
+
+    ReplayReport report = journal.replay(new Reconciler() {
+      @Override
+      public EntryStatus reconcile(JournalEntry entry) {
+        switch ((int) entry.getSequence()) {
+          case 1:
+            return EntryStatus.APPLIED;
+          case 2:
+            throw new IllegalStateException("lookup failed");
+          default:
+            return EntryStatus.ABANDONED;
+        }
+      }
+    });
+
+    assertEquals(1, report.getApplied().size());
+    assertEquals(1, report.getAbandoned().size());
+    assertEquals(1, report.getPending().size());
+    assertEquals(2, report.getPending().get(0).getSequence());
+    journal.close();
+  }
+
+  @Test
+  public void testCompactDropsDecidedEntries() throws Exception {
+    MutationJournal journal = MutationJournal.open(file);
+    long applied = journal.intent(ApiAction.CREATE_TAG, null, null, "{\"name\":\"a\"}");
+    long pending = journal.intent(ApiAction.CREATE_TAG, null, null, "{\"name\":\"b\"}");
+    long succeeded = journal.intent(ApiAction.CREATE_TAG, null, null, "{\"name\":\"c\"}");
+    journal.succeeded(succeeded, "{\"name\":\"c\"}");
+    journal.replay(new Reconciler() {
+      @Override
+      public EntryStatus reconcile(JournalEntry entry) {
+        return "{\"name\":\"a\"}".equals(entry.getBody()) ? EntryStatus.APPLIED
+            : EntryStatus.PENDING;
+      }
+    });
+    long size = Files.size(file);
+
+    assertEquals(1, journal.compact(EntryStatus.APPLIED, EntryStatus.ABANDONED));
+    assertTrue(Files.size(file) < size);
+    long next = journal.intent(ApiAction.CREATE_TAG, null, null, "{\"name\":\"d\"}");
+    journal.close();
+
+    journal = MutationJournal.open(file);
+    List<JournalEntry> entries = journal.getEntries();
+    journal.close();
+    assertEquals(3, entries.size());
+    assertEquals(pending, entries.get(0).getSequence());
+    assertEquals(EntryStatus.SUCCEEDED, entries.get(1).getStatus());
+    assertEquals(next, entries.get(2).getSequence());
+    assertTrue(next > applied);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCompactRejectsPending() throws Exception {
+    MutationJournal journal = MutationJournal.open(file);
+    try {
+      journal.compact(EntryStatus.PENDING);
+    } finally {
+      journal.close();
+    }
+  }
+}
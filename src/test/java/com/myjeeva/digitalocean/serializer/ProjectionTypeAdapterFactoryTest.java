@@ -0,0 +1,113 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.serializer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.myjeeva.digitalocean.pojo.Droplet;
+
+/**
+ * Unit tests of {@link FieldProjection} and {@link ProjectionTypeAdapterFactory}
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ */
+@RunWith(JUnit4.class)
+public class ProjectionTypeAdapterFactoryTest {
+
+  private static final String DROPLET = "{\"id\":3164444,\"name\":\"example.com\",\"memory\":1024,"
+      + "\"vcpus\":1,\"disk\":25,\"locked\":false,\"status\":\"active\","
+      + "\"region\":{\"slug\":\"nyc3\",\"name\":\"New York 3\",\"sizes\":[\"s-1vcpu-1gb\"]},"
+      + "\"networks\":{\"v4\":[{\"ip_address\":\"104.236.32.182\",\"netmask\":\"255.255.192.0\","
+      + "\"gateway\":\"104.236.0.1\",\"type\":\"public\"}],\"v6\":[{\"ip_address\":"
+      + "\"2604:a880:800:10::1\",\"type\":\"public\"}]},\"tags\":[\"web\",\"prod\"]}";
+
+  private static Gson gson(FieldProjection projection) {
+    return new GsonBuilder()
+        .registerTypeAdapterFactory(new ProjectionTypeAdapterFactory(Droplet.class, projection))
+        .create();
+  }
+
+  @Test
+  public void testWholeAttributeWinsOverNested() {
+    assertEquals("{networks,region}",
+        FieldProjection.of("region.slug", "networks.v4", "region", "networks").toString());
+    assertEquals("{id,region{slug}}", FieldProjection.of(" id ", "region.slug").toString());
+    assertEquals(FieldProjection.of("name", "id"), FieldProjection.of("id", "name"));
+  }
+
+  @Test
+  public void testNestedProjection() {
+    FieldProjection projection = FieldProjection.of("region.slug", "tags");
+    assertTrue(projection.contains("region"));
+    assertFalse(projection.contains("slug"));
+    assertTrue(projection.get("region").contains("slug"));
+    assertNull(projection.get("tags"));
+    assertNull(projection.get("name"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBlankPath() {
+    FieldProjection.of("id", " ");
+  }
+
+  @Test
+  public void testReadBindsProjectedAttributesOnly() {
+    Droplet droplet =
+        gson(FieldProjection.of("id", "status", "tags", "region.slug", "networks.v4"))
+            .fromJson(DROPLET, Droplet.class);
+
+    assertEquals(Integer.valueOf(3164444), droplet.getId());
+    assertNull(droplet.getName());
+    assertNull(droplet.getMemorySizeInMb());
+    assertEquals("active", droplet.getStatus().toString().toLowerCase());
+    assertEquals(2, droplet.getTags().size());
+    assertEquals("nyc3", droplet.getRegion().getSlug());
+    assertNull(droplet.getRegion().getName());
+    assertEquals("104.236.32.182",
+        droplet.getNetworks().getVersion4Networks().get(0).getIpAddress());
+    assertEquals("255.255.192.0", droplet.getNetworks().getVersion4Networks().get(0).getNetmask());
+    assertNull(droplet.getNetworks().getVersion6Networks());
+  }
+
+  @Test
+  public void testWriteDelegates() {
+    Gson gson = gson(FieldProjection.of("id", "region.slug"));
+    Droplet droplet = gson.fromJson(DROPLET, Droplet.class);
+
+    JsonObject json = new JsonParser().parse(gson.toJson(droplet)).getAsJsonObject();
+    assertEquals(3164444, json.get("id").getAsInt());
+    assertEquals("nyc3", json.getAsJsonObject("region").get("slug").getAsString());
+    assertFalse(json.has("name"));
+    assertEquals(json, new JsonParser().parse(new Gson().toJson(droplet)));
+  }
+}
@@ -0,0 +1,110 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.myjeeva.digitalocean.serializer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.http.impl.execchain.StubHttpClient;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.myjeeva.digitalocean.common.ResourceType;
+import com.myjeeva.digitalocean.impl.DigitalOceanClient;
+import com.myjeeva.digitalocean.pojo.Snapshot;
+import com.myjeeva.digitalocean.pojo.Snapshots;
+
+/**
+ * Unit tests of {@link SnapshotTypeAdapterFactory}
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ */
+@RunWith(JUnit4.class)
+public class SnapshotTypeAdapterFactoryTest {
+
+  private static final String VOLUME_SNAPSHOT = "{\"id\":\"8fa70202-873f-11e6-8b68-000f533176b1\","
+      + "\"name\":\"big-data-snapshot\",\"resource_id\":\"82a48a18-873f-11e6-96bf-000f53315a41\","
+      + "\"resource_type\":\"volume\",\"size_gigabytes\":0}";
+
+  private static final String DROPLET_SNAPSHOT = "{\"id\":6372321,\"name\":\"web-01-snapshot\","
+      + "\"resource_id\":\"200776916\",\"resource_type\":\"droplet\"}";
+
+  private final Gson gson =
+      new GsonBuilder().registerTypeAdapterFactory(new SnapshotTypeAdapterFactory()).create();
+
+  @Test
+  public void testVolumeSnapshotId() {
+    Snapshot snapshot = gson.fromJson(VOLUME_SNAPSHOT, Snapshot.class);
+    assertNull(snapshot.getId());
+    assertEquals("8fa70202-873f-11e6-8b68-000f533176b1", snapshot.getSnapshotId());
+    assertEquals("big-data-snapshot", snapshot.getName());
+    assertEquals(ResourceType.VOLUME, snapshot.getResourceType());
+  }
+
+  @Test
+  public void testDropletSnapshotId() {
+    Snapshot snapshot = gson.fromJson(DROPLET_SNAPSHOT, Snapshot.class);
+    assertEquals(Integer.valueOf(6372321), snapshot.getId());
+    assertEquals("6372321", snapshot.getSnapshotId());
+  }
+
+  @Test
+  public void testSnapshotsCollection() {
+    Snapshots snapshots = gson.fromJson(
+        "{\"snapshots\":[" + VOLUME_SNAPSHOT + "," + DROPLET_SNAPSHOT + "]}", Snapshots.class);
+    assertEquals(2, snapshots.getSnapshots().size());
+    assertEquals("6372321", snapshots.getSnapshots().get(1).getSnapshotId());
+  }
+
+  @Test
+  public void testWriteKeepsUuid() {
+    Snapshot snapshot = gson.fromJson(VOLUME_SNAPSHOT, Snapshot.class);
+    String json = gson.toJson(snapshot);
+    assertTrue(json.contains("\"id\":\"8fa70202-873f-11e6-8b68-000f533176b1\""));
+    assertEquals(snapshot.getSnapshotId(), gson.fromJson(json, Snapshot.class).getSnapshotId());
+  }
+
+  @Test
+  public void testWithProjection() {
+    Gson projected = new GsonBuilder()
+        .registerTypeAdapterFactory(new ProjectionTypeAdapterFactory(Snapshot.class,
+            FieldProjection.of("id", "resource_id")))
+        .registerTypeAdapterFactory(new SnapshotTypeAdapterFactory()).create();
+    Snapshot snapshot = projected.fromJson(VOLUME_SNAPSHOT, Snapshot.class);
+    assertEquals("8fa70202-873f-11e6-8b68-000f533176b1", snapshot.getSnapshotId());
+    assertEquals("82a48a18-873f-11e6-96bf-000f53315a41", snapshot.getResourceId());
+    assertNull(snapshot.getName());
+  }
+
+  @Test
+  public void testSnapshotInfo() throws Exception {
+    DigitalOceanClient apiClient = new DigitalOceanClient("v2", "token",
+        StubHttpClient.of(200, "{\"snapshot\":" + VOLUME_SNAPSHOT + "}"));
+    Snapshot snapshot = apiClient.getSnaphotInfo("8fa70202-873f-11e6-8b68-000f533176b1");
+    assertEquals("8fa70202-873f-11e6-8b68-000f533176b1", snapshot.getSnapshotId());
+    assertEquals(ResourceType.VOLUME, snapshot.getResourceType());
+  }
+}
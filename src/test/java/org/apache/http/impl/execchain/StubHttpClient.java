@@ -0,0 +1,118 @@
+/**
+ * The MIT License
+ * 
+ * Copyright (c) 2013-2019 Jeevanandam M. (jeeva@myjeeva.com)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.apache.http.impl.execchain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * <code>HttpClient</code> answering requests in-process, for unit tests of the client. Requests
+ * are recorded as method and path, e.g. <code>DELETE /v2/droplets/42</code>.
+ * 
+ * @author Jeevanandam M. (jeeva@myjeeva.com)
+ */
+public abstract class StubHttpClient extends CloseableHttpClient {
+
+  private final List<String> requests = Collections.synchronizedList(new ArrayList<String>());
+
+  /**
+   * @param statusCode status of every response
+   * @param json body of every response, <code>null</code> for none
+   * @return a client giving the same response to every request
+   */
+  public static StubHttpClient of(final int statusCode, final String json) {
+    return new StubHttpClient() {
+      @Override
+      protected HttpResponse respond(String method, String path) {
+        return response(statusCode, json);
+      }
+    };
+  }
+
+  /**
+   * @param statusCode response status
+   * @param json response body, <code>null</code> for none
+   * @return the response
+   */
+  public static HttpResponse response(int statusCode, String json) {
+    BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, statusCode, "");
+    if (null != json) {
+      response.setEntity(new StringEntity(json, ContentType.APPLICATION_JSON));
+    }
+    return response;
+  }
+
+  /**
+   * @param method request method
+   * @param path request path without host and query, e.g. <code>/v2/droplets/42</code>
+   * @return the response
+   */
+  protected abstract HttpResponse respond(String method, String path);
+
+  /**
+   * @return the requests so far, as method and path
+   */
+  public List<String> getRequests() {
+    synchronized (requests) {
+      return new ArrayList<String>(requests);
+    }
+  }
+
+  @Override
+  protected CloseableHttpResponse doExecute(HttpHost target, HttpRequest request,
+      HttpContext context) {
+    String method = request.getRequestLine().getMethod();
+    String path = request.getRequestLine().getUri().replaceFirst("^https?://[^/]+", "")
+        .replaceFirst("\\?.*$", "");
+    requests.add(method + " " + path);
+    return new PublicHttpResponseProxy(respond(method, path));
+  }
+
+  @Override
+  public void close() {
+    // nothing to release
+  }
+
+  @Override
+  @Deprecated
+  public org.apache.http.params.HttpParams getParams() {
+    return null;
+  }
+
+  @Override
+  @Deprecated
+  public org.apache.http.conn.ClientConnectionManager getConnectionManager() {
+    return null;
+  }
+}